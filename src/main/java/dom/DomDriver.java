@@ -0,0 +1,609 @@
+package dom;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.ImmutableCapabilities;
+import org.openqa.selenium.NoAlertPresentException;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.NoSuchFrameException;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.NoSuchWindowException;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.UnsupportedCommandException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WindowType;
+import org.openqa.selenium.logging.Logs;
+import utils.TestDataManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.CookieManager;
+import java.net.HttpCookie;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// DomDriver - WebDriver without a browser, for structural checks of static markup
+// get() fetches the page over HTTP (or reads a file:, data: URL or the dom.fixture file for the app
+// URL) and parses it with HtmlParser; elements are located with Selectors. Scripts are not run and
+// nothing is rendered, so it sees the HTML the server sends, not what client-side code builds.
+// Creating one costs no process or socket of its own, so thousands can run side by side; all of
+// them share one HttpClient. Selected with browser=dom.
+public class DomDriver implements WebDriver, HasCapabilities {
+    
+    public static final String BROWSER_NAME = "dom";
+    
+    private static final HttpClient HTTP = HttpClient.newBuilder()
+        .followRedirects(HttpClient.Redirect.NORMAL)
+        .connectTimeout(Duration.ofSeconds(10))
+        .build();
+    
+    private final String handle = UUID.randomUUID().toString();
+    private final CookieManager cookies = new CookieManager();
+    private final List<String> history = new ArrayList<>();
+    private int historyIndex = -1;
+    private volatile boolean closed;
+    
+    private DomNode document = HtmlParser.parse("");
+    private String currentUrl = "about:blank";
+    private String source = "";
+    private int statusCode;
+    
+    private Duration implicitWait = Duration.ZERO;
+    private Duration pageLoadTimeout = Duration.ofSeconds(30);
+    private Duration scriptTimeout = Duration.ofSeconds(30);
+    private Dimension windowSize = new Dimension(1366, 768);
+    private Point windowPosition = new Point(0, 0);
+    
+    @Override
+    public void get(String url) {
+        load(url, "GET", null);
+        while (history.size() > historyIndex + 1) {
+            history.remove(history.size() - 1);
+        }
+        history.add(currentUrl);
+        historyIndex = history.size() - 1;
+    }
+    
+    @Override
+    public String getCurrentUrl() {
+        checkOpen();
+        return currentUrl;
+    }
+    
+    @Override
+    public String getTitle() {
+        checkOpen();
+        for (DomNode node : document.getDescendantElements()) {
+            if ("title".equals(node.getName())) {
+                return node.getTextContent().replaceAll("\\s+", " ").trim();
+            }
+        }
+        return "";
+    }
+    
+    @Override
+    public List<WebElement> findElements(By by) {
+        checkOpen();
+        DomNode current = document;
+        List<WebElement> elements = new ArrayList<>();
+        for (DomNode node : Selectors.find(current, current, by)) {
+            elements.add(new DomElement(this, current, node));
+        }
+        return elements;
+    }
+    
+    @Override
+    public WebElement findElement(By by) {
+        List<WebElement> elements = findElements(by);
+        if (elements.isEmpty()) {
+            throw new NoSuchElementException("No element matching " + by + " on " + currentUrl);
+        }
+        return elements.get(0);
+    }
+    
+    // The markup as received; typed values and other changes are not reflected
+    @Override
+    public String getPageSource() {
+        checkOpen();
+        return source;
+    }
+    
+    @Override
+    public void close() {
+        quit();
+    }
+    
+    @Override
+    public void quit() {
+        closed = true;
+        document = HtmlParser.parse("");
+        source = "";
+    }
+    
+    @Override
+    public Set<String> getWindowHandles() {
+        checkOpen();
+        return Collections.singleton(handle);
+    }
+    
+    @Override
+    public String getWindowHandle() {
+        checkOpen();
+        return handle;
+    }
+    
+    @Override
+    public TargetLocator switchTo() {
+        checkOpen();
+        return new DomTargetLocator();
+    }
+    
+    @Override
+    public Navigation navigate() {
+        checkOpen();
+        return new DomNavigation();
+    }
+    
+    @Override
+    public Options manage() {
+        checkOpen();
+        return new DomOptions();
+    }
+    
+    /**
+     Gets the HTTP status of the last page load; a browser shows error pages without failing get()
+     @return Status code, or 0 if the page did not come over HTTP
+     */
+    public int getStatusCode() {
+        checkOpen();
+        return statusCode;
+    }
+    
+    @Override
+    public Capabilities getCapabilities() {
+        return new ImmutableCapabilities("browserName", BROWSER_NAME);
+    }
+    
+    // Document the elements handed out so far belong to; replaced on every page load
+    DomNode getDocument() {
+        return document;
+    }
+    
+    /**
+     Resolves a link or form action against the current URL
+     @param reference Relative or absolute URL
+     @return Absolute URL, or the reference itself if it cannot be resolved
+     */
+    String resolve(String reference) {
+        try {
+            return currentUrl.startsWith("http") || currentUrl.startsWith("file:")
+                ? URI.create(currentUrl).resolve(reference.trim().replace(" ", "%20")).toString() : reference;
+        } catch (IllegalArgumentException e) {
+            return reference;
+        }
+    }
+    
+    /**
+     Submits a form the way a browser does without scripts: successful controls url-encoded into
+     the query (GET) or the request body (POST)
+     @param form Form element
+     @param submitter Button that submitted it, or null
+     */
+    void submit(DomNode form, DomNode submitter) {
+        List<String> pairs = new ArrayList<>();
+        for (DomNode control : form.getDescendantElements()) {
+            String name = control.getAttribute("name");
+            if (name == null || name.isEmpty() || control.hasAttribute("disabled")) {
+                continue;
+            }
+            String type = control.getAttribute("type") == null ? "" : control.getAttribute("type").toLowerCase();
+            switch (control.getName()) {
+                case "input":
+                    if ("checkbox".equals(type) || "radio".equals(type)) {
+                        if (DomElement.isChecked(control)) {
+                            pairs.add(encode(name, DomElement.getValue(control)));
+                        }
+                    } else if (!"submit".equals(type) && !"image".equals(type) && !"reset".equals(type)
+                        && !"button".equals(type) && !"file".equals(type)) {
+                        pairs.add(encode(name, DomElement.getValue(control)));
+                    }
+                    break;
+                case "textarea":
+                case "select":
+                    pairs.add(encode(name, DomElement.getValue(control)));
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (submitter != null && submitter.getAttribute("name") != null) {
+            pairs.add(encode(submitter.getAttribute("name"), DomElement.getValue(submitter)));
+        }
+        String data = String.join("&", pairs);
+        String action = resolve(form.getAttribute("action") == null || form.getAttribute("action").isEmpty()
+            ? currentUrl : form.getAttribute("action"));
+        if ("post".equalsIgnoreCase(form.getAttribute("method"))) {
+            load(action, "POST", data);
+        } else {
+            int query = action.indexOf('?');
+            load((query < 0 ? action : action.substring(0, query)) + "?" + data, "GET", null);
+        }
+        history.add(currentUrl);
+        historyIndex = history.size() - 1;
+    }
+    
+    // Fetches and parses a page; the dom.fixture file stands in for the app URL when configured
+    private void load(String url, String method, String body) {
+        checkOpen();
+        String html;
+        String loadedUrl = url;
+        int status = 0;
+        try {
+            String fixture = TestDataManager.getProperty("dom.fixture", "");
+            if (!fixture.isEmpty() && isAppUrl(url)) {
+                html = readFixture(fixture);
+            } else if (url.startsWith("data:")) {
+                html = readDataUrl(url);
+            } else if (url.startsWith("file:")) {
+                // a file has no query or fragment; drop them (e.g. after a GET form submission)
+                String file = url.split("[?#]", 2)[0];
+                html = new String(Files.readAllBytes(Paths.get(URI.create(file))), StandardCharsets.UTF_8);
+            } else if (url.startsWith("http://") || url.startsWith("https://")) {
+                HttpResponse<String> response = fetch(URI.create(url), method, body);
+                html = response.body();
+                loadedUrl = response.uri().toString();
+                status = response.statusCode();
+            } else {
+                throw new WebDriverException("The DOM driver cannot load " + url);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            throw new WebDriverException("Could not load " + url + ": " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WebDriverException("Interrupted while loading " + url, e);
+        }
+        source = html;
+        statusCode = status;
+        document = HtmlParser.parse(html);
+        currentUrl = loadedUrl;
+    }
+    
+    private HttpResponse<String> fetch(URI uri, String method, String body) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+            .timeout(pageLoadTimeout)
+            .header("User-Agent", "Mozilla/5.0 (compatible; UnibloxDomDriver/1.0)")
+            .header("Accept", "text/html,application/xhtml+xml;q=0.9,*/*;q=0.8");
+        for (Map.Entry<String, List<String>> header : cookies.get(uri, Collections.emptyMap()).entrySet()) {
+            for (String value : header.getValue()) {
+                request.header(header.getKey(), value);
+            }
+        }
+        if ("POST".equals(method)) {
+            request.header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(body == null ? "" : body));
+        } else {
+            request.GET();
+        }
+        HttpResponse<String> response = HTTP.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        cookies.put(response.uri(), response.headers().map());
+        return response;
+    }
+    
+    private boolean isAppUrl(String url) {
+        String app = TestDataManager.getAppUrl();
+        return app != null && stripSlash(app).equals(stripSlash(url));
+    }
+    
+    private static String stripSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+    
+    // dom.fixture is a file path, or a classpath resource when no such file exists
+    private static String readFixture(String fixture) throws IOException {
+        Path path = Paths.get(fixture);
+        if (Files.exists(path)) {
+            return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+        }
+        try (InputStream in = DomDriver.class.getClassLoader().getResourceAsStream(fixture)) {
+            if (in == null) {
+                throw new IOException("Fixture not found: " + fixture);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+    
+    private static String readDataUrl(String url) {
+        int comma = url.indexOf(',');
+        if (comma < 0) {
+            throw new IllegalArgumentException("Malformed data URL");
+        }
+        String data = url.substring(comma + 1);
+        if (url.substring(0, comma).endsWith(";base64")) {
+            return new String(Base64.getDecoder().decode(data), StandardCharsets.UTF_8);
+        }
+        return URLDecoder.decode(data.replace("+", "%2B"), StandardCharsets.UTF_8);
+    }
+    
+    private static String encode(String name, String value) {
+        return URLEncoder.encode(name, StandardCharsets.UTF_8) + "=" + URLEncoder.encode(value == null ? "" : value, StandardCharsets.UTF_8);
+    }
+    
+    private void checkOpen() {
+        if (closed) {
+            throw new NoSuchSessionException("DOM driver has been quit");
+        }
+    }
+    
+    private class DomNavigation implements Navigation {
+        @Override
+        public void back() {
+            if (historyIndex > 0) {
+                load(history.get(--historyIndex), "GET", null);
+            }
+        }
+        
+        @Override
+        public void forward() {
+            if (historyIndex < history.size() - 1) {
+                load(history.get(++historyIndex), "GET", null);
+            }
+        }
+        
+        @Override
+        public void to(String url) {
+            get(url);
+        }
+        
+        @Override
+        public void to(URL url) {
+            get(url.toString());
+        }
+        
+        @Override
+        public void refresh() {
+            if (historyIndex >= 0) {
+                load(history.get(historyIndex), "GET", null);
+            }
+        }
+    }
+    
+    // A single window without frames or alerts
+    private class DomTargetLocator implements TargetLocator {
+        @Override
+        public WebDriver frame(int index) {
+            throw new NoSuchFrameException("The DOM driver does not load frames");
+        }
+        
+        @Override
+        public WebDriver frame(String nameOrId) {
+            throw new NoSuchFrameException("The DOM driver does not load frames");
+        }
+        
+        @Override
+        public WebDriver frame(WebElement frameElement) {
+            throw new NoSuchFrameException("The DOM driver does not load frames");
+        }
+        
+        @Override
+        public WebDriver parentFrame() {
+            return DomDriver.this;
+        }
+        
+        @Override
+        public WebDriver window(String nameOrHandle) {
+            if (!handle.equals(nameOrHandle)) {
+                throw new NoSuchWindowException("No window " + nameOrHandle);
+            }
+            return DomDriver.this;
+        }
+        
+        @Override
+        public WebDriver newWindow(WindowType typeHint) {
+            throw new UnsupportedCommandException("The DOM driver has a single window");
+        }
+        
+        @Override
+        public WebDriver defaultContent() {
+            return DomDriver.this;
+        }
+        
+        @Override
+        public WebElement activeElement() {
+            List<WebElement> body = findElements(By.tagName("body"));
+            return body.isEmpty() ? findElement(By.cssSelector("*")) : body.get(0);
+        }
+        
+        @Override
+        public org.openqa.selenium.Alert alert() {
+            throw new NoAlertPresentException("The DOM driver does not run scripts, so there are no alerts");
+        }
+    }
+    
+    private class DomOptions implements Options {
+        @Override
+        public void addCookie(Cookie cookie) {
+            HttpCookie httpCookie = new HttpCookie(cookie.getName(), cookie.getValue());
+            httpCookie.setPath(cookie.getPath());
+            httpCookie.setDomain(cookie.getDomain() != null ? cookie.getDomain() : URI.create(currentUrl).getHost());
+            httpCookie.setSecure(cookie.isSecure());
+            httpCookie.setHttpOnly(cookie.isHttpOnly());
+            if (cookie.getExpiry() != null) {
+                httpCookie.setMaxAge(Math.max(0, (cookie.getExpiry().getTime() - System.currentTimeMillis()) / 1000));
+            }
+            cookies.getCookieStore().add(URI.create(currentUrl), httpCookie);
+        }
+        
+        @Override
+        public void deleteCookieNamed(String name) {
+            for (HttpCookie cookie : cookies.getCookieStore().getCookies()) {
+                if (cookie.getName().equals(name)) {
+                    cookies.getCookieStore().remove(null, cookie);
+                }
+            }
+        }
+        
+        @Override
+        public void deleteCookie(Cookie cookie) {
+            deleteCookieNamed(cookie.getName());
+        }
+        
+        @Override
+        public void deleteAllCookies() {
+            cookies.getCookieStore().removeAll();
+        }
+        
+        @Override
+        public Set<Cookie> getCookies() {
+            Set<Cookie> result = new HashSet<>();
+            for (HttpCookie cookie : cookies.getCookieStore().getCookies()) {
+                Date expiry = cookie.getMaxAge() < 0 ? null : new Date(System.currentTimeMillis() + cookie.getMaxAge() * 1000);
+                result.add(new Cookie(cookie.getName(), cookie.getValue(), cookie.getDomain(),
+                    cookie.getPath() == null ? "/" : cookie.getPath(), expiry, cookie.getSecure(), cookie.isHttpOnly()));
+            }
+            return result;
+        }
+        
+        @Override
+        public Cookie getCookieNamed(String name) {
+            for (Cookie cookie : getCookies()) {
+                if (cookie.getName().equals(name)) {
+                    return cookie;
+                }
+            }
+            return null;
+        }
+        
+        @Override
+        public Timeouts timeouts() {
+            return new DomTimeouts();
+        }
+        
+        @Override
+        public Window window() {
+            return new DomWindow();
+        }
+        
+        @Override
+        public Logs logs() {
+            throw new UnsupportedCommandException("The DOM driver has no browser logs");
+        }
+    }
+    
+    // Only the page load timeout is used (for HTTP requests); the document never changes on its
+    // own, so implicit waits have nothing to wait for
+    private class DomTimeouts implements Timeouts {
+        @Override
+        @Deprecated
+        public Timeouts implicitlyWait(long time, TimeUnit unit) {
+            implicitWait = Duration.ofMillis(unit.toMillis(time));
+            return this;
+        }
+        
+        @Override
+        public Timeouts implicitlyWait(Duration duration) {
+            implicitWait = duration;
+            return this;
+        }
+        
+        @Override
+        public Duration getImplicitWaitTimeout() {
+            return implicitWait;
+        }
+        
+        @Override
+        @Deprecated
+        public Timeouts setScriptTimeout(long time, TimeUnit unit) {
+            scriptTimeout = Duration.ofMillis(unit.toMillis(time));
+            return this;
+        }
+        
+        @Override
+        public Timeouts scriptTimeout(Duration duration) {
+            scriptTimeout = duration;
+            return this;
+        }
+        
+        @Override
+        public Duration getScriptTimeout() {
+            return scriptTimeout;
+        }
+        
+        @Override
+        @Deprecated
+        public Timeouts pageLoadTimeout(long time, TimeUnit unit) {
+            pageLoadTimeout = Duration.ofMillis(unit.toMillis(time));
+            return this;
+        }
+        
+        @Override
+        public Timeouts pageLoadTimeout(Duration duration) {
+            pageLoadTimeout = duration;
+            return this;
+        }
+        
+        @Override
+        public Duration getPageLoadTimeout() {
+            return pageLoadTimeout;
+        }
+    }
+    
+    // Window geometry is only remembered; nothing is laid out
+    private class DomWindow implements Window {
+        @Override
+        public Dimension getSize() {
+            return windowSize;
+        }
+        
+        @Override
+        public void setSize(Dimension targetSize) {
+            windowSize = targetSize;
+        }
+        
+        @Override
+        public Point getPosition() {
+            return windowPosition;
+        }
+        
+        @Override
+        public void setPosition(Point targetPosition) {
+            windowPosition = targetPosition;
+        }
+        
+        @Override
+        public void maximize() {
+        }
+        
+        @Override
+        public void minimize() {
+        }
+        
+        @Override
+        public void fullscreen() {
+        }
+    }
+}
@@ -0,0 +1,402 @@
+package dom;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.ElementNotInteractableException;
+import org.openqa.selenium.Keys;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.UnsupportedCommandException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsDriver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// DomElement - WebElement over a DomNode of the DomDriver's current document
+// Reads come straight from the parsed tree. Interactions a static page supports work without
+// scripts: typing into inputs, toggling checkboxes and radios, choosing options, following links
+// and submitting forms. There is no layout, so location and size are always zero. An element
+// from an earlier page throws StaleElementReferenceException, as in a browser.
+public class DomElement implements WebElement, WrapsDriver {
+    
+    private static final Set<String> BOOLEAN_ATTRIBUTES = new HashSet<>(Arrays.asList(
+        "async", "autofocus", "autoplay", "checked", "defer", "disabled", "hidden", "multiple", "novalidate",
+        "open", "readonly", "required", "reversed", "selected"));
+    private static final Set<String> NON_TEXT_INPUTS = new HashSet<>(Arrays.asList(
+        "checkbox", "radio", "submit", "reset", "button", "image", "hidden"));
+    
+    private final DomDriver driver;
+    private final DomNode document;
+    private final DomNode node;
+    
+    DomElement(DomDriver driver, DomNode document, DomNode node) {
+        this.driver = driver;
+        this.document = document;
+        this.node = node;
+    }
+    
+    /**
+     Gets the parsed node behind this element
+     @return DOM node
+     */
+    public DomNode getNode() {
+        return node;
+    }
+    
+    @Override
+    public WebDriver getWrappedDriver() {
+        return driver;
+    }
+    
+    @Override
+    public void click() {
+        checkCurrent();
+        if (!node.isDisplayed()) {
+            throw new ElementNotInteractableException("Element is not displayed: " + node);
+        }
+        String type = getInputType();
+        if ("input".equals(node.getName()) && "checkbox".equals(type)) {
+            node.checked = !isChecked(node);
+        } else if ("input".equals(node.getName()) && "radio".equals(type)) {
+            selectRadio();
+        } else if ("option".equals(node.getName())) {
+            selectOption();
+        } else if ("a".equals(node.getName()) && node.getAttribute("href") != null) {
+            String href = node.getAttribute("href").trim();
+            if (!href.startsWith("#") && !href.toLowerCase(Locale.ROOT).startsWith("javascript:")) {
+                driver.get(driver.resolve(href));
+            }
+        } else if (isSubmitter()) {
+            DomNode form = findForm();
+            if (form != null) {
+                driver.submit(form, node);
+            }
+        }
+        // any other click would only run scripts, which the DOM driver does not have
+    }
+    
+    @Override
+    public void submit() {
+        checkCurrent();
+        DomNode form = "form".equals(node.getName()) ? node : findForm();
+        if (form == null) {
+            throw new UnsupportedCommandException("Element is not in a form: " + node);
+        }
+        driver.submit(form, null);
+    }
+    
+    @Override
+    public void sendKeys(CharSequence... keysToSend) {
+        checkCurrent();
+        if (!isTextEditable()) {
+            throw new ElementNotInteractableException("Element does not take text input: " + node);
+        }
+        StringBuilder value = new StringBuilder(getValue(node));
+        boolean submit = false;
+        for (CharSequence keys : keysToSend) {
+            for (int i = 0; i < keys.length(); i++) {
+                char c = keys.charAt(i);
+                if (c == Keys.ENTER.charAt(0) || c == Keys.RETURN.charAt(0)) {
+                    submit = "input".equals(node.getName());
+                } else if (c == Keys.BACK_SPACE.charAt(0)) {
+                    if (value.length() > 0) {
+                        value.setLength(value.length() - 1);
+                    }
+                } else if (c < '\uE000' || c > '\uF8FF') {
+                    // other special keys are private-use characters and do not change the text
+                    value.append(c);
+                }
+            }
+        }
+        node.value = value.toString();
+        if (submit && findForm() != null) {
+            driver.submit(findForm(), null);
+        }
+    }
+    
+    @Override
+    public void clear() {
+        checkCurrent();
+        if (isTextEditable()) {
+            node.value = "";
+        }
+    }
+    
+    @Override
+    public String getTagName() {
+        checkCurrent();
+        return node.getName();
+    }
+    
+    @Override
+    public String getDomAttribute(String name) {
+        checkCurrent();
+        return node.getAttribute(name);
+    }
+    
+    @Override
+    public String getDomProperty(String name) {
+        return getAttribute(name);
+    }
+    
+    /**
+     Gets an attribute or property the way WebDriver does: current form state for value,
+     checked and selected, "true" or null for boolean attributes, absolute URLs for href and src,
+     and textContent, innerText, innerHTML and outerHTML
+     @param name Attribute or property name
+     @return Value, or null if not set
+     */
+    @Override
+    public String getAttribute(String name) {
+        checkCurrent();
+        String attribute = name.toLowerCase(Locale.ROOT);
+        switch (attribute) {
+            case "value":
+                return getValue(node);
+            case "checked":
+            case "selected":
+                return isChecked(node) ? "true" : null;
+            case "textcontent":
+                return node.getTextContent();
+            case "innertext":
+                return node.getVisibleText();
+            case "innerhtml":
+                return node.toHtml(false);
+            case "outerhtml":
+                return node.toHtml(true);
+            case "classname":
+                return node.getAttribute("class");
+            case "href":
+            case "src":
+            case "action":
+                String url = node.getAttribute(attribute);
+                return url == null ? null : driver.resolve(url);
+            default:
+                if (BOOLEAN_ATTRIBUTES.contains(attribute)) {
+                    return node.hasAttribute(attribute) ? "true" : null;
+                }
+                return node.getAttribute(attribute);
+        }
+    }
+    
+    @Override
+    public boolean isSelected() {
+        checkCurrent();
+        return ("input".equals(node.getName()) || "option".equals(node.getName())) && isChecked(node);
+    }
+    
+    @Override
+    public boolean isEnabled() {
+        checkCurrent();
+        for (DomNode current = node; current != null && current.isElement(); current = current.getParent()) {
+            if (current.hasAttribute("disabled") && (current == node || "fieldset".equals(current.getName()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    @Override
+    public String getText() {
+        checkCurrent();
+        return node.getVisibleText();
+    }
+    
+    @Override
+    public List<WebElement> findElements(By by) {
+        checkCurrent();
+        List<WebElement> elements = new ArrayList<>();
+        for (DomNode found : Selectors.find(document, node, by)) {
+            elements.add(new DomElement(driver, document, found));
+        }
+        return elements;
+    }
+    
+    @Override
+    public WebElement findElement(By by) {
+        List<WebElement> elements = findElements(by);
+        if (elements.isEmpty()) {
+            throw new NoSuchElementException("No element matching " + by + " below " + node);
+        }
+        return elements.get(0);
+    }
+    
+    @Override
+    public boolean isDisplayed() {
+        checkCurrent();
+        return node.isDisplayed();
+    }
+    
+    @Override
+    public Point getLocation() {
+        checkCurrent();
+        return new Point(0, 0);
+    }
+    
+    @Override
+    public Dimension getSize() {
+        checkCurrent();
+        return new Dimension(0, 0);
+    }
+    
+    @Override
+    public Rectangle getRect() {
+        checkCurrent();
+        return new Rectangle(0, 0, 0, 0);
+    }
+    
+    // Only inline styles are known; stylesheets are not applied
+    @Override
+    public String getCssValue(String propertyName) {
+        checkCurrent();
+        String value = node.getStyle(propertyName);
+        return value == null ? "" : value;
+    }
+    
+    @Override
+    public <X> X getScreenshotAs(OutputType<X> target) {
+        throw new UnsupportedCommandException("The DOM driver does not render pages");
+    }
+    
+    /**
+     Checks the checked/selected state of a checkbox, radio button or option
+     @param node Element
+     @return Current state, initially from the checked/selected attribute
+     */
+    static boolean isChecked(DomNode node) {
+        if (node.checked != null) {
+            return node.checked;
+        }
+        return "option".equals(node.getName()) ? node.hasAttribute("selected") : node.hasAttribute("checked");
+    }
+    
+    /**
+     Gets the current value of a form control
+     @param node Element
+     @return Typed or selected value; the value attribute (or "") for other elements
+     */
+    static String getValue(DomNode node) {
+        if (node.value != null) {
+            return node.value;
+        }
+        switch (node.getName()) {
+            case "textarea":
+                return node.getTextContent();
+            case "option":
+                return node.getAttribute("value") != null ? node.getAttribute("value")
+                    : node.getTextContent().replaceAll("\\s+", " ").trim();
+            case "select":
+                DomNode first = null;
+                for (DomNode option : node.getDescendantElements()) {
+                    if ("option".equals(option.getName())) {
+                        if (isChecked(option)) {
+                            return getValue(option);
+                        }
+                        first = first == null ? option : first;
+                    }
+                }
+                return first == null ? "" : getValue(first);
+            case "input":
+                String value = node.getAttribute("value");
+                if (value == null) {
+                    String type = node.getAttribute("type");
+                    return "checkbox".equalsIgnoreCase(type) || "radio".equalsIgnoreCase(type) ? "on" : "";
+                }
+                return value;
+            default:
+                return node.getAttribute("value");
+        }
+    }
+    
+    private void checkCurrent() {
+        if (driver.getDocument() != document) {
+            throw new StaleElementReferenceException("Element belongs to a page that is no longer loaded: " + node);
+        }
+    }
+    
+    private String getInputType() {
+        String type = node.getAttribute("type");
+        return type == null ? "text" : type.toLowerCase(Locale.ROOT);
+    }
+    
+    private boolean isTextEditable() {
+        if ("textarea".equals(node.getName())) {
+            return !node.hasAttribute("readonly") && isEnabled();
+        }
+        return "input".equals(node.getName()) && !NON_TEXT_INPUTS.contains(getInputType())
+            && !node.hasAttribute("readonly") && isEnabled();
+    }
+    
+    private boolean isSubmitter() {
+        if ("button".equals(node.getName())) {
+            return !"button".equals(getInputType()) && !"reset".equals(getInputType());
+        }
+        return "input".equals(node.getName()) && ("submit".equals(getInputType()) || "image".equals(getInputType()));
+    }
+    
+    private DomNode findForm() {
+        for (DomNode current = node.getParent(); current != null; current = current.getParent()) {
+            if ("form".equals(current.getName())) {
+                return current;
+            }
+        }
+        return null;
+    }
+    
+    private void selectRadio() {
+        String name = node.getAttribute("name");
+        if (name != null) {
+            DomNode form = findForm();
+            for (DomNode other : (form != null ? form : document).getDescendantElements()) {
+                if ("input".equals(other.getName()) && "radio".equalsIgnoreCase(other.getAttribute("type"))
+                    && name.equals(other.getAttribute("name"))) {
+                    other.checked = false;
+                }
+            }
+        }
+        node.checked = true;
+    }
+    
+    private void selectOption() {
+        DomNode select = node.getParent();
+        while (select != null && !"select".equals(select.getName())) {
+            select = select.getParent();
+        }
+        if (select != null && select.hasAttribute("multiple")) {
+            node.checked = !isChecked(node);
+            return;
+        }
+        if (select != null) {
+            for (DomNode option : select.getDescendantElements()) {
+                if ("option".equals(option.getName())) {
+                    option.checked = false;
+                }
+            }
+        }
+        node.checked = true;
+    }
+    
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof DomElement && ((DomElement) other).node == node;
+    }
+    
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(node);
+    }
+    
+    @Override
+    public String toString() {
+        return "[DomDriver] -> " + node;
+    }
+}
@@ -0,0 +1,309 @@
+package dom;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// DomNode - One node of a parsed HTML document: the document itself, an element or a text run
+// Elements keep their attributes as parsed; the form state changed through DomElement (typed value,
+// checked/selected) is kept next to them so getDomAttribute still returns the markup value.
+public class DomNode {
+    
+    public static final String DOCUMENT = "#document";
+    public static final String TEXT = "#text";
+    
+    // Elements whose content never renders
+    private static final Set<String> NEVER_DISPLAYED = new HashSet<>(Arrays.asList(
+        "head", "script", "style", "template", "noscript", "title", "meta", "link", "base"));
+    // Elements that start a new line in rendered text
+    private static final Set<String> BLOCKS = new HashSet<>(Arrays.asList(
+        "address", "article", "aside", "blockquote", "dd", "div", "dl", "dt", "fieldset", "figcaption", "figure",
+        "footer", "form", "h1", "h2", "h3", "h4", "h5", "h6", "header", "hr", "li", "main", "nav", "ol", "p", "pre",
+        "section", "table", "tr", "ul", "option", "select", "label", "button"));
+    
+    private final String name;
+    private final Map<String, String> attributes;
+    private final List<DomNode> children = new ArrayList<>();
+    private DomNode parent;
+    private String text;
+    
+    // Form state; null until changed through a DomElement
+    String value;
+    Boolean checked;
+    
+    DomNode(String name, Map<String, String> attributes) {
+        this.name = name;
+        this.attributes = attributes == null ? Collections.emptyMap() : attributes;
+    }
+    
+    static DomNode text(String text) {
+        DomNode node = new DomNode(TEXT, null);
+        node.text = text;
+        return node;
+    }
+    
+    void append(DomNode child) {
+        child.parent = this;
+        children.add(child);
+    }
+    
+    public boolean isElement() {
+        return !TEXT.equals(name) && !DOCUMENT.equals(name);
+    }
+    
+    // Lower-case tag name, or #text / #document
+    public String getName() {
+        return name;
+    }
+    
+    public DomNode getParent() {
+        return parent;
+    }
+    
+    public List<DomNode> getChildren() {
+        return children;
+    }
+    
+    public List<DomNode> getElementChildren() {
+        List<DomNode> elements = new ArrayList<>();
+        for (DomNode child : children) {
+            if (child.isElement()) {
+                elements.add(child);
+            }
+        }
+        return elements;
+    }
+    
+    public Map<String, String> getAttributes() {
+        return attributes;
+    }
+    
+    // Attribute value as written in the markup, or null
+    public String getAttribute(String attribute) {
+        return attributes.get(attribute.toLowerCase(Locale.ROOT));
+    }
+    
+    public boolean hasAttribute(String attribute) {
+        return attributes.containsKey(attribute.toLowerCase(Locale.ROOT));
+    }
+    
+    // Whitespace-separated class names contain the given one
+    public boolean hasClass(String className) {
+        String classes = attributes.get("class");
+        if (classes == null) {
+            return false;
+        }
+        for (String candidate : classes.trim().split("\\s+")) {
+            if (candidate.equals(className)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // Raw text of a text node
+    public String getText() {
+        return text;
+    }
+    
+    /**
+     Gets all text below this node, as the DOM textContent property
+     @return Concatenated text
+     */
+    public String getTextContent() {
+        if (text != null) {
+            return text;
+        }
+        StringBuilder out = new StringBuilder();
+        appendTextContent(out);
+        return out.toString();
+    }
+    
+    private void appendTextContent(StringBuilder out) {
+        for (DomNode child : children) {
+            if (child.text != null) {
+                out.append(child.text);
+            } else {
+                child.appendTextContent(out);
+            }
+        }
+    }
+    
+    /**
+     Checks if the element would be rendered, judged from the markup alone (no stylesheets or
+     layout): hidden attributes, inline display:none / visibility:hidden, hidden inputs and
+     non-rendered elements, on the element and its ancestors
+     @return True if displayed
+     */
+    public boolean isDisplayed() {
+        for (DomNode node = this; node != null && node.isElement(); node = node.parent) {
+            if (node.isHiddenItself()) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private boolean isHiddenItself() {
+        if (NEVER_DISPLAYED.contains(name) || attributes.containsKey("hidden")) {
+            return true;
+        }
+        if ("input".equals(name) && "hidden".equalsIgnoreCase(attributes.get("type"))) {
+            return true;
+        }
+        String style = getStyle("display");
+        if ("none".equals(style)) {
+            return true;
+        }
+        return "hidden".equals(getStyle("visibility")) || "collapse".equals(getStyle("visibility"));
+    }
+    
+    /**
+     Reads a property from the inline style attribute
+     @param property CSS property name
+     @return Value, or null if not set inline
+     */
+    public String getStyle(String property) {
+        String style = attributes.get("style");
+        if (style == null) {
+            return null;
+        }
+        String value = null;
+        for (String declaration : style.split(";")) {
+            int colon = declaration.indexOf(':');
+            if (colon > 0 && declaration.substring(0, colon).trim().equalsIgnoreCase(property)) {
+                value = declaration.substring(colon + 1).replace("!important", "").trim().toLowerCase(Locale.ROOT);
+            }
+        }
+        return value;
+    }
+    
+    /**
+     Gets the rendered text as WebElement.getText does: text of displayed descendants with
+     whitespace collapsed, block elements and <br> on their own lines
+     @return Visible text, trimmed
+     */
+    public String getVisibleText() {
+        if (!isDisplayed()) {
+            return "";
+        }
+        StringBuilder out = new StringBuilder();
+        appendVisibleText(out);
+        StringBuilder result = new StringBuilder();
+        for (String line : out.toString().split("\n")) {
+            String collapsed = line.replaceAll("[ \\t\\r\\f\\u00a0]+", " ").trim();
+            if (!collapsed.isEmpty()) {
+                if (result.length() > 0) {
+                    result.append('\n');
+                }
+                result.append(collapsed);
+            }
+        }
+        return result.toString();
+    }
+    
+    private void appendVisibleText(StringBuilder out) {
+        for (DomNode child : children) {
+            if (child.text != null) {
+                out.append(child.text.replace('\n', ' '));
+            } else if ("br".equals(child.name)) {
+                out.append('\n');
+            } else if (child.isElement() && !child.isHiddenItself()) {
+                boolean block = BLOCKS.contains(child.name);
+                if (block) {
+                    out.append('\n');
+                }
+                if ("input".equals(child.name) && isButtonInput(child)) {
+                    out.append(child.getAttribute("value") == null ? "" : child.getAttribute("value"));
+                } else {
+                    child.appendVisibleText(out);
+                }
+                if (block) {
+                    out.append('\n');
+                }
+            }
+        }
+    }
+    
+    private static boolean isButtonInput(DomNode input) {
+        String type = input.getAttribute("type");
+        return "submit".equalsIgnoreCase(type) || "reset".equalsIgnoreCase(type) || "button".equalsIgnoreCase(type);
+    }
+    
+    /**
+     Collects the elements below this node in document order
+     @return Descendant elements (this node excluded)
+     */
+    public List<DomNode> getDescendantElements() {
+        List<DomNode> result = new ArrayList<>();
+        collectElements(this, result);
+        return result;
+    }
+    
+    private static void collectElements(DomNode node, List<DomNode> result) {
+        for (DomNode child : node.children) {
+            if (child.isElement()) {
+                result.add(child);
+                collectElements(child, result);
+            }
+        }
+    }
+    
+    /**
+     Serializes the node back to HTML
+     @param includeSelf True for outerHTML, false for innerHTML
+     @return Markup
+     */
+    public String toHtml(boolean includeSelf) {
+        StringBuilder out = new StringBuilder();
+        if (includeSelf) {
+            writeHtml(this, out);
+        } else {
+            for (DomNode child : children) {
+                writeHtml(child, out);
+            }
+        }
+        return out.toString();
+    }
+    
+    private static void writeHtml(DomNode node, StringBuilder out) {
+        if (node.text != null) {
+            boolean raw = node.parent != null && HtmlParser.isRawText(node.parent.name);
+            out.append(raw ? node.text : escape(node.text, false));
+            return;
+        }
+        out.append('<').append(node.name);
+        for (Map.Entry<String, String> attribute : node.attributes.entrySet()) {
+            out.append(' ').append(attribute.getKey());
+            if (!attribute.getValue().isEmpty()) {
+                out.append("=\"").append(escape(attribute.getValue(), true)).append('"');
+            }
+        }
+        out.append('>');
+        if (HtmlParser.isVoid(node.name)) {
+            return;
+        }
+        for (DomNode child : node.children) {
+            writeHtml(child, out);
+        }
+        out.append("</").append(node.name).append('>');
+    }
+    
+    private static String escape(String text, boolean attribute) {
+        String escaped = text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+        return attribute ? escaped.replace("\"", "&quot;") : escaped;
+    }
+    
+    @Override
+    public String toString() {
+        if (text != null) {
+            return "\"" + text + "\"";
+        }
+        return "<" + name + (attributes.containsKey("id") ? " id=\"" + attributes.get("id") + "\"" : "") + ">";
+    }
+}
@@ -0,0 +1,326 @@
+package dom;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// HtmlParser - Small, forgiving HTML parser for DomDriver
+// Builds a DomNode tree in one pass over the markup. It follows the parts of the HTML5 rules that
+// matter for locating elements: void elements, raw-text elements (script, style, textarea, title),
+// implied end tags (p, li, option, td, ...), stray end tags, unquoted attributes and character
+// references. It does not run scripts or build the implied html/head/body elements.
+public class HtmlParser {
+    
+    private static final Set<String> VOID = new HashSet<>(Arrays.asList(
+        "area", "base", "br", "col", "embed", "hr", "img", "input", "link", "meta", "param", "source", "track", "wbr"));
+    private static final Set<String> RAW_TEXT = new HashSet<>(Arrays.asList("script", "style", "textarea", "title"));
+    // Start tags that close an open <p>
+    private static final Set<String> CLOSES_P = new HashSet<>(Arrays.asList(
+        "address", "article", "aside", "blockquote", "div", "dl", "fieldset", "figure", "footer", "form", "h1", "h2", "h3",
+        "h4", "h5", "h6", "header", "hr", "main", "nav", "ol", "p", "pre", "section", "table", "ul"));
+    // Start tag -> open elements it implicitly ends, and the elements that stop the search
+    private static final Map<String, Set<String>> IMPLIED_END = new HashMap<>();
+    private static final Map<String, Set<String>> IMPLIED_END_SCOPE = new HashMap<>();
+    private static final Map<String, String> ENTITIES = new HashMap<>();
+    
+    static {
+        impliedEnd(new String[]{"li"}, new String[]{"li"}, new String[]{"ul", "ol"});
+        impliedEnd(new String[]{"dt", "dd"}, new String[]{"dt", "dd"}, new String[]{"dl"});
+        impliedEnd(new String[]{"option"}, new String[]{"option"}, new String[]{"select", "datalist", "optgroup"});
+        impliedEnd(new String[]{"optgroup"}, new String[]{"option", "optgroup"}, new String[]{"select"});
+        impliedEnd(new String[]{"tr"}, new String[]{"tr", "td", "th"}, new String[]{"table", "thead", "tbody", "tfoot"});
+        impliedEnd(new String[]{"td", "th"}, new String[]{"td", "th"}, new String[]{"tr", "table"});
+        impliedEnd(new String[]{"thead", "tbody", "tfoot"}, new String[]{"thead", "tbody", "tfoot", "tr", "td", "th"}, new String[]{"table"});
+
+        String[][] entities = {
+            {"amp", "&"}, {"lt", "<"}, {"gt", ">"}, {"quot", "\""}, {"apos", "'"}, {"nbsp", "\u00a0"},
+            {"copy", "\u00a9"}, {"reg", "\u00ae"}, {"trade", "\u2122"}, {"hellip", "\u2026"}, {"mdash", "\u2014"},
+            {"ndash", "\u2013"}, {"lsquo", "\u2018"}, {"rsquo", "\u2019"}, {"ldquo", "\u201c"}, {"rdquo", "\u201d"},
+            {"bull", "\u2022"}, {"middot", "\u00b7"}, {"euro", "\u20ac"}, {"pound", "\u00a3"}, {"times", "\u00d7"},
+            {"laquo", "\u00ab"}, {"raquo", "\u00bb"}, {"larr", "\u2190"}, {"rarr", "\u2192"}
+        };
+        for (String[] entity : entities) {
+            ENTITIES.put(entity[0], entity[1]);
+        }
+    }
+    
+    private final String html;
+    private int position;
+    private final List<DomNode> open = new ArrayList<>();
+    
+    private HtmlParser(String html) {
+        this.html = html;
+    }
+    
+    /**
+     Parses an HTML document
+     @param html Markup
+     @return Document node; top-level elements are its children
+     */
+    public static DomNode parse(String html) {
+        HtmlParser parser = new HtmlParser(html == null ? "" : html);
+        DomNode document = new DomNode(DomNode.DOCUMENT, null);
+        parser.open.add(document);
+        parser.run();
+        return document;
+    }
+    
+    static boolean isVoid(String tag) {
+        return VOID.contains(tag);
+    }
+    
+    static boolean isRawText(String tag) {
+        return RAW_TEXT.contains(tag);
+    }
+    
+    private void run() {
+        int length = html.length();
+        while (position < length) {
+            int tagStart = html.indexOf('<', position);
+            if (tagStart < 0) {
+                addText(html.substring(position));
+                return;
+            }
+            if (tagStart > position) {
+                addText(html.substring(position, tagStart));
+            }
+            position = tagStart;
+            if (html.startsWith("<!--", position)) {
+                int end = html.indexOf("-->", position + 4);
+                position = end < 0 ? length : end + 3;
+            } else if (html.startsWith("</", position) && position + 2 < length && Character.isLetter(html.charAt(position + 2))) {
+                readEndTag();
+            } else if (position + 1 < length && Character.isLetter(html.charAt(position + 1))) {
+                readStartTag();
+            } else if (html.startsWith("<!", position) || html.startsWith("<?", position) || html.startsWith("</", position)) {
+                // doctype, processing instruction or bogus end tag
+                int end = html.indexOf('>', position);
+                position = end < 0 ? length : end + 1;
+            } else {
+                addText("<");
+                position++;
+            }
+        }
+    }
+    
+    private void readStartTag() {
+        position++;
+        String tag = readName();
+        Map<String, String> attributes = new LinkedHashMap<>();
+        boolean selfClosing = readAttributes(attributes);
+
+        closeImplied(tag);
+        DomNode element = new DomNode(tag, attributes);
+        current().append(element);
+        if (VOID.contains(tag) || selfClosing && !RAW_TEXT.contains(tag)) {
+            return;
+        }
+        if (RAW_TEXT.contains(tag)) {
+            int end = indexOfIgnoreCase("</" + tag, position);
+            String content = html.substring(position, end < 0 ? html.length() : end);
+            if (!content.isEmpty()) {
+                element.append(DomNode.text("script".equals(tag) || "style".equals(tag) ? content : decode(content)));
+            }
+            position = end < 0 ? html.length() : end;
+            if (end >= 0) {
+                int close = html.indexOf('>', end);
+                position = close < 0 ? html.length() : close + 1;
+            }
+            return;
+        }
+        open.add(element);
+    }
+    
+    private void readEndTag() {
+        position += 2;
+        String tag = readName();
+        int close = html.indexOf('>', position);
+        position = close < 0 ? html.length() : close + 1;
+        // a stray end tag (no matching open element) is ignored
+        for (int i = open.size() - 1; i > 0; i--) {
+            if (open.get(i).getName().equals(tag)) {
+                while (open.size() > i) {
+                    open.remove(open.size() - 1);
+                }
+                return;
+            }
+        }
+    }
+    
+    // Reads attributes up to the closing '>'; returns true for a self-closing tag
+    private boolean readAttributes(Map<String, String> attributes) {
+        int length = html.length();
+        while (position < length) {
+            char c = html.charAt(position);
+            if (c == '>') {
+                position++;
+                return false;
+            }
+            if (c == '/' && position + 1 < length && html.charAt(position + 1) == '>') {
+                position += 2;
+                return true;
+            }
+            if (Character.isWhitespace(c) || c == '/') {
+                position++;
+                continue;
+            }
+            int nameStart = position;
+            while (position < length && !Character.isWhitespace(html.charAt(position))
+                && "=>/".indexOf(html.charAt(position)) < 0) {
+                position++;
+            }
+            String name = html.substring(nameStart, position).toLowerCase(Locale.ROOT);
+            skipWhitespace();
+            String value = "";
+            if (position < length && html.charAt(position) == '=') {
+                position++;
+                skipWhitespace();
+                value = readAttributeValue();
+            }
+            // the first of duplicate attributes wins, as in browsers
+            attributes.putIfAbsent(name, value);
+        }
+        return false;
+    }
+    
+    private String readAttributeValue() {
+        int length = html.length();
+        if (position >= length) {
+            return "";
+        }
+        char quote = html.charAt(position);
+        if (quote == '"' || quote == '\'') {
+            int end = html.indexOf(quote, position + 1);
+            String value = html.substring(position + 1, end < 0 ? length : end);
+            position = end < 0 ? length : end + 1;
+            return decode(value);
+        }
+        int start = position;
+        while (position < length && !Character.isWhitespace(html.charAt(position)) && html.charAt(position) != '>') {
+            position++;
+        }
+        return decode(html.substring(start, position));
+    }
+    
+    private String readName() {
+        int start = position;
+        int length = html.length();
+        while (position < length) {
+            char c = html.charAt(position);
+            if (Character.isWhitespace(c) || c == '>' || c == '/') {
+                break;
+            }
+            position++;
+        }
+        return html.substring(start, position).toLowerCase(Locale.ROOT);
+    }
+    
+    private void skipWhitespace() {
+        while (position < html.length() && Character.isWhitespace(html.charAt(position))) {
+            position++;
+        }
+    }
+    
+    // Ends the elements a start tag implies the end of, e.g. an open <li> before another <li>
+    private void closeImplied(String tag) {
+        if (CLOSES_P.contains(tag)) {
+            closeInScope(Set.of("p"), Set.of("div", "section", "article", "td", "th", "li", "button", "table"));
+        }
+        Set<String> ends = IMPLIED_END.get(tag);
+        if (ends != null) {
+            closeInScope(ends, IMPLIED_END_SCOPE.get(tag));
+        }
+    }
+    
+    // Pops open elements named in ends until one named in scope (or the document) is on top,
+    // so a new <tr> ends the open <td> and then its <tr>
+    private void closeInScope(Set<String> ends, Set<String> scope) {
+        for (int i = open.size() - 1; i > 0; i--) {
+            String name = open.get(i).getName();
+            if (scope.contains(name)) {
+                return;
+            }
+            if (ends.contains(name)) {
+                while (open.size() > i) {
+                    open.remove(open.size() - 1);
+                }
+            }
+        }
+    }
+    
+    private void addText(String text) {
+        if (!text.isEmpty()) {
+            current().append(DomNode.text(decode(text)));
+        }
+    }
+    
+    private DomNode current() {
+        return open.get(open.size() - 1);
+    }
+    
+    private int indexOfIgnoreCase(String needle, int from) {
+        int last = html.length() - needle.length();
+        for (int i = from; i <= last; i++) {
+            if (html.regionMatches(true, i, needle, 0, needle.length())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     Replaces character references: decimal, hex and the common named ones
+     @param text Text with references
+     @return Decoded text; unknown references are kept as written
+     */
+    static String decode(String text) {
+        int amp = text.indexOf('&');
+        if (amp < 0) {
+            return text;
+        }
+        StringBuilder out = new StringBuilder(text.length());
+        int i = 0;
+        while (amp >= 0) {
+            out.append(text, i, amp);
+            int semicolon = text.indexOf(';', amp);
+            String replacement = null;
+            if (semicolon > amp + 1 && semicolon - amp <= 10) {
+                String reference = text.substring(amp + 1, semicolon);
+                try {
+                    if (reference.startsWith("#x") || reference.startsWith("#X")) {
+                        replacement = new String(Character.toChars(Integer.parseInt(reference.substring(2), 16)));
+                    } else if (reference.startsWith("#")) {
+                        replacement = new String(Character.toChars(Integer.parseInt(reference.substring(1))));
+                    } else {
+                        replacement = ENTITIES.get(reference);
+                    }
+                } catch (IllegalArgumentException e) {
+                    replacement = null;
+                }
+            }
+            if (replacement != null) {
+                out.append(replacement);
+                i = semicolon + 1;
+            } else {
+                out.append('&');
+                i = amp + 1;
+            }
+            amp = text.indexOf('&', i);
+        }
+        out.append(text, i, text.length());
+        return out.toString();
+    }
+    
+    private static void impliedEnd(String[] tags, String[] ends, String[] scope) {
+        for (String tag : tags) {
+            IMPLIED_END.put(tag, new HashSet<>(Arrays.asList(ends)));
+            IMPLIED_END_SCOPE.put(tag, new HashSet<>(Arrays.asList(scope)));
+        }
+    }
+}
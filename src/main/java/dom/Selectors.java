@@ -0,0 +1,706 @@
+package dom;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.InvalidSelectorException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// Selectors - Resolves WebDriver locators against a DomNode tree
+// Supports every By strategy: id, name, class name, tag name, link text, partial link text, CSS
+// selectors (type, #id, .class, attribute operators, the descendant/child/sibling combinators,
+// :first-child, :last-child, :only-child, :nth-child(n), :checked, :disabled, :enabled, :not())
+// and the common XPath forms (/ and // steps, *, .., [n], [@a], [@a='v'], [text()='v'],
+// contains()/starts-with() on @a, text() or normalize-space(), joined with "and").
+// Anything else throws InvalidSelectorException rather than silently matching nothing.
+class Selectors {
+    
+    private Selectors() {
+    }
+    
+    /**
+     Finds the elements below a node that a locator matches, in document order
+     @param document Document the scope belongs to (CSS and absolute XPath are evaluated against it)
+     @param scope Node to search below
+     @param by Locator
+     @return Matching elements
+     */
+    static List<DomNode> find(DomNode document, DomNode scope, By by) {
+        if (!(by instanceof By.Remotable)) {
+            throw new InvalidSelectorException("Unsupported locator for the DOM driver: " + by);
+        }
+        By.Remotable.Parameters parameters = ((By.Remotable) by).getRemoteParameters();
+        String value = String.valueOf(parameters.value());
+        switch (parameters.using()) {
+            case "css selector":
+                return Css.select(scope, value);
+            case "xpath":
+                return XPath.select(document, scope, value);
+            case "id":
+                return filter(scope, node -> value.equals(node.getAttribute("id")));
+            case "name":
+                return filter(scope, node -> value.equals(node.getAttribute("name")));
+            case "class name":
+                return filter(scope, node -> node.hasClass(value));
+            case "tag name":
+                String tag = value.toLowerCase(Locale.ROOT);
+                return filter(scope, node -> node.getName().equals(tag));
+            case "link text":
+                return filter(scope, node -> "a".equals(node.getName()) && node.getVisibleText().equals(value.trim()));
+            case "partial link text":
+                return filter(scope, node -> "a".equals(node.getName()) && node.getVisibleText().contains(value));
+            default:
+                throw new InvalidSelectorException("Unsupported locator strategy for the DOM driver: " + parameters.using());
+        }
+    }
+    
+    private interface NodeTest {
+        boolean test(DomNode node);
+    }
+    
+    private static List<DomNode> filter(DomNode scope, NodeTest test) {
+        List<DomNode> result = new ArrayList<>();
+        for (DomNode node : scope.getDescendantElements()) {
+            if (test.test(node)) {
+                result.add(node);
+            }
+        }
+        return result;
+    }
+    
+    private static int indexAmongSiblings(DomNode node) {
+        return node.getParent() == null ? 0 : node.getParent().getElementChildren().indexOf(node);
+    }
+    
+    // CSS selector: parsed into groups of compound selectors joined by combinators, matched right to left
+    private static class Css {
+        private final String selector;
+        private int position;
+        
+        private Css(String selector) {
+            this.selector = selector;
+        }
+        
+        static List<DomNode> select(DomNode scope, String selector) {
+            List<List<Object>> groups = new Css(selector.trim()).parseGroups();
+            List<DomNode> result = new ArrayList<>();
+            for (DomNode node : scope.getDescendantElements()) {
+                for (List<Object> group : groups) {
+                    if (matches(group, group.size() - 1, node)) {
+                        result.add(node);
+                        break;
+                    }
+                }
+            }
+            return result;
+        }
+        
+        // A group alternates Compound, Character (combinator), Compound, ...
+        private static boolean matches(List<Object> group, int index, DomNode node) {
+            if (!((Compound) group.get(index)).matches(node)) {
+                return false;
+            }
+            if (index == 0) {
+                return true;
+            }
+            char combinator = (Character) group.get(index - 1);
+            switch (combinator) {
+                case '>':
+                    return isElement(node.getParent()) && matches(group, index - 2, node.getParent());
+                case '+': {
+                    int at = indexAmongSiblings(node);
+                    return at > 0 && matches(group, index - 2, node.getParent().getElementChildren().get(at - 1));
+                }
+                case '~': {
+                    List<DomNode> siblings = node.getParent() == null ? Collections.emptyList() : node.getParent().getElementChildren();
+                    for (int i = siblings.indexOf(node) - 1; i >= 0; i--) {
+                        if (matches(group, index - 2, siblings.get(i))) {
+                            return true;
+                        }
+                    }
+                    return false;
+                }
+                default:
+                    for (DomNode ancestor = node.getParent(); isElement(ancestor); ancestor = ancestor.getParent()) {
+                        if (matches(group, index - 2, ancestor)) {
+                            return true;
+                        }
+                    }
+                    return false;
+            }
+        }
+        
+        private static boolean isElement(DomNode node) {
+            return node != null && node.isElement();
+        }
+        
+        private List<List<Object>> parseGroups() {
+            List<List<Object>> groups = new ArrayList<>();
+            List<Object> group = new ArrayList<>();
+            while (true) {
+                skipWhitespace();
+                group.add(parseCompound());
+                boolean whitespace = skipWhitespace();
+                if (position >= selector.length()) {
+                    groups.add(group);
+                    return groups;
+                }
+                char c = selector.charAt(position);
+                if (c == ',') {
+                    position++;
+                    groups.add(group);
+                    group = new ArrayList<>();
+                } else if (c == '>' || c == '+' || c == '~') {
+                    position++;
+                    group.add(c);
+                } else if (whitespace) {
+                    group.add(' ');
+                } else {
+                    throw invalid();
+                }
+            }
+        }
+        
+        private Compound parseCompound() {
+            Compound compound = new Compound();
+            boolean universal = false;
+            if (position < selector.length() && selector.charAt(position) == '*') {
+                position++;
+                universal = true;
+            } else if (position < selector.length() && isNameChar(selector.charAt(position))) {
+                compound.tag = readIdentifier().toLowerCase(Locale.ROOT);
+            }
+            while (position < selector.length()) {
+                char c = selector.charAt(position);
+                if (c == '#') {
+                    position++;
+                    String id = readIdentifier();
+                    compound.tests.add(node -> id.equals(node.getAttribute("id")));
+                } else if (c == '.') {
+                    position++;
+                    String className = readIdentifier();
+                    compound.tests.add(node -> node.hasClass(className));
+                } else if (c == '[') {
+                    position++;
+                    compound.tests.add(parseAttribute());
+                } else if (c == ':') {
+                    position++;
+                    compound.tests.add(parsePseudo());
+                } else {
+                    break;
+                }
+            }
+            if (!universal && compound.tag == null && compound.tests.isEmpty()) {
+                throw invalid();
+            }
+            return compound;
+        }
+        
+        private NodeTest parseAttribute() {
+            skipWhitespace();
+            String name = readIdentifier().toLowerCase(Locale.ROOT);
+            skipWhitespace();
+            char c = peek();
+            if (c == ']') {
+                position++;
+                return node -> node.hasAttribute(name);
+            }
+            String operator;
+            if (c == '=') {
+                operator = "=";
+                position++;
+            } else if ("~^$*|".indexOf(c) >= 0 && position + 1 < selector.length() && selector.charAt(position + 1) == '=') {
+                operator = c + "=";
+                position += 2;
+            } else {
+                throw invalid();
+            }
+            skipWhitespace();
+            String expected = peek() == '"' || peek() == '\'' ? readQuoted() : readIdentifier();
+            skipWhitespace();
+            boolean ignoreCase = false;
+            if (peek() == 'i' || peek() == 'I') {
+                ignoreCase = true;
+                position++;
+                skipWhitespace();
+            }
+            if (peek() != ']') {
+                throw invalid();
+            }
+            position++;
+            boolean caseless = ignoreCase;
+            return node -> {
+                String actual = node.getAttribute(name);
+                if (actual == null) {
+                    return false;
+                }
+                String value = caseless ? actual.toLowerCase(Locale.ROOT) : actual;
+                String target = caseless ? expected.toLowerCase(Locale.ROOT) : expected;
+                switch (operator) {
+                    case "=":
+                        return value.equals(target);
+                    case "~=":
+                        for (String token : value.trim().split("\\s+")) {
+                            if (token.equals(target)) {
+                                return true;
+                            }
+                        }
+                        return false;
+                    case "^=":
+                        return !target.isEmpty() && value.startsWith(target);
+                    case "$=":
+                        return !target.isEmpty() && value.endsWith(target);
+                    case "*=":
+                        return !target.isEmpty() && value.contains(target);
+                    default:
+                        return value.equals(target) || value.startsWith(target + "-");
+                }
+            };
+        }
+        
+        private NodeTest parsePseudo() {
+            String name = readIdentifier().toLowerCase(Locale.ROOT);
+            switch (name) {
+                case "first-child":
+                    return node -> indexAmongSiblings(node) == 0;
+                case "last-child":
+                    return node -> node.getParent() != null
+                        && indexAmongSiblings(node) == node.getParent().getElementChildren().size() - 1;
+                case "only-child":
+                    return node -> node.getParent() != null && node.getParent().getElementChildren().size() == 1;
+                case "checked":
+                    return DomElement::isChecked;
+                case "disabled":
+                    return node -> node.hasAttribute("disabled");
+                case "enabled":
+                    return node -> !node.hasAttribute("disabled");
+                case "nth-child": {
+                    expect('(');
+                    int start = position;
+                    while (position < selector.length() && selector.charAt(position) != ')') {
+                        position++;
+                    }
+                    String argument = selector.substring(start, position).trim();
+                    expect(')');
+                    try {
+                        int n = Integer.parseInt(argument);
+                        return node -> indexAmongSiblings(node) == n - 1;
+                    } catch (NumberFormatException e) {
+                        if ("odd".equals(argument)) {
+                            return node -> indexAmongSiblings(node) % 2 == 0;
+                        }
+                        if ("even".equals(argument)) {
+                            return node -> indexAmongSiblings(node) % 2 == 1;
+                        }
+                        throw invalid();
+                    }
+                }
+                case "not": {
+                    expect('(');
+                    skipWhitespace();
+                    Compound inner = parseCompound();
+                    skipWhitespace();
+                    expect(')');
+                    return node -> !inner.matches(node);
+                }
+                default:
+                    throw invalid();
+            }
+        }
+        
+        private String readIdentifier() {
+            StringBuilder out = new StringBuilder();
+            while (position < selector.length()) {
+                char c = selector.charAt(position);
+                if (c == '\\' && position + 1 < selector.length()) {
+                    // escaped character, e.g. from By.id on ids with ':' or '.'
+                    int end = position + 1;
+                    while (end < selector.length() && end < position + 7 && Character.digit(selector.charAt(end), 16) >= 0) {
+                        end++;
+                    }
+                    if (end > position + 1) {
+                        out.appendCodePoint(Integer.parseInt(selector.substring(position + 1, end), 16));
+                        position = end < selector.length() && selector.charAt(end) == ' ' ? end + 1 : end;
+                    } else {
+                        out.append(selector.charAt(position + 1));
+                        position += 2;
+                    }
+                } else if (isNameChar(c)) {
+                    out.append(c);
+                    position++;
+                } else {
+                    break;
+                }
+            }
+            if (out.length() == 0) {
+                throw invalid();
+            }
+            return out.toString();
+        }
+        
+        private String readQuoted() {
+            char quote = selector.charAt(position);
+            StringBuilder out = new StringBuilder();
+            position++;
+            while (position < selector.length() && selector.charAt(position) != quote) {
+                char c = selector.charAt(position);
+                if (c == '\\' && position + 1 < selector.length()) {
+                    position++;
+                    c = selector.charAt(position);
+                }
+                out.append(c);
+                position++;
+            }
+            if (position >= selector.length()) {
+                throw invalid();
+            }
+            position++;
+            return out.toString();
+        }
+        
+        private static boolean isNameChar(char c) {
+            return Character.isLetterOrDigit(c) || c == '-' || c == '_' || c == '\\' || c > 127;
+        }
+        
+        private boolean skipWhitespace() {
+            int start = position;
+            while (position < selector.length() && Character.isWhitespace(selector.charAt(position))) {
+                position++;
+            }
+            return position > start;
+        }
+        
+        private char peek() {
+            return position < selector.length() ? selector.charAt(position) : '\0';
+        }
+        
+        private void expect(char c) {
+            if (peek() != c) {
+                throw invalid();
+            }
+            position++;
+        }
+        
+        private InvalidSelectorException invalid() {
+            return new InvalidSelectorException("Unsupported or invalid CSS selector for the DOM driver: " + selector);
+        }
+    }
+    
+    // Type selector plus simple selectors (#id, .class, [attr], :pseudo) that must all match
+    private static class Compound {
+        private String tag;
+        private final List<NodeTest> tests = new ArrayList<>();
+        
+        boolean matches(DomNode node) {
+            if (!node.isElement() || tag != null && !tag.equals(node.getName())) {
+                return false;
+            }
+            for (NodeTest test : tests) {
+                if (!test.test(node)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+    
+    // XPath subset evaluated step by step over sets of context nodes
+    private static class XPath {
+        
+        static List<DomNode> select(DomNode document, DomNode scope, String expression) {
+            String path = expression.trim();
+            List<DomNode> context = new ArrayList<>();
+            if (path.startsWith("/")) {
+                context.add(document);
+            } else if (path.startsWith("..")) {
+                context.add(scope);
+                path = "/" + path;
+            } else if (path.startsWith(".")) {
+                context.add(scope);
+                path = path.substring(1);
+            } else {
+                context.add(scope);
+                path = "/" + path;
+            }
+
+            int position = 0;
+            while (position < path.length()) {
+                boolean descendant = path.startsWith("//", position);
+                if (!path.startsWith("/", position)) {
+                    throw invalid(expression);
+                }
+                position += descendant ? 2 : 1;
+                int end = stepEnd(path, position, expression);
+                context = applyStep(context, path.substring(position, end).trim(), descendant, expression);
+                position = end;
+            }
+
+            // back to document order, without duplicates
+            Set<DomNode> selected = Collections.newSetFromMap(new IdentityHashMap<>());
+            selected.addAll(context);
+            List<DomNode> result = new ArrayList<>();
+            for (DomNode node : document.getDescendantElements()) {
+                if (selected.contains(node)) {
+                    result.add(node);
+                }
+            }
+            return result;
+        }
+        
+        private static int stepEnd(String path, int from, String expression) {
+            int depth = 0;
+            char quote = 0;
+            for (int i = from; i < path.length(); i++) {
+                char c = path.charAt(i);
+                if (quote != 0) {
+                    if (c == quote) {
+                        quote = 0;
+                    }
+                } else if (c == '\'' || c == '"') {
+                    quote = c;
+                } else if (c == '[' || c == '(') {
+                    depth++;
+                } else if (c == ']' || c == ')') {
+                    depth--;
+                } else if (c == '/' && depth == 0) {
+                    return i;
+                }
+            }
+            if (depth != 0 || quote != 0) {
+                throw invalid(expression);
+            }
+            return path.length();
+        }
+        
+        private static List<DomNode> applyStep(List<DomNode> context, String step, boolean descendant, String expression) {
+            List<DomNode> result = new ArrayList<>();
+            if ("..".equals(step)) {
+                for (DomNode node : context) {
+                    if (node.getParent() != null) {
+                        result.add(node.getParent());
+                    }
+                }
+                return result;
+            }
+            if (".".equals(step)) {
+                return context;
+            }
+            int bracket = step.indexOf('[');
+            String nodeTest = (bracket < 0 ? step : step.substring(0, bracket)).trim();
+            if (nodeTest.startsWith("child::")) {
+                nodeTest = nodeTest.substring(7);
+            }
+            if (!"*".equals(nodeTest) && !nodeTest.matches("[A-Za-z][\\w-]*")) {
+                throw invalid(expression);
+            }
+            String tag = nodeTest.toLowerCase(Locale.ROOT);
+            List<String> predicates = bracket < 0 ? Collections.emptyList() : splitPredicates(step.substring(bracket), expression);
+
+            for (DomNode node : context) {
+                List<DomNode> parents = new ArrayList<>();
+                parents.add(node);
+                if (descendant) {
+                    parents.addAll(node.getDescendantElements());
+                }
+                for (DomNode parent : parents) {
+                    List<DomNode> candidates = new ArrayList<>();
+                    for (DomNode child : parent.getElementChildren()) {
+                        if ("*".equals(tag) || child.getName().equals(tag)) {
+                            candidates.add(child);
+                        }
+                    }
+                    for (String predicate : predicates) {
+                        candidates = applyPredicate(candidates, predicate, expression);
+                    }
+                    result.addAll(candidates);
+                }
+            }
+            return result;
+        }
+        
+        private static List<String> splitPredicates(String text, String expression) {
+            List<String> predicates = new ArrayList<>();
+            int depth = 0;
+            char quote = 0;
+            int start = -1;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (quote != 0) {
+                    if (c == quote) {
+                        quote = 0;
+                    }
+                } else if (c == '\'' || c == '"') {
+                    quote = c;
+                } else if (c == '[') {
+                    if (depth++ == 0) {
+                        start = i + 1;
+                    }
+                } else if (c == ']') {
+                    if (--depth == 0) {
+                        predicates.add(text.substring(start, i).trim());
+                    }
+                } else if (depth == 0 && !Character.isWhitespace(c)) {
+                    throw invalid(expression);
+                }
+            }
+            return predicates;
+        }
+        
+        private static List<DomNode> applyPredicate(List<DomNode> candidates, String predicate, String expression) {
+            List<DomNode> result = new ArrayList<>();
+            if (predicate.matches("\\d+")) {
+                int index = Integer.parseInt(predicate) - 1;
+                if (index >= 0 && index < candidates.size()) {
+                    result.add(candidates.get(index));
+                }
+                return result;
+            }
+            if ("last()".equals(predicate)) {
+                if (!candidates.isEmpty()) {
+                    result.add(candidates.get(candidates.size() - 1));
+                }
+                return result;
+            }
+            List<String> conditions = splitAnd(predicate);
+            for (DomNode candidate : candidates) {
+                boolean matches = true;
+                for (String condition : conditions) {
+                    if (!evaluate(candidate, condition.trim(), expression)) {
+                        matches = false;
+                        break;
+                    }
+                }
+                if (matches) {
+                    result.add(candidate);
+                }
+            }
+            return result;
+        }
+        
+        private static List<String> splitAnd(String predicate) {
+            List<String> parts = new ArrayList<>();
+            char quote = 0;
+            int depth = 0;
+            int start = 0;
+            for (int i = 0; i < predicate.length(); i++) {
+                char c = predicate.charAt(i);
+                if (quote != 0) {
+                    if (c == quote) {
+                        quote = 0;
+                    }
+                } else if (c == '\'' || c == '"') {
+                    quote = c;
+                } else if (c == '(') {
+                    depth++;
+                } else if (c == ')') {
+                    depth--;
+                } else if (depth == 0 && predicate.startsWith(" and ", i)) {
+                    parts.add(predicate.substring(start, i));
+                    start = i + 5;
+                    i += 4;
+                }
+            }
+            parts.add(predicate.substring(start));
+            return parts;
+        }
+        
+        // Evaluates one condition: operand, operand=literal, operand!=literal, or contains/starts-with(operand, literal)
+        private static boolean evaluate(DomNode node, String condition, String expression) {
+            for (String function : new String[]{"contains", "starts-with"}) {
+                if (condition.startsWith(function + "(") && condition.endsWith(")")) {
+                    String arguments = condition.substring(function.length() + 1, condition.length() - 1);
+                    int comma = topLevelComma(arguments);
+                    if (comma < 0) {
+                        throw invalid(expression);
+                    }
+                    String actual = operand(node, arguments.substring(0, comma).trim(), expression);
+                    String expected = literal(arguments.substring(comma + 1).trim(), expression);
+                    return actual != null && ("contains".equals(function) ? actual.contains(expected) : actual.startsWith(expected));
+                }
+            }
+            if (condition.startsWith("not(") && condition.endsWith(")")) {
+                return !evaluate(node, condition.substring(4, condition.length() - 1).trim(), expression);
+            }
+            int equals = topLevelEquals(condition);
+            if (equals < 0) {
+                return operand(node, condition, expression) != null;
+            }
+            boolean negated = equals > 0 && condition.charAt(equals - 1) == '!';
+            String actual = operand(node, condition.substring(0, negated ? equals - 1 : equals).trim(), expression);
+            String expected = literal(condition.substring(equals + 1).trim(), expression);
+            return negated ? actual != null && !actual.equals(expected) : expected.equals(actual);
+        }
+        
+        // Value of @attr, text(), normalize-space() or '.'; null when the attribute is missing
+        private static String operand(DomNode node, String operand, String expression) {
+            if (operand.startsWith("@")) {
+                return node.getAttribute(operand.substring(1));
+            }
+            switch (operand) {
+                case "text()":
+                    StringBuilder direct = new StringBuilder();
+                    for (DomNode child : node.getChildren()) {
+                        if (child.getText() != null) {
+                            direct.append(child.getText());
+                        }
+                    }
+                    return direct.toString();
+                case ".":
+                case "string()":
+                    return node.getTextContent();
+                case "normalize-space()":
+                case "normalize-space(.)":
+                    return node.getTextContent().replaceAll("\\s+", " ").trim();
+                case "normalize-space(text())":
+                    return operand(node, "text()", expression).replaceAll("\\s+", " ").trim();
+                default:
+                    throw invalid(expression);
+            }
+        }
+        
+        private static String literal(String text, String expression) {
+            if (text.length() >= 2 && (text.charAt(0) == '\'' || text.charAt(0) == '"') && text.charAt(text.length() - 1) == text.charAt(0)) {
+                return text.substring(1, text.length() - 1);
+            }
+            throw invalid(expression);
+        }
+        
+        private static int topLevelComma(String text) {
+            return topLevel(text, ',');
+        }
+        
+        private static int topLevelEquals(String text) {
+            return topLevel(text, '=');
+        }
+        
+        private static int topLevel(String text, char wanted) {
+            char quote = 0;
+            int depth = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (quote != 0) {
+                    if (c == quote) {
+                        quote = 0;
+                    }
+                } else if (c == '\'' || c == '"') {
+                    quote = c;
+                } else if (c == '(') {
+                    depth++;
+                } else if (c == ')') {
+                    depth--;
+                } else if (c == wanted && depth == 0) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        
+        private static InvalidSelectorException invalid(String expression) {
+            return new InvalidSelectorException("Unsupported or invalid XPath for the DOM driver: " + expression);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package load;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Correlation: a dynamic value taken from one response and reused by later requests
+// During replay the regex is applied to the live response of the source request and the
+// first group becomes the value of ${name} for the rest of that virtual user's script
+public class Correlation {
+    
+    public static final String SOURCE_BODY = "body";
+    public static final String SOURCE_HEADER = "header";
+    
+    private final String name;
+    private final int sourceIndex;
+    private final String source;
+    private final String headerName;
+    private final String regex;
+    private transient Pattern pattern;
+    
+    public Correlation(String name, int sourceIndex, String source, String headerName, String regex) {
+        this.name = name;
+        this.sourceIndex = sourceIndex;
+        this.source = source;
+        this.headerName = headerName;
+        this.regex = regex;
+    }
+    
+    /**
+     Extracts the value from a response
+     @param body Response body
+     @param headers Response headers (lower-case names)
+     @return Extracted value, or null if the pattern did not match
+     */
+    public String extract(String body, Map<String, String> headers) {
+        String text = SOURCE_HEADER.equals(source) ? headers.get(headerName) : body;
+        if (text == null) {
+            return null;
+        }
+        if (pattern == null) {
+            pattern = Pattern.compile(regex);
+        }
+        Matcher matcher = pattern.matcher(text);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+    
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("name", name);
+        map.put("sourceIndex", sourceIndex);
+        map.put("source", source);
+        map.put("headerName", headerName);
+        map.put("regex", regex);
+        return map;
+    }
+    
+    public static Correlation fromMap(Map<String, Object> map) {
+        return new Correlation(
+            String.valueOf(map.get("name")),
+            ((Number) map.get("sourceIndex")).intValue(),
+            String.valueOf(map.get("source")),
+            map.get("headerName") == null ? null : String.valueOf(map.get("headerName")),
+            String.valueOf(map.get("regex")));
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public int getSourceIndex() {
+        return sourceIndex;
+    }
+}
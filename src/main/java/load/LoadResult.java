@@ -0,0 +1,102 @@
+package load;
+
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.markuputils.MarkupHelper;
+import utils.ReportManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// LoadResult: per-step throughput, error rate and latency percentiles of a load run
+public class LoadResult {
+    
+    // Name of the step covering a whole flow iteration
+    public static final String ITERATION = "iteration";
+    
+    private final Map<String, StepStats> steps = new LinkedHashMap<>();
+    private long elapsedMillis;
+    
+    /**
+     Gets the stats for a step, creating them on first use
+     @param name Step name
+     @return StepStats for the step
+     */
+    public synchronized StepStats getStep(String name) {
+        return steps.computeIfAbsent(name, StepStats::new);
+    }
+    
+    /**
+     Gets all steps in the order they first ran
+     @return Copy of the step stats
+     */
+    public synchronized List<StepStats> getSteps() {
+        return new ArrayList<>(steps.values());
+    }
+    
+    void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+    
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+    
+    /**
+     Gets the throughput of a step
+     @param step Step stats
+     @return Executions per second over the whole run
+     */
+    public double getThroughput(StepStats step) {
+        return elapsedMillis == 0 ? 0 : step.getCount() * 1000.0 / elapsedMillis;
+    }
+    
+    /**
+     Builds the result table, one row per step
+     @return Header row followed by step rows
+     */
+    public String[][] toTable() {
+        List<StepStats> all = getSteps();
+        String[][] table = new String[all.size() + 1][];
+        table[0] = new String[]{"Step", "Count", "Throughput/s", "Error rate", "p50 ms", "p90 ms", "p95 ms", "p99 ms"};
+        for (int i = 0; i < all.size(); i++) {
+            StepStats step = all.get(i);
+            table[i + 1] = new String[]{
+                step.getName(),
+                String.valueOf(step.getCount()),
+                String.format("%.2f", getThroughput(step)),
+                String.format("%.1f%%", step.getErrorRate() * 100),
+                String.format("%.0f", step.percentileMillis(0.50)),
+                String.format("%.0f", step.percentileMillis(0.90)),
+                String.format("%.0f", step.percentileMillis(0.95)),
+                String.format("%.0f", step.percentileMillis(0.99))};
+        }
+        return table;
+    }
+    
+    /**
+     Prints the result table to standard out
+     */
+    public void print() {
+        System.out.println("Load run finished in " + elapsedMillis + " ms");
+        for (String[] row : toTable()) {
+            System.out.println(String.format("%-24s %8s %13s %11s %8s %8s %8s %8s", (Object[]) row));
+        }
+    }
+    
+    /**
+     Adds the result table as a test entry in the Extent report
+     @param title Name of the report entry
+     */
+    public void addToReport(String title) {
+        ExtentTest test = ReportManager.createTest(title, "Virtual-user load run (" + elapsedMillis + " ms)");
+        test.info(MarkupHelper.createTable(toTable()));
+        StepStats iteration = steps.get(ITERATION);
+        if (iteration != null && iteration.getErrors() > 0) {
+            test.warning(iteration.getErrors() + " of " + iteration.getCount() + " iterations failed");
+        } else {
+            test.pass("All iterations completed");
+        }
+    }
+}
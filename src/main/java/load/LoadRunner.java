@@ -0,0 +1,148 @@
+package load;
+
+import org.openqa.selenium.WebDriver;
+import pages.MainPage;
+import utils.DriverPool;
+import utils.ReportManager;
+import utils.ResourceGovernor;
+import utils.TestDataManager;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// LoadRunner: drives page-object flows for N concurrent virtual users
+// Users start evenly spread over the ramp-up period, each borrows a browser from the
+// DriverPool and repeats the flow until the run duration is over
+public class LoadRunner {
+    
+    private final DriverPool pool;
+    private final int users;
+    private final Duration rampUp;
+    private final Duration duration;
+    private final Duration thinkTime;
+    
+    /**
+     Creates a load runner
+     @param pool Browser pool, should hold at least as many browsers as there are users
+     @param users Number of concurrent virtual users
+     @param rampUp Time over which users are started
+     @param duration Total run time, including ramp-up
+     @param thinkTime Pause between iterations of one user
+     */
+    public LoadRunner(DriverPool pool, int users, Duration rampUp, Duration duration, Duration thinkTime) {
+        this.pool = pool;
+        this.users = users;
+        this.rampUp = rampUp;
+        this.duration = duration;
+        this.thinkTime = thinkTime;
+    }
+    
+    /**
+     Runs the flow for all virtual users and waits for them to finish
+     @param flow Flow executed once per iteration; time its parts with VirtualUser.step
+     @return Per-step results
+     @throws InterruptedException if interrupted while waiting for users
+     */
+    public LoadResult run(Consumer<VirtualUser> flow) throws InterruptedException {
+        LoadResult result = new LoadResult();
+        ExecutorService executor = Executors.newFixedThreadPool(users, runnable -> {
+            Thread thread = new Thread(runnable, "virtual-user");
+            thread.setDaemon(true);
+            return thread;
+        });
+        CountDownLatch done = new CountDownLatch(users);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        
+        for (int i = 0; i < users; i++) {
+            int userId = i + 1;
+            long startOffset = users == 1 ? 0 : rampUp.toNanos() * i / (users - 1);
+            executor.execute(() -> {
+                try {
+                    runUser(userId, start + startOffset, end, flow, result);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        
+        done.await();
+        executor.shutdown();
+        result.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+    
+    private void runUser(int userId, long startAt, long end, Consumer<VirtualUser> flow, LoadResult result) {
+        WebDriver driver = null;
+        boolean governed = false;
+        try {
+            sleepUntil(startAt);
+            if (ResourceGovernor.isEnabled()) {
+                ResourceGovernor.acquire("virtual user " + userId);
+                governed = true;
+            }
+            driver = pool.borrow();
+            VirtualUser user = new VirtualUser(userId, driver, result);
+            while (System.nanoTime() < end) {
+                try {
+                    user.step(LoadResult.ITERATION, () -> flow.accept(user));
+                } catch (Exception e) {
+                    // already counted as a failed step; next iteration starts fresh
+                }
+                if (thinkTime.toNanos() > 0) {
+                    sleepUntil(Math.min(end, System.nanoTime() + thinkTime.toNanos()));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("Virtual user " + userId + " could not start: " + e.getMessage());
+            result.getStep("start browser").record(0, true);
+        } finally {
+            pool.release(driver);
+            if (governed) {
+                ResourceGovernor.release();
+            }
+        }
+    }
+    
+    private static void sleepUntil(long nanoTime) throws InterruptedException {
+        long remaining = nanoTime - System.nanoTime();
+        if (remaining > 0) {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        }
+    }
+    
+    /**
+     Runs the MainPage form flow with the load.* settings from config.properties
+     and writes the results to the console and the Extent report
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int users = TestDataManager.getIntProperty("load.users", 5);
+        Duration rampUp = Duration.ofSeconds(TestDataManager.getIntProperty("load.rampup.seconds", 10));
+        Duration duration = Duration.ofSeconds(TestDataManager.getIntProperty("load.duration.seconds", 60));
+        Duration thinkTime = Duration.ofMillis(TestDataManager.getIntProperty("load.think.time.ms", 1000));
+        String url = TestDataManager.getProperty("load.url", TestDataManager.getAppUrl());
+        String name = TestDataManager.getProperty("test.user.name", "Test User");
+        String email = TestDataManager.getProperty("test.user.email", "test@example.com");
+        
+        try (DriverPool pool = new DriverPool(TestDataManager.getBrowser(), users)) {
+            LoadResult result = new LoadRunner(pool, users, rampUp, duration, thinkTime).run(user -> {
+                user.step("open page", () -> user.getDriver().get(url));
+                MainPage page = new MainPage(user.getDriver());
+                user.step("clickStartButton", page::clickStartButton);
+                user.step("fillAndSubmitForm", () -> page.fillAndSubmitForm(name, email, "option1", "Load test message"));
+            });
+            result.print();
+            result.addToReport("Load Test: " + users + " virtual users");
+            if (ResourceGovernor.isEnabled()) {
+                ResourceGovernor.addToReport();
+            }
+            ReportManager.flushReport();
+        }
+    }
+}
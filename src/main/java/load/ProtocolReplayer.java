@@ -0,0 +1,208 @@
+package load;
+
+import utils.ReportManager;
+import utils.TestDataManager;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// ProtocolReplayer: replays a ReplayScript over plain HTTP for many concurrent virtual users
+// Each user walks the script with its own cookies and correlated variables. Requests are sent
+// with HttpClient.sendAsync and chained, so thousands of users need no thread each.
+public class ProtocolReplayer {
+    
+    // Headers java.net.http does not allow callers to set (the Java 11 client also rejects
+    // date, from, origin, referer, via and warning, which Chrome records on most requests)
+    private static final Set<String> RESTRICTED_HEADERS = new HashSet<>(Arrays.asList(
+        "connection", "content-length", "expect", "host", "upgrade", "cookie",
+        "date", "from", "origin", "referer", "via", "warning"));
+    
+    private final ReplayScript script;
+    private final int users;
+    private final int iterations;
+    private final boolean honorDelays;
+    private final HttpClient client;
+    private final Duration requestTimeout;
+    
+    /**
+     Creates a replayer
+     @param script Script to replay
+     @param users Number of concurrent virtual users
+     @param iterations How many times each user runs the script
+     @param honorDelays True to wait the recorded think time between requests
+     */
+    public ProtocolReplayer(ReplayScript script, int users, int iterations, boolean honorDelays) {
+        this.script = script;
+        this.users = users;
+        this.iterations = iterations;
+        this.honorDelays = honorDelays;
+        this.requestTimeout = Duration.ofSeconds(TestDataManager.getIntProperty("replay.request.timeout.seconds", 30));
+        this.client = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(requestTimeout)
+            .build();
+    }
+    
+    // State of one virtual user: session cookies and correlated values
+    private static class UserSession {
+        final Map<String, String> cookies = new LinkedHashMap<>();
+        final Map<String, String> variables = new HashMap<>();
+    }
+    
+    /**
+     Replays the script for all users and waits for them to finish
+     @return Per-request-step results
+     */
+    public LoadResult run() {
+        LoadResult result = new LoadResult();
+        long start = System.nanoTime();
+        List<CompletableFuture<Void>> running = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            running.add(runIteration(new UserSession(), 0, result));
+        }
+        CompletableFuture.allOf(running.toArray(new CompletableFuture[0])).join();
+        result.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+    
+    private CompletableFuture<Void> runIteration(UserSession session, int iteration, LoadResult result) {
+        if (iteration >= iterations) {
+            return CompletableFuture.completedFuture(null);
+        }
+        long start = System.nanoTime();
+        session.variables.clear();
+        return runRequest(session, 0, result).handle((ok, error) -> {
+            result.getStep(LoadResult.ITERATION).record(System.nanoTime() - start, error != null || !ok);
+            return null;
+        }).thenCompose(ignored -> runIteration(session, iteration + 1, result));
+    }
+    
+    // Sends request index and, once it completed, the rest of the script; completes with false on any failed request
+    private CompletableFuture<Boolean> runRequest(UserSession session, int index, LoadResult result) {
+        List<RecordedRequest> requests = script.getRequests();
+        if (index >= requests.size()) {
+            return CompletableFuture.completedFuture(true);
+        }
+        RecordedRequest recorded = requests.get(index);
+        StepStats step = result.getStep(index + " " + recorded.getMethod() + " " + pathOf(recorded.getUrl()));
+        
+        CompletableFuture<Void> delay = honorDelays && recorded.getDelayMillis() > 0
+            ? CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(recorded.getDelayMillis(), TimeUnit.MILLISECONDS))
+            : CompletableFuture.completedFuture(null);
+        
+        return delay.thenCompose(ignored -> {
+            long start = System.nanoTime();
+            return client.sendAsync(buildRequest(recorded, session), HttpResponse.BodyHandlers.ofString())
+                .handle((response, error) -> {
+                    boolean ok = error == null && statusMatches(recorded.getExpectedStatus(), response.statusCode());
+                    step.record(System.nanoTime() - start, !ok);
+                    if (response != null) {
+                        captureResponse(session, index, response);
+                    }
+                    return ok;
+                });
+        }).thenCompose(ok -> runRequest(session, index + 1, result).thenApply(rest -> ok && rest));
+    }
+    
+    private HttpRequest buildRequest(RecordedRequest recorded, UserSession session) {
+        String body = substitute(recorded.getBody(), session);
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(substitute(recorded.getUrl(), session)))
+            .timeout(requestTimeout)
+            .method(recorded.getMethod(), body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+        for (Map.Entry<String, String> header : recorded.getHeaders().entrySet()) {
+            if (!RESTRICTED_HEADERS.contains(header.getKey().toLowerCase(Locale.ROOT))) {
+                builder.header(header.getKey(), substitute(header.getValue(), session));
+            }
+        }
+        if (!session.cookies.isEmpty()) {
+            StringBuilder cookie = new StringBuilder();
+            for (Map.Entry<String, String> entry : session.cookies.entrySet()) {
+                if (cookie.length() > 0) cookie.append("; ");
+                cookie.append(entry.getKey()).append('=').append(entry.getValue());
+            }
+            builder.header("Cookie", cookie.toString());
+        }
+        return builder.build();
+    }
+    
+    private void captureResponse(UserSession session, int index, HttpResponse<String> response) {
+        for (String setCookie : response.headers().allValues("set-cookie")) {
+            String pair = setCookie.split(";", 2)[0];
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                session.cookies.put(pair.substring(0, equals).trim(), pair.substring(equals + 1).trim());
+            }
+        }
+        Map<String, String> headers = new HashMap<>();
+        for (Map.Entry<String, List<String>> header : response.headers().map().entrySet()) {
+            headers.put(header.getKey().toLowerCase(Locale.ROOT), String.join(", ", header.getValue()));
+        }
+        for (Correlation correlation : script.getCorrelations()) {
+            if (correlation.getSourceIndex() == index) {
+                String value = correlation.extract(response.body(), headers);
+                if (value != null) {
+                    session.variables.put(correlation.getName(), value);
+                }
+            }
+        }
+    }
+    
+    private static String substitute(String text, UserSession session) {
+        if (text == null || !text.contains("${")) {
+            return text;
+        }
+        for (Map.Entry<String, String> variable : session.variables.entrySet()) {
+            text = text.replace("${" + variable.getKey() + "}", variable.getValue());
+        }
+        return text;
+    }
+    
+    // A replayed status is fine if it is in the same class (2xx, 3xx, ...) as the recorded one
+    private static boolean statusMatches(int expected, int actual) {
+        if (expected == 0) {
+            return actual < 400;
+        }
+        return expected / 100 == actual / 100;
+    }
+    
+    private static String pathOf(String url) {
+        try {
+            String path = URI.create(url.replace("${", "%7B").replace("}", "%7D")).getPath();
+            return path == null || path.isEmpty() ? "/" : path;
+        } catch (Exception e) {
+            return url;
+        }
+    }
+    
+    /**
+     Replays a recorded script with the replay.* settings from config.properties
+     @param args Optional path to the script, overriding replay.script
+     */
+    public static void main(String[] args) throws Exception {
+        String path = args.length > 0 ? args[0] : TestDataManager.getProperty("replay.script", "test-output/recordings/testCompleteUserFlow.json");
+        int users = TestDataManager.getIntProperty("replay.users", 1000);
+        int iterations = TestDataManager.getIntProperty("replay.iterations", 5);
+        boolean honorDelays = TestDataManager.getBooleanProperty("replay.honor.delays", true);
+        
+        ReplayScript script = ReplayScript.load(new File(path));
+        LoadResult result = new ProtocolReplayer(script, users, iterations, honorDelays).run();
+        result.print();
+        result.addToReport("Protocol Replay: " + users + " users x " + iterations + " iterations");
+        ReportManager.flushReport();
+    }
+}
@@ -0,0 +1,142 @@
+package load;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// RecordedRequest: one HTTP request captured from the browser, as stored in a replay script
+// The response body and headers are only kept in memory while correlating the recording
+public class RecordedRequest {
+    
+    private final String method;
+    private String url;
+    private final Map<String, String> headers;
+    private String body;
+    private final long delayMillis;
+    private int expectedStatus;
+    private final String resourceType;
+    
+    private transient String responseBody;
+    private transient Map<String, String> responseHeaders = new LinkedHashMap<>();
+    
+    public RecordedRequest(String method, String url, Map<String, String> headers, String body,
+                           long delayMillis, int expectedStatus, String resourceType) {
+        this.method = method;
+        this.url = url;
+        this.headers = new LinkedHashMap<>(headers);
+        this.body = body;
+        this.delayMillis = delayMillis;
+        this.expectedStatus = expectedStatus;
+        this.resourceType = resourceType;
+    }
+    
+    /**
+     Converts the request to a map for JSON output
+     @return Map representation
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("method", method);
+        map.put("url", url);
+        map.put("headers", headers);
+        map.put("body", body);
+        map.put("delayMillis", delayMillis);
+        map.put("expectedStatus", expectedStatus);
+        map.put("resourceType", resourceType);
+        return map;
+    }
+    
+    /**
+     Rebuilds a request from its JSON map form
+     @param map Parsed JSON object
+     @return RecordedRequest instance
+     */
+    public static RecordedRequest fromMap(Map<String, Object> map) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        if (map.get("headers") instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) map.get("headers")).entrySet()) {
+                headers.put(String.valueOf(entry.getKey()), String.valueOf(entry.getValue()));
+            }
+        }
+        return new RecordedRequest(
+            String.valueOf(map.get("method")),
+            String.valueOf(map.get("url")),
+            headers,
+            map.get("body") == null ? null : String.valueOf(map.get("body")),
+            ((Number) map.get("delayMillis")).longValue(),
+            ((Number) map.get("expectedStatus")).intValue(),
+            String.valueOf(map.get("resourceType")));
+    }
+    
+    /**
+     Replaces every literal occurrence of a value in the URL, headers and body
+     @param value Recorded dynamic value
+     @param placeholder Placeholder to put in its place, e.g. ${v1}
+     @return True if anything was replaced
+     */
+    boolean replaceValue(String value, String placeholder) {
+        boolean replaced = false;
+        if (url.contains(value)) {
+            url = url.replace(value, placeholder);
+            replaced = true;
+        }
+        if (body != null && body.contains(value)) {
+            body = body.replace(value, placeholder);
+            replaced = true;
+        }
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            if (header.getValue().contains(value)) {
+                header.setValue(header.getValue().replace(value, placeholder));
+                replaced = true;
+            }
+        }
+        return replaced;
+    }
+    
+    public String getMethod() {
+        return method;
+    }
+    
+    public String getUrl() {
+        return url;
+    }
+    
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+    
+    public String getBody() {
+        return body;
+    }
+    
+    public long getDelayMillis() {
+        return delayMillis;
+    }
+    
+    public int getExpectedStatus() {
+        return expectedStatus;
+    }
+    
+    void setExpectedStatus(int expectedStatus) {
+        this.expectedStatus = expectedStatus;
+    }
+    
+    public String getResourceType() {
+        return resourceType;
+    }
+    
+    String getResponseBody() {
+        return responseBody;
+    }
+    
+    void setResponseBody(String responseBody) {
+        this.responseBody = responseBody;
+    }
+    
+    Map<String, String> getResponseHeaders() {
+        return responseHeaders;
+    }
+    
+    void setResponseHeaders(Map<String, String> responseHeaders) {
+        this.responseHeaders = responseHeaders;
+    }
+}
@@ -0,0 +1,149 @@
+package load;
+
+import org.openqa.selenium.json.Json;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// ReplayScript: recorded HTTP requests plus the correlations needed to replay them
+// Saved as a JSON file so a recording can be replayed many times without a browser
+public class ReplayScript {
+    
+    private static final Json JSON = new Json();
+    
+    // "key": "value" pairs in JSON responses whose value is long enough to be an id or token
+    private static final Pattern JSON_STRING_FIELD = Pattern.compile("\"([A-Za-z0-9_\\-]+)\"\\s*:\\s*\"([^\"\\\\]{8,})\"");
+    
+    // Response headers that never carry values worth correlating
+    private static final Set<String> IGNORED_HEADERS = new HashSet<>(Arrays.asList(
+        "date", "expires", "last-modified", "content-type", "content-length", "content-encoding",
+        "cache-control", "vary", "server", "set-cookie", "age", "via", "accept-ranges"));
+    
+    private final List<RecordedRequest> requests;
+    private final List<Correlation> correlations;
+    
+    public ReplayScript(List<RecordedRequest> requests, List<Correlation> correlations) {
+        this.requests = new ArrayList<>(requests);
+        this.correlations = new ArrayList<>(correlations);
+    }
+    
+    /**
+     Finds values that a response produced and later requests sent back (ids, tokens, CSRF
+     headers), turns them into ${vN} placeholders and records how to extract them on replay
+     @param requests Recorded requests with their response bodies and headers
+     @return Correlated script
+     */
+    public static ReplayScript correlate(List<RecordedRequest> requests) {
+        List<Correlation> correlations = new ArrayList<>();
+        Set<String> seenValues = new HashSet<>();
+        for (int i = 0; i < requests.size(); i++) {
+            Map<String, String[]> candidates = new LinkedHashMap<>();
+            RecordedRequest source = requests.get(i);
+            if (source.getResponseBody() != null) {
+                Matcher matcher = JSON_STRING_FIELD.matcher(source.getResponseBody());
+                while (matcher.find()) {
+                    candidates.putIfAbsent(matcher.group(2), new String[]{Correlation.SOURCE_BODY, matcher.group(1)});
+                }
+            }
+            for (Map.Entry<String, String> header : source.getResponseHeaders().entrySet()) {
+                if (!IGNORED_HEADERS.contains(header.getKey()) && header.getValue().length() >= 8) {
+                    candidates.putIfAbsent(header.getValue(), new String[]{Correlation.SOURCE_HEADER, header.getKey()});
+                }
+            }
+            
+            for (Map.Entry<String, String[]> candidate : candidates.entrySet()) {
+                String value = candidate.getKey();
+                // A value already sent before this response is static, not produced by it
+                if (seenValues.contains(value) || sentBefore(requests, i, value)) {
+                    continue;
+                }
+                String name = "v" + (correlations.size() + 1);
+                boolean used = false;
+                for (int j = i + 1; j < requests.size(); j++) {
+                    used |= requests.get(j).replaceValue(value, "${" + name + "}");
+                }
+                if (used) {
+                    seenValues.add(value);
+                    String[] origin = candidate.getValue();
+                    String regex = Correlation.SOURCE_BODY.equals(origin[0])
+                        ? "\"" + Pattern.quote(origin[1]) + "\"\\s*:\\s*\"([^\"]+)\""
+                        : "(.+)";
+                    correlations.add(new Correlation(name, i, origin[0], Correlation.SOURCE_HEADER.equals(origin[0]) ? origin[1] : null, regex));
+                }
+            }
+        }
+        return new ReplayScript(requests, correlations);
+    }
+    
+    private static boolean sentBefore(List<RecordedRequest> requests, int index, String value) {
+        for (int k = 0; k <= index; k++) {
+            RecordedRequest request = requests.get(k);
+            if (request.getUrl().contains(value) || (request.getBody() != null && request.getBody().contains(value))
+                || request.getHeaders().containsValue(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     Writes the script as JSON
+     @param file Target file
+     @throws IOException if the file cannot be written
+     */
+    public void save(File file) throws IOException {
+        List<Map<String, Object>> requestMaps = new ArrayList<>();
+        for (RecordedRequest request : requests) {
+            requestMaps.add(request.toMap());
+        }
+        List<Map<String, Object>> correlationMaps = new ArrayList<>();
+        for (Correlation correlation : correlations) {
+            correlationMaps.add(correlation.toMap());
+        }
+        Map<String, Object> script = new LinkedHashMap<>();
+        script.put("requests", requestMaps);
+        script.put("correlations", correlationMaps);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), JSON.toJson(script).getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     Reads a script written by save()
+     @param file Script file
+     @return ReplayScript instance
+     @throws IOException if the file cannot be read
+     */
+    @SuppressWarnings("unchecked")
+    public static ReplayScript load(File file) throws IOException {
+        Map<String, Object> script = JSON.toType(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8), Json.MAP_TYPE);
+        List<RecordedRequest> requests = new ArrayList<>();
+        for (Object request : (List<Object>) script.get("requests")) {
+            requests.add(RecordedRequest.fromMap((Map<String, Object>) request));
+        }
+        List<Correlation> correlations = new ArrayList<>();
+        for (Object correlation : (List<Object>) script.get("correlations")) {
+            correlations.add(Correlation.fromMap((Map<String, Object>) correlation));
+        }
+        return new ReplayScript(requests, correlations);
+    }
+    
+    public List<RecordedRequest> getRequests() {
+        return Collections.unmodifiableList(requests);
+    }
+    
+    public List<Correlation> getCorrelations() {
+        return Collections.unmodifiableList(correlations);
+    }
+}
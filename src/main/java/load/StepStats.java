@@ -0,0 +1,66 @@
+package load;
+
+import java.util.Arrays;
+
+// StepStats: latency samples and error count for one step of a load flow
+public class StepStats {
+    
+    private final String name;
+    private long[] latenciesMicros = new long[1024];
+    private int count;
+    private long errors;
+    
+    public StepStats(String name) {
+        this.name = name;
+    }
+    
+    /**
+     Records one execution of the step
+     @param nanos Elapsed time in nanoseconds
+     @param failed True if the step threw
+     */
+    public synchronized void record(long nanos, boolean failed) {
+        if (count == latenciesMicros.length) {
+            latenciesMicros = Arrays.copyOf(latenciesMicros, count * 2);
+        }
+        latenciesMicros[count++] = nanos / 1000;
+        if (failed) {
+            errors++;
+        }
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public synchronized int getCount() {
+        return count;
+    }
+    
+    public synchronized long getErrors() {
+        return errors;
+    }
+    
+    /**
+     Gets the error rate
+     @return Errors divided by executions, 0 if none ran
+     */
+    public synchronized double getErrorRate() {
+        return count == 0 ? 0 : (double) errors / count;
+    }
+    
+    /**
+     Gets a latency percentile
+     @param p Percentile between 0 and 1, e.g. 0.95
+     @return Latency in milliseconds
+     */
+    public synchronized double percentileMillis(double p) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(latenciesMicros, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(p * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, index))] / 1000.0;
+    }
+}
@@ -0,0 +1,224 @@
+package load;
+
+import org.openqa.selenium.WebDriver;
+import utils.DevToolsUtil;
+import utils.TestDataManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// TrafficRecorder: records the HTTP requests a browser makes, via DevTools network events
+// The recording is turned into a ReplayScript that ProtocolReplayer can run without a browser
+public class TrafficRecorder {
+    
+    private static final Map<WebDriver, TrafficRecorder> RECORDERS = new ConcurrentHashMap<>();
+    
+    // Resource types replayed by default; static assets come from the CDN, not the backend
+    private static final Set<String> DYNAMIC_TYPES = new HashSet<>(Arrays.asList("Document", "XHR", "Fetch"));
+    
+    // Request headers the replayer sets itself
+    private static final Set<String> SKIPPED_HEADERS = new HashSet<>(Arrays.asList("cookie", "content-length", "host", "connection"));
+    
+    private static final int MAX_BODY_CHARS = 256 * 1024;
+    
+    private final WebDriver driver;
+    private final boolean includeStatic;
+    private final Map<String, RecordedRequest> requests = new LinkedHashMap<>();
+    private final Map<String, String> mimeTypes = new HashMap<>();
+    // Text responses whose body has not been fetched yet; stop waits for them
+    private final Set<String> pendingBodies = new HashSet<>();
+    private volatile boolean recording;
+    private double lastTimestamp = -1;
+    
+    private TrafficRecorder(WebDriver driver) {
+        this.driver = driver;
+        this.includeStatic = TestDataManager.getBooleanProperty("traffic.record.static", false);
+    }
+    
+    /**
+     Starts recording the driver's network traffic. Listeners are registered once per driver
+     and stay idle between recordings.
+     @param driver WebDriver instance (Chrome or Edge)
+     */
+    public static void start(WebDriver driver) {
+        if (!DevToolsUtil.isSupported(driver)) {
+            return;
+        }
+        TrafficRecorder recorder = RECORDERS.computeIfAbsent(driver, d -> {
+            TrafficRecorder created = new TrafficRecorder(d);
+            DevToolsUtil.send(d, "Network.enable");
+            DevToolsUtil.addListener(d, "Network.requestWillBeSent", created::onRequest);
+            DevToolsUtil.addListener(d, "Network.responseReceived", created::onResponse);
+            DevToolsUtil.addListener(d, "Network.loadingFinished", created::onLoadingFinished);
+            DevToolsUtil.addListener(d, "Network.loadingFailed", created::onLoadingFailed);
+            return created;
+        });
+        recorder.begin();
+    }
+    
+    /**
+     Stops recording and correlates what was captured. Response bodies still being fetched are
+     waited for (up to traffic.body.wait.ms), so values that only appear in them are correlated.
+     @param driver WebDriver instance
+     @return Replay script, or null if the driver was not being recorded
+     */
+    public static ReplayScript stop(WebDriver driver) {
+        TrafficRecorder recorder = RECORDERS.get(driver);
+        if (recorder == null) {
+            return null;
+        }
+        return ReplayScript.correlate(recorder.end());
+    }
+    
+    /**
+     Forgets a driver's recorder (call before quitting it). Its listeners stay registered on the
+     DevTools session but ignore events once recording is off.
+     @param driver WebDriver instance
+     */
+    public static void detach(WebDriver driver) {
+        TrafficRecorder recorder = driver == null ? null : RECORDERS.remove(driver);
+        if (recorder != null) {
+            recorder.close();
+        }
+    }
+    
+    private synchronized void close() {
+        recording = false;
+        pendingBodies.clear();
+        notifyAll();
+    }
+    
+    private synchronized void begin() {
+        requests.clear();
+        mimeTypes.clear();
+        pendingBodies.clear();
+        lastTimestamp = -1;
+        recording = true;
+    }
+    
+    private synchronized List<RecordedRequest> end() {
+        recording = false;
+        long deadline = System.nanoTime() + TestDataManager.getIntProperty("traffic.body.wait.ms", 3000) * 1_000_000L;
+        try {
+            while (!pendingBodies.isEmpty()) {
+                long remainingMs = (deadline - System.nanoTime()) / 1_000_000;
+                if (remainingMs <= 0) {
+                    System.err.println("Traffic recording: " + pendingBodies.size() + " response bodies still loading after traffic.body.wait.ms, left uncorrelated");
+                    break;
+                }
+                wait(remainingMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        pendingBodies.clear();
+        return new ArrayList<>(requests.values());
+    }
+    
+    private synchronized void onRequest(Map<String, Object> params) {
+        // Redirect hops are followed by the replayer's HTTP client
+        if (!recording || params.get("redirectResponse") != null) {
+            return;
+        }
+        String type = String.valueOf(params.get("type"));
+        if (!includeStatic && !DYNAMIC_TYPES.contains(type)) {
+            return;
+        }
+        Map<?, ?> request = (Map<?, ?>) params.get("request");
+        Map<String, String> headers = new LinkedHashMap<>();
+        if (request.get("headers") instanceof Map) {
+            for (Map.Entry<?, ?> header : ((Map<?, ?>) request.get("headers")).entrySet()) {
+                String name = String.valueOf(header.getKey());
+                if (!name.startsWith(":") && !SKIPPED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                    headers.put(name, String.valueOf(header.getValue()));
+                }
+            }
+        }
+        double timestamp = ((Number) params.get("timestamp")).doubleValue();
+        long delayMillis = lastTimestamp < 0 ? 0 : Math.max(0, Math.round((timestamp - lastTimestamp) * 1000));
+        lastTimestamp = timestamp;
+        
+        requests.put(String.valueOf(params.get("requestId")), new RecordedRequest(
+            String.valueOf(request.get("method")),
+            String.valueOf(request.get("url")),
+            headers,
+            request.get("postData") == null ? null : String.valueOf(request.get("postData")),
+            delayMillis,
+            0,
+            type));
+    }
+    
+    private synchronized void onResponse(Map<String, Object> params) {
+        RecordedRequest request = requests.get(String.valueOf(params.get("requestId")));
+        if (request == null) {
+            return;
+        }
+        Map<?, ?> response = (Map<?, ?>) params.get("response");
+        request.setExpectedStatus(((Number) response.get("status")).intValue());
+        Map<String, String> headers = new LinkedHashMap<>();
+        if (response.get("headers") instanceof Map) {
+            for (Map.Entry<?, ?> header : ((Map<?, ?>) response.get("headers")).entrySet()) {
+                headers.put(String.valueOf(header.getKey()).toLowerCase(Locale.ROOT), String.valueOf(header.getValue()));
+            }
+        }
+        request.setResponseHeaders(headers);
+        String requestId = String.valueOf(params.get("requestId"));
+        String mimeType = String.valueOf(response.get("mimeType"));
+        mimeTypes.put(requestId, mimeType);
+        if (isText(mimeType)) {
+            pendingBodies.add(requestId);
+        }
+    }
+    
+    private synchronized void onLoadingFailed(Map<String, Object> params) {
+        bodyDone(String.valueOf(params.get("requestId")));
+    }
+    
+    // Marks a response body as fetched (or unavailable) and wakes a waiting stop
+    private synchronized void bodyDone(String requestId) {
+        if (pendingBodies.remove(requestId)) {
+            notifyAll();
+        }
+    }
+    
+    // Only text responses can hold values that later requests echo back
+    private static boolean isText(String mimeType) {
+        return mimeType != null && (mimeType.contains("json") || mimeType.startsWith("text/"));
+    }
+    
+    private void onLoadingFinished(Map<String, Object> params) {
+        String requestId = String.valueOf(params.get("requestId"));
+        RecordedRequest request;
+        String mimeType;
+        synchronized (this) {
+            request = requests.get(requestId);
+            mimeType = mimeTypes.get(requestId);
+        }
+        if (request == null || !isText(mimeType)) {
+            return;
+        }
+        try {
+            Map<String, Object> args = new HashMap<>();
+            args.put("requestId", requestId);
+            Map<String, Object> result = DevToolsUtil.send(driver, "Network.getResponseBody", args);
+            if (!Boolean.TRUE.equals(result.get("base64Encoded"))) {
+                String body = String.valueOf(result.get("body"));
+                synchronized (this) {
+                    request.setResponseBody(body.length() > MAX_BODY_CHARS ? body.substring(0, MAX_BODY_CHARS) : body);
+                }
+            }
+        } catch (Exception ignored) {
+            // body already evicted from the browser's buffer
+        } finally {
+            bodyDone(requestId);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package load;
+
+import org.openqa.selenium.WebDriver;
+
+// VirtualUser: one simulated user of a load run, with its own browser
+// Flows wrap their actions in step() so latency and errors are recorded per step
+public class VirtualUser {
+    
+    private final int id;
+    private final WebDriver driver;
+    private final LoadResult result;
+    
+    VirtualUser(int id, WebDriver driver, LoadResult result) {
+        this.id = id;
+        this.driver = driver;
+        this.result = result;
+    }
+    
+    /**
+     Runs and times a step of the flow. A failing step is recorded and rethrown,
+     which ends the current iteration.
+     @param name Step name used in the results
+     @param action Step to run
+     */
+    public void step(String name, Runnable action) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            action.run();
+            failed = false;
+        } finally {
+            result.getStep(name).record(System.nanoTime() - start, failed);
+        }
+    }
+    
+    public int getId() {
+        return id;
+    }
+    
+    public WebDriver getDriver() {
+        return driver;
+    }
+}
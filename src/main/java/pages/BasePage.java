@@ -1,12 +1,26 @@
 package pages;
 
+import dom.DomDriver;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Cookie;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedCondition;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
+import utils.ActionTimings;
+import utils.AdaptiveWait;
+import utils.AnimationAccelerator;
+import utils.DevToolsFastPath;
+import utils.ScriptLibrary;
 import utils.TestDataManager;
+import utils.TestImpact;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 // BasePage - Contains common methods used across all page objects
 // This helps avoid code duplication and makes maintenance easier
@@ -14,47 +28,177 @@ public abstract class BasePage {
     
     protected WebDriver driver;
     protected WebDriverWait wait;
+    protected CachingElementLocatorFactory elementLocatorFactory;
+    
+    // Scripts used to capture and restore app state for snapshots
+    private static final ScriptLibrary.Script READ_STORAGE_SCRIPT = ScriptLibrary.register("readStorage",
+        "var s = window[arguments[0]]; var out = {};"
+        + " for (var i = 0; i < s.length; i++) { var k = s.key(i); out[k] = s.getItem(k); }"
+        + " return out;");
+    private static final ScriptLibrary.Script WRITE_STORAGE_SCRIPT = ScriptLibrary.register("writeStorage",
+        "var s = window[arguments[0]]; var d = arguments[1]; s.clear();"
+        + " for (var k in d) { s.setItem(k, d[k]); }");
+    // Each field comes with a signature (tag|type|name|id) so a restore can tell whether the same fields exist
+    private static final ScriptLibrary.Script READ_FORM_SCRIPT = ScriptLibrary.register("readFormFields",
+        "return Array.prototype.map.call(document.querySelectorAll('input, select, textarea'),"
+        + " function(el) { return {value: el.value == null ? '' : String(el.value), checked: !!el.checked,"
+        + " signature: [el.tagName.toLowerCase(), el.type || '', el.name || '', el.id || ''].join('|')}; });");
+    // Uses the native value setter so frameworks like React pick up the change
+    private static final ScriptLibrary.Script WRITE_FORM_SCRIPT = ScriptLibrary.register("writeFormFields",
+        "var f = arguments[0]; var els = document.querySelectorAll('input, select, textarea');"
+        + " for (var i = 0; i < f.length && i < els.length; i++) {"
+        + "   var el = els[i]; if (el.type === 'file') continue;"
+        + "   if (el.type === 'checkbox' || el.type === 'radio') { el.checked = f[i].checked; }"
+        + "   else { Object.getOwnPropertyDescriptor(Object.getPrototypeOf(el), 'value').set.call(el, f[i].value); }"
+        + "   el.dispatchEvent(new Event('input', {bubbles: true}));"
+        + "   el.dispatchEvent(new Event('change', {bubbles: true}));"
+        + " }");
     
     // Constructor for BasePage
     // @param driver WebDriver instance
     public BasePage(WebDriver driver) {
         this.driver = driver;
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(TestDataManager.getTimeout()));
+        // A parsed page never changes by itself, so with the DOM driver a condition is checked once
+        this.wait = new WebDriverWait(driver, driver instanceof DomDriver ? Duration.ZERO : Duration.ofSeconds(TestDataManager.getTimeout()));
+        this.elementLocatorFactory = new CachingElementLocatorFactory(driver,
+            TestDataManager.getBooleanProperty("element.cache.enabled", false));
+    }
+    
+    // Find an element, recording the locator for test impact selection (see utils.TestImpact)
+    // @param by Locator
+    // @return First matching element
+    protected WebElement findElement(By by) {
+        TestImpact.record(BasePage.class, by);
+        return driver.findElement(by);
+    }
+    
+    // Find all matching elements, recording the locator for test impact selection
+    // @param by Locator
+    // @return Matching elements, possibly none
+    protected List<WebElement> findElements(By by) {
+        TestImpact.record(BasePage.class, by);
+        return driver.findElements(by);
+    }
+    
+    // Drop cached elements; call after anything that re-renders the page
+    protected void invalidateElementCache() {
+        elementLocatorFactory.newGeneration();
+    }
+    
+    // Wait for a condition on an element, using the learned per-locator policy when
+    // adaptive waits are enabled and the fixed WebDriverWait otherwise
+    // @param conditionName Short name of the condition, e.g. "visible"
+    // @param by Locator of the element the condition is about (null if unknown)
+    // @param condition Condition to wait for
+    // @return The condition's value
+    protected <T> T waitFor(String conditionName, By by, ExpectedCondition<T> condition) {
+        // learned timeouts are keyed by locator so they carry over between sessions and runs;
+        // an element without a known locator has no stable key and uses the fixed wait
+        if (by != null && AdaptiveWait.isEnabled() && !(driver instanceof DomDriver)) {
+            return AdaptiveWait.until(driver, conditionName + ":" + by, condition);
+        }
+        return wait.until(condition);
+    }
+    
+    // Get the locator of a page-object element without looking the element up
+    // @param element Element bound by the generated <Page>_Elements binder
+    // @return By, or null for elements found some other way
+    protected By locatorOf(WebElement element) {
+        return element instanceof LocatedElement ? ((LocatedElement) element).getBy() : null;
+    }
+    
+    // Get the CSS selector to use for the DevTools fast path
+    // @param element WebElement about to be used
+    // @return Selector, or null if the fast path is off or the element has no CSS/tag locator
+    protected String fastPathSelector(WebElement element) {
+        if (!(element instanceof LocatedElement) || !DevToolsFastPath.isAvailable(driver)) {
+            return null;
+        }
+        By by = ((LocatedElement) element).getBy();
+        if (by != null) {
+            // the fast path skips the locator, so record its use here
+            TestImpact.record(BasePage.class, by);
+        }
+        if (!(by instanceof By.Remotable)) {
+            return null;
+        }
+        By.Remotable.Parameters parameters = ((By.Remotable) by).getRemoteParameters();
+        if ("css selector".equals(parameters.using()) || "tag name".equals(parameters.using())) {
+            return String.valueOf(parameters.value());
+        }
+        return null;
     }
     
     // Click an element after waiting for it to be ready
     // @param element WebElement to click
     protected void clickElement(WebElement element) {
-        wait.until(ExpectedConditions.elementToBeClickable(element));
-        element.click();
+        long start = System.nanoTime();
+        try {
+            String selector = fastPathSelector(element);
+            if (selector != null && DevToolsFastPath.click(driver, selector) != null) {
+                return;
+            }
+            waitFor("clickable", locatorOf(element), ExpectedConditions.elementToBeClickable(element));
+            element.click();
+        } finally {
+            ActionTimings.record("click", System.nanoTime() - start);
+        }
     }
     
     // Get text from an element (waits for it to show up first)
     // @param element WebElement to get text from
     // @return Text content of the element
     protected String getElementText(WebElement element) {
-        wait.until(ExpectedConditions.visibilityOf(element));
-        return element.getText();
+        long start = System.nanoTime();
+        try {
+            String selector = fastPathSelector(element);
+            if (selector != null) {
+                String text = DevToolsFastPath.getText(driver, selector);
+                if (text != null) {
+                    return text;
+                }
+            }
+            waitFor("visible", locatorOf(element), ExpectedConditions.visibilityOf(element));
+            return element.getText();
+        } finally {
+            ActionTimings.record("getText", System.nanoTime() - start);
+        }
     }
     
     // Type text into an input field
     // @param element WebElement to send keys to
     // @param text Text to send
     protected void sendKeysToElement(WebElement element, String text) {
-        wait.until(ExpectedConditions.visibilityOf(element));
-        element.clear();
-        element.sendKeys(text);
+        long start = System.nanoTime();
+        try {
+            String selector = fastPathSelector(element);
+            if (selector != null && DevToolsFastPath.setValue(driver, selector, text) != null) {
+                return;
+            }
+            waitFor("visible", locatorOf(element), ExpectedConditions.visibilityOf(element));
+            element.clear();
+            element.sendKeys(text);
+        } finally {
+            ActionTimings.record("sendKeys", System.nanoTime() - start);
+        }
     }
     
     // Check if an element is visible on the page
     // @param element WebElement to wait for
     // @return True if element is visible, false otherwise
     protected boolean isElementVisible(WebElement element) {
+        long start = System.nanoTime();
         try {
-            wait.until(ExpectedConditions.visibilityOf(element));
+            String selector = fastPathSelector(element);
+            if (selector != null && Boolean.TRUE.equals(DevToolsFastPath.isVisible(driver, selector))) {
+                return true;
+            }
+            waitFor("visible", locatorOf(element), ExpectedConditions.visibilityOf(element));
             return true;
         } catch (Exception e) {
             return false;
+        } finally {
+            ActionTimings.record("isVisible", System.nanoTime() - start);
         }
     }
     
@@ -73,6 +217,128 @@ public abstract class BasePage {
     // Go to a specific URL
     // @param url URL to navigate to
     public void navigateTo(String url) {
-        driver.get(url);
+        long start = System.nanoTime();
+        try {
+            driver.get(url);
+            invalidateElementCache();
+            AnimationAccelerator.settle(driver);
+        } finally {
+            ActionTimings.record("navigate", System.nanoTime() - start);
+        }
+    }
+    
+    // Capture the current app state under a name so later tests can skip the setup flow
+    // Saves cookies, localStorage, sessionStorage, the URL and the form field values
+    // @param name Name of the snapshot
+    // @return The saved snapshot
+    public PageSnapshot saveSnapshot(String name) {
+        PageSnapshot snapshot = new PageSnapshot(
+            name,
+            driver.getCurrentUrl(),
+            driver.manage().getCookies(),
+            readStorage("localStorage"),
+            readStorage("sessionStorage"),
+            readFormFields());
+        PageSnapshot.save(snapshot);
+        return snapshot;
+    }
+    
+    // Put the browser back into a previously saved state in one step
+    // Form fields are refilled only if the reloaded page has the same fields (by signature) as when
+    // the snapshot was taken; fields that only existed in the DOM (e.g. a form revealed by a click)
+    // cannot be restored, and the browser is then left on the snapshot URL with cookies and storage
+    // @param name Name of the snapshot
+    // @return True if the snapshot existed and was fully restored, false otherwise
+    public boolean restoreSnapshot(String name) {
+        PageSnapshot snapshot = PageSnapshot.get(name);
+        if (snapshot == null) {
+            return false;
+        }
+        // Cookies and storage can only be written once we are on the app's origin
+        invalidateElementCache();
+        driver.get(snapshot.getUrl());
+        driver.manage().deleteAllCookies();
+        for (Cookie cookie : snapshot.getCookies()) {
+            try {
+                driver.manage().addCookie(cookie);
+            } catch (Exception ignored) {
+                // cookie for another domain - skip it
+            }
+        }
+        ScriptLibrary.execute(driver, WRITE_STORAGE_SCRIPT, "localStorage", snapshot.getLocalStorage());
+        ScriptLibrary.execute(driver, WRITE_STORAGE_SCRIPT, "sessionStorage", snapshot.getSessionStorage());
+        
+        // Reload so the app boots with the restored state, then refill the form
+        driver.navigate().refresh();
+        waitForDocumentReady();
+        AnimationAccelerator.settle(driver);
+        if (!snapshot.getFormFields().isEmpty()) {
+            if (!hasSameFields(snapshot.getFormFields(), readFormFields())) {
+                System.out.println("Snapshot '" + name + "': form fields differ after reload, state not restored");
+                return false;
+            }
+            ScriptLibrary.execute(driver, WRITE_FORM_SCRIPT, snapshot.getFormFields());
+        }
+        return true;
+    }
+    
+    // True if both lists describe the same fields in the same document order
+    private static boolean hasSameFields(List<Map<String, Object>> saved, List<Map<String, Object>> current) {
+        if (saved.size() != current.size()) {
+            return false;
+        }
+        for (int i = 0; i < saved.size(); i++) {
+            if (!String.valueOf(saved.get(i).get("signature")).equals(String.valueOf(current.get(i).get("signature")))) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    // Restore a snapshot if one exists and still fits the page, otherwise run the setup flow and snapshot its result
+    // @param name Name of the snapshot
+    // @param setupFlow Steps that bring the app into the wanted state
+    public void restoreOrCapture(String name, Runnable setupFlow) {
+        if (!restoreSnapshot(name)) {
+            setupFlow.run();
+            saveSnapshot(name);
+        }
+    }
+    
+    // Wait until the document has finished loading
+    protected void waitForDocumentReady() {
+        try {
+            wait.until(d -> "complete".equals(ScriptLibrary.execute(d, ScriptLibrary.READY_STATE)));
+        } catch (Exception ignored) {
+            // element waits will handle remaining readiness
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private Map<String, String> readStorage(String storageName) {
+        Map<String, String> result = new LinkedHashMap<>();
+        try {
+            Object raw = ScriptLibrary.execute(driver, READ_STORAGE_SCRIPT, storageName);
+            if (raw instanceof Map) {
+                for (Map.Entry<String, Object> entry : ((Map<String, Object>) raw).entrySet()) {
+                    result.put(entry.getKey(), String.valueOf(entry.getValue()));
+                }
+            }
+        } catch (Exception ignored) {
+            // storage not available on this page (e.g. about:blank)
+        }
+        return result;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> readFormFields() {
+        List<Map<String, Object>> fields = new ArrayList<>();
+        Object raw = ScriptLibrary.execute(driver, READ_FORM_SCRIPT);
+        if (raw instanceof List) {
+            for (Object field : (List<Object>) raw) {
+                fields.add(new LinkedHashMap<>((Map<String, Object>) field));
+            }
+        }
+        return fields;
     }
 }
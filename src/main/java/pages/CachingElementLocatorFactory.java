@@ -0,0 +1,162 @@
+package pages;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.pagefactory.Annotations;
+import org.openqa.selenium.support.pagefactory.DefaultElementLocator;
+import org.openqa.selenium.support.pagefactory.ElementLocator;
+import org.openqa.selenium.support.pagefactory.ElementLocatorFactory;
+import utils.TestImpact;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// CachingElementLocatorFactory - Creates locators that remember the element they found
+// Unlike @CacheLookup the cache is tied to a page generation: navigating bumps the
+// generation and every cached element is looked up again on next use. A stale element
+// is dropped and found again once by LocatedElement.
+public class CachingElementLocatorFactory implements ElementLocatorFactory {
+    
+    // Counters shared by all factories, reported at the end of the suite
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+    private static final AtomicLong STALE = new AtomicLong();
+    
+    private final SearchContext searchContext;
+    private final boolean cacheEnabled;
+    private final AtomicLong generation = new AtomicLong();
+    
+    // Constructor for CachingElementLocatorFactory
+    // @param searchContext Driver or element to search from
+    public CachingElementLocatorFactory(SearchContext searchContext) {
+        this(searchContext, true);
+    }
+    
+    // Constructor for CachingElementLocatorFactory
+    // @param searchContext Driver or element to search from
+    // @param cacheEnabled False to look elements up on every call
+    public CachingElementLocatorFactory(SearchContext searchContext, boolean cacheEnabled) {
+        this.searchContext = searchContext;
+        this.cacheEnabled = cacheEnabled;
+    }
+    
+    @Override
+    public ElementLocator createLocator(Field field) {
+        return new CachingElementLocator(new DefaultElementLocator(searchContext, field), new Annotations(field).buildBy());
+    }
+    
+    // Create a locator for a By known up front (used by generated page binders)
+    // @param by Locator strategy
+    // @return Caching locator for the By
+    public ElementLocator createLocator(By by) {
+        return new CachingElementLocator(new ByLocator(by), by);
+    }
+    
+    // Forget every cached element, e.g. after a navigation or page re-render
+    public void newGeneration() {
+        generation.incrementAndGet();
+    }
+    
+    // Get the cache counters as text
+    // @return Hits, misses and stale re-resolutions so far
+    public static String getStats() {
+        return "hits=" + HITS.get() + ", misses=" + MISSES.get() + ", stale=" + STALE.get();
+    }
+    
+    public static long getHits() {
+        return HITS.get();
+    }
+    
+    public static long getMisses() {
+        return MISSES.get();
+    }
+    
+    public static long getStaleCount() {
+        return STALE.get();
+    }
+    
+    // Locator that caches the element found by its delegate for the current generation
+    class CachingElementLocator implements ElementLocator {
+        
+        private final ElementLocator delegate;
+        // Locator reported to TestImpact on every use, cache hit or not
+        private final By usedBy;
+        private volatile WebElement cachedElement;
+        private volatile long cachedGeneration = -1;
+        
+        CachingElementLocator(ElementLocator delegate, By usedBy) {
+            this.delegate = delegate;
+            this.usedBy = usedBy;
+        }
+        
+        @Override
+        public WebElement findElement() {
+            TestImpact.record(BasePage.class, usedBy);
+            if (!cacheEnabled) {
+                return delegate.findElement();
+            }
+            WebElement element = cachedElement;
+            if (element != null && cachedGeneration == generation.get()) {
+                HITS.incrementAndGet();
+                return element;
+            }
+            MISSES.incrementAndGet();
+            long current = generation.get();
+            element = delegate.findElement();
+            cachedElement = element;
+            cachedGeneration = current;
+            return element;
+        }
+        
+        @Override
+        public List<WebElement> findElements() {
+            // Lists change size on dynamic pages, so they are never cached
+            TestImpact.record(BasePage.class, usedBy);
+            return delegate.findElements();
+        }
+        
+        // Get the By this locator searches with, if it was created from one
+        // @return By, or null for field-based locators
+        By getBy() {
+            return delegate instanceof ByLocator ? ((ByLocator) delegate).by : null;
+        }
+        
+        // Drop the cached element after it went stale
+        void invalidate() {
+            STALE.incrementAndGet();
+            cachedElement = null;
+        }
+        
+        @Override
+        public String toString() {
+            return delegate.toString();
+        }
+    }
+    
+    // Plain locator for a By, described like DefaultElementLocator
+    private class ByLocator implements ElementLocator {
+        
+        private final By by;
+        
+        ByLocator(By by) {
+            this.by = by;
+        }
+        
+        @Override
+        public WebElement findElement() {
+            return searchContext.findElement(by);
+        }
+        
+        @Override
+        public List<WebElement> findElements() {
+            return searchContext.findElements(by);
+        }
+        
+        @Override
+        public String toString() {
+            return "DefaultElementLocator '" + by + "'";
+        }
+    }
+}
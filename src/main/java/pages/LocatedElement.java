@@ -0,0 +1,190 @@
+package pages;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
+import org.openqa.selenium.interactions.Coordinates;
+import org.openqa.selenium.interactions.Locatable;
+import org.openqa.selenium.support.pagefactory.ElementLocator;
+
+import java.util.List;
+import java.util.function.Function;
+
+// LocatedElement - A plain WebElement that finds its target through a locator on each call
+// Used by the generated <Page>_Elements binders instead of PageFactory's dynamic proxies.
+// Lookups go through the page's caching locator, with one retry when the element went stale.
+public class LocatedElement implements WebElement, WrapsElement, Locatable {
+    
+    private final ElementLocator locator;
+    
+    // Constructor for LocatedElement
+    // @param locator Locator resolving the real element
+    public LocatedElement(ElementLocator locator) {
+        this.locator = locator;
+    }
+    
+    // Run an action on the located element, re-locating once if it went stale
+    private <T> T call(Function<WebElement, T> action) {
+        try {
+            return action.apply(locator.findElement());
+        } catch (StaleElementReferenceException e) {
+            if (!(locator instanceof CachingElementLocatorFactory.CachingElementLocator)) {
+                throw e;
+            }
+            ((CachingElementLocatorFactory.CachingElementLocator) locator).invalidate();
+            return action.apply(locator.findElement());
+        }
+    }
+    
+    // Get the By used to locate this element
+    // @return By, or null if the locator was not created from one
+    public By getBy() {
+        return locator instanceof CachingElementLocatorFactory.CachingElementLocator
+            ? ((CachingElementLocatorFactory.CachingElementLocator) locator).getBy()
+            : null;
+    }
+    
+    @Override
+    public WebElement getWrappedElement() {
+        return locator.findElement();
+    }
+    
+    @Override
+    public Coordinates getCoordinates() {
+        return call(element -> ((Locatable) element).getCoordinates());
+    }
+    
+    @Override
+    public void click() {
+        call(element -> {
+            element.click();
+            return null;
+        });
+    }
+    
+    @Override
+    public void submit() {
+        call(element -> {
+            element.submit();
+            return null;
+        });
+    }
+    
+    @Override
+    public void sendKeys(CharSequence... keysToSend) {
+        call(element -> {
+            element.sendKeys(keysToSend);
+            return null;
+        });
+    }
+    
+    @Override
+    public void clear() {
+        call(element -> {
+            element.clear();
+            return null;
+        });
+    }
+    
+    @Override
+    public String getTagName() {
+        return call(WebElement::getTagName);
+    }
+    
+    @Override
+    public String getDomProperty(String name) {
+        return call(element -> element.getDomProperty(name));
+    }
+    
+    @Override
+    public String getDomAttribute(String name) {
+        return call(element -> element.getDomAttribute(name));
+    }
+    
+    @Override
+    public String getAttribute(String name) {
+        return call(element -> element.getAttribute(name));
+    }
+    
+    @Override
+    public String getAriaRole() {
+        return call(WebElement::getAriaRole);
+    }
+    
+    @Override
+    public String getAccessibleName() {
+        return call(WebElement::getAccessibleName);
+    }
+    
+    @Override
+    public boolean isSelected() {
+        return call(WebElement::isSelected);
+    }
+    
+    @Override
+    public boolean isEnabled() {
+        return call(WebElement::isEnabled);
+    }
+    
+    @Override
+    public String getText() {
+        return call(WebElement::getText);
+    }
+    
+    @Override
+    public List<WebElement> findElements(By by) {
+        return call(element -> element.findElements(by));
+    }
+    
+    @Override
+    public WebElement findElement(By by) {
+        return call(element -> element.findElement(by));
+    }
+    
+    @Override
+    public SearchContext getShadowRoot() {
+        return call(WebElement::getShadowRoot);
+    }
+    
+    @Override
+    public boolean isDisplayed() {
+        return call(WebElement::isDisplayed);
+    }
+    
+    @Override
+    public Point getLocation() {
+        return call(WebElement::getLocation);
+    }
+    
+    @Override
+    public Dimension getSize() {
+        return call(WebElement::getSize);
+    }
+    
+    @Override
+    public Rectangle getRect() {
+        return call(WebElement::getRect);
+    }
+    
+    @Override
+    public String getCssValue(String propertyName) {
+        return call(element -> element.getCssValue(propertyName));
+    }
+    
+    @Override
+    public <X> X getScreenshotAs(OutputType<X> target) throws WebDriverException {
+        return call(element -> element.getScreenshotAs(target));
+    }
+    
+    @Override
+    public String toString() {
+        return "Located element for: " + locator;
+    }
+}
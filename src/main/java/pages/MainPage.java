@@ -4,45 +4,47 @@ import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
-import org.openqa.selenium.support.PageFactory;
+import utils.VisualCheck;
+import utils.VisualComparator;
 
 // MainPage - Handles interactions with the main page
 // Contains the elements and methods needed to test the app
 public class MainPage extends BasePage {
     
-    // Page elements using PageFactory
+    // Page elements, bound by the generated MainPage_Elements (see processor.PageObjectProcessor)
+    // Left package-private so the generated binder can assign them without reflection
     @FindBy(tagName = "h1")
-    private WebElement pageHeader;
+    WebElement pageHeader;
     
     @FindBy(tagName = "h2")
-    private WebElement subHeader;
+    WebElement subHeader;
     
     @FindBy(css = "button")
-    private WebElement startButton;
+    WebElement startButton;
     
     @FindBy(css = "input[type='text']")
-    private WebElement nameInput;
+    WebElement nameInput;
     
     @FindBy(css = "input[type='email']")
-    private WebElement emailInput;
+    WebElement emailInput;
     
     @FindBy(css = "select")
-    private WebElement dropdownSelect;
+    WebElement dropdownSelect;
     
     @FindBy(css = "textarea")
-    private WebElement textArea;
+    WebElement textArea;
     
     @FindBy(css = "input[type='checkbox']")
-    private WebElement checkbox;
+    WebElement checkbox;
     
     @FindBy(css = "input[type='radio']")
-    private WebElement radioButton;
+    WebElement radioButton;
     
     @FindBy(css = "input[type='submit']")
-    private WebElement submitButton;
+    WebElement submitButton;
     
     @FindBy(css = "input[type='reset']")
-    private WebElement resetButton;
+    WebElement resetButton;
     
     // Alternative locators using By
     private By pageTitle = By.tagName("title");
@@ -56,7 +58,7 @@ public class MainPage extends BasePage {
     // @param driver WebDriver instance
     public MainPage(WebDriver driver) {
         super(driver);
-        PageFactory.initElements(driver, this);
+        MainPage_Elements.bind(this, elementLocatorFactory);
     }
     
     // Get the page header text
@@ -68,22 +70,22 @@ public class MainPage extends BasePage {
         } catch (Exception ignored) {}
 
         try {
-            WebElement h1 = driver.findElement(By.tagName("h1"));
+            WebElement h1 = findElement(By.tagName("h1"));
             return h1.getText();
         } catch (Exception ignored) {}
 
         try {
-            WebElement h2El = driver.findElement(By.tagName("h2"));
+            WebElement h2El = findElement(By.tagName("h2"));
             return h2El.getText();
         } catch (Exception ignored) {}
 
         try {
-            WebElement roleHeading = driver.findElement(By.cssSelector("[role='heading']"));
+            WebElement roleHeading = findElement(By.cssSelector("[role='heading']"));
             return roleHeading.getText();
         } catch (Exception ignored) {}
 
         try {
-            WebElement titleLike = driver.findElement(By.cssSelector(".header, .title, .page-title, .page-header"));
+            WebElement titleLike = findElement(By.cssSelector(".header, .title, .page-title, .page-header"));
             return titleLike.getText();
         } catch (Exception ignored) {}
 
@@ -103,12 +105,12 @@ public class MainPage extends BasePage {
         } catch (Exception ignored) {}
 
         try {
-            WebElement h3 = driver.findElement(By.tagName("h3"));
+            WebElement h3 = findElement(By.tagName("h3"));
             return h3.getText();
         } catch (Exception ignored) {}
 
         try {
-            WebElement subTitle = driver.findElement(By.cssSelector(".subheader, .subtitle, .sub-title"));
+            WebElement subTitle = findElement(By.cssSelector(".subheader, .subtitle, .sub-title"));
             return subTitle.getText();
         } catch (Exception ignored) {}
 
@@ -144,7 +146,7 @@ public class MainPage extends BasePage {
         if (isElementVisible(dropdownSelect)) {
             try {
                 clickElement(dropdownSelect);
-                WebElement option = driver.findElement(By.cssSelector("option[value='" + optionValue + "']"));
+                WebElement option = findElement(By.cssSelector("option[value='" + optionValue + "']"));
                 clickElement(option);
             } catch (Exception ignored) {}
         }
@@ -196,32 +198,32 @@ public class MainPage extends BasePage {
     // Get the page title text content
     // @return Page title
     public String getPageTitle() {
-        return driver.findElement(pageTitle).getAttribute("textContent");
+        return findElement(pageTitle).getAttribute("textContent");
     }
     
     // Get the number of buttons on the page
     // @return Number of buttons
     public int getButtonCount() {
-        return driver.findElements(allButtons).size();
+        return findElements(allButtons).size();
     }
     
     // Get the number of input fields on the page
     // @return Number of input fields
     public int getInputFieldCount() {
-        return driver.findElements(allInputs).size();
+        return findElements(allInputs).size();
     }
     
     // Get the number of links on the page
     // @return Number of links
     public int getLinkCount() {
-        return driver.findElements(allLinks).size();
+        return findElements(allLinks).size();
     }
     
     // Check if error message is displayed
     // @return True if error message is visible
     public boolean isErrorMessageDisplayed() {
         try {
-            return driver.findElement(errorMessage).isDisplayed();
+            return findElement(errorMessage).isDisplayed();
         } catch (Exception e) {
             return false;
         }
@@ -231,7 +233,7 @@ public class MainPage extends BasePage {
     // @return Error message text
     public String getErrorMessageText() {
         try {
-            return driver.findElement(errorMessage).getText();
+            return findElement(errorMessage).getText();
         } catch (Exception e) {
             return "";
         }
@@ -241,7 +243,7 @@ public class MainPage extends BasePage {
     // @return True if success message is visible
     public boolean isSuccessMessageDisplayed() {
         try {
-            return driver.findElement(successMessage).isDisplayed();
+            return findElement(successMessage).isDisplayed();
         } catch (Exception e) {
             return false;
         }
@@ -251,7 +253,7 @@ public class MainPage extends BasePage {
     // @return Success message text
     public String getSuccessMessageText() {
         try {
-            return driver.findElement(successMessage).getText();
+            return findElement(successMessage).getText();
         } catch (Exception e) {
             return "";
         }
@@ -272,7 +274,7 @@ public class MainPage extends BasePage {
             }
 
             // Accept if there is at least one interactive element present
-            if (!driver.findElements(allButtons).isEmpty() || !driver.findElements(allInputs).isEmpty()) {
+            if (!findElements(allButtons).isEmpty() || !findElements(allInputs).isEmpty()) {
                 return true;
             }
 
@@ -281,12 +283,28 @@ public class MainPage extends BasePage {
             if (title != null && !title.isEmpty()) {
                 return true;
             }
-            return driver.findElements(By.tagName("body")).size() > 0;
+            return findElements(By.tagName("body")).size() > 0;
         } catch (Exception e) {
             return false;
         }
     }
     
+    // Compare the visible page with its visual baseline (recorded on first use, see utils.VisualCheck)
+    // @param baselineName Name of the baseline
+    // @return Comparison result
+    public VisualComparator.Result compareLayoutWithBaseline(String baselineName) {
+        waitForDocumentReady();
+        return VisualCheck.verify(driver, baselineName);
+    }
+    
+    // Compare the page header with its visual baseline
+    // Goes through the bound pageHeader, so the element cache and test impact recording apply
+    // @param baselineName Name of the baseline
+    // @return Comparison result
+    public VisualComparator.Result compareHeaderWithBaseline(String baselineName) {
+        return VisualCheck.verify(driver, pageHeader, baselineName);
+    }
+    
     // Perform a complete form submission with test data
     // @param name Name to enter
     // @param email Email to enter
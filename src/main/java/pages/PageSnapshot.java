@@ -0,0 +1,100 @@
+package pages;
+
+import org.openqa.selenium.Cookie;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// PageSnapshot - A named checkpoint of the app state in the browser
+// Holds cookies, web storage, the current URL and the values of form fields
+// so a shared setup flow can be replayed in one step instead of re-clicked
+public class PageSnapshot {
+
+    // Named snapshots shared by every page object in this JVM
+    private static final Map<String, PageSnapshot> SNAPSHOTS = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final String url;
+    private final Set<Cookie> cookies;
+    private final Map<String, String> localStorage;
+    private final Map<String, String> sessionStorage;
+    private final List<Map<String, Object>> formFields;
+
+    // Constructor for PageSnapshot
+    // @param name Name of the snapshot
+    // @param url URL the browser was on when the snapshot was taken
+    // @param cookies Cookies visible to the current domain
+    // @param localStorage Contents of window.localStorage
+    // @param sessionStorage Contents of window.sessionStorage
+    // @param formFields Value/checked state and signature (tag|type|name|id) of each input, select and textarea in document order
+    public PageSnapshot(String name, String url, Set<Cookie> cookies, Map<String, String> localStorage,
+                        Map<String, String> sessionStorage, List<Map<String, Object>> formFields) {
+        this.name = name;
+        this.url = url;
+        this.cookies = Collections.unmodifiableSet(new HashSet<>(cookies));
+        this.localStorage = Collections.unmodifiableMap(new LinkedHashMap<>(localStorage));
+        this.sessionStorage = Collections.unmodifiableMap(new LinkedHashMap<>(sessionStorage));
+        this.formFields = Collections.unmodifiableList(new ArrayList<>(formFields));
+    }
+
+    // Store a snapshot under its name, replacing any earlier one
+    // @param snapshot Snapshot to store
+    public static void save(PageSnapshot snapshot) {
+        SNAPSHOTS.put(snapshot.getName(), snapshot);
+    }
+
+    // Look up a snapshot by name
+    // @param name Name of the snapshot
+    // @return The snapshot, or null if none was saved under that name
+    public static PageSnapshot get(String name) {
+        return SNAPSHOTS.get(name);
+    }
+
+    // Check whether a snapshot has been saved
+    // @param name Name of the snapshot
+    // @return True if a snapshot exists for the name
+    public static boolean exists(String name) {
+        return SNAPSHOTS.containsKey(name);
+    }
+
+    // Drop a single snapshot
+    // @param name Name of the snapshot
+    public static void remove(String name) {
+        SNAPSHOTS.remove(name);
+    }
+
+    // Drop every saved snapshot
+    public static void clear() {
+        SNAPSHOTS.clear();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public Set<Cookie> getCookies() {
+        return cookies;
+    }
+
+    public Map<String, String> getLocalStorage() {
+        return localStorage;
+    }
+
+    public Map<String, String> getSessionStorage() {
+        return sessionStorage;
+    }
+
+    public List<Map<String, Object>> getFormFields() {
+        return formFields;
+    }
+}
@@ -0,0 +1,177 @@
+package processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// PageObjectProcessor: generates plain element-binding code for BasePage subclasses
+// For every page object with @FindBy fields it writes <Page>_Elements with a bind() method
+// that assigns each field a LocatedElement for a By built at compile time, so creating a
+// page object needs neither PageFactory reflection nor dynamic proxies.
+@SupportedAnnotationTypes("org.openqa.selenium.support.FindBy")
+public class PageObjectProcessor extends AbstractProcessor {
+    
+    private static final String FIND_BY = "org.openqa.selenium.support.FindBy";
+    private static final String WEB_ELEMENT = "org.openqa.selenium.WebElement";
+    private static final String BASE_PAGE = "pages.BasePage";
+    
+    // @FindBy attribute -> By factory method
+    private static final Map<String, String> BY_METHODS = new LinkedHashMap<>();
+    
+    static {
+        BY_METHODS.put("id", "id");
+        BY_METHODS.put("name", "name");
+        BY_METHODS.put("className", "className");
+        BY_METHODS.put("css", "cssSelector");
+        BY_METHODS.put("tagName", "tagName");
+        BY_METHODS.put("linkText", "linkText");
+        BY_METHODS.put("partialLinkText", "partialLinkText");
+        BY_METHODS.put("xpath", "xpath");
+    }
+    
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+    
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement findBy = processingEnv.getElementUtils().getTypeElement(FIND_BY);
+        if (findBy == null) {
+            return false;
+        }
+        
+        // Group annotated fields by the page object that declares them
+        Map<TypeElement, List<VariableElement>> pages = new LinkedHashMap<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(findBy)) {
+            if (element.getKind() != ElementKind.FIELD) {
+                continue;
+            }
+            TypeElement owner = (TypeElement) element.getEnclosingElement();
+            if (extendsBasePage(owner)) {
+                pages.computeIfAbsent(owner, k -> new ArrayList<>()).add((VariableElement) element);
+            }
+        }
+        
+        for (Map.Entry<TypeElement, List<VariableElement>> page : pages.entrySet()) {
+            generateBinder(page.getKey(), page.getValue());
+        }
+        return false;
+    }
+    
+    private boolean extendsBasePage(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        while (superclass.getKind() == TypeKind.DECLARED) {
+            TypeElement superType = (TypeElement) ((DeclaredType) superclass).asElement();
+            if (superType.getQualifiedName().contentEquals(BASE_PAGE)) {
+                return true;
+            }
+            superclass = superType.getSuperclass();
+        }
+        return false;
+    }
+    
+    private void generateBinder(TypeElement page, List<VariableElement> fields) {
+        String packageName = processingEnv.getElementUtils().getPackageOf(page).getQualifiedName().toString();
+        String pageName = page.getSimpleName().toString();
+        String binderName = pageName + "_Elements";
+        
+        StringBuilder body = new StringBuilder();
+        for (VariableElement field : fields) {
+            if (field.getModifiers().contains(Modifier.PRIVATE) || field.getModifiers().contains(Modifier.STATIC)
+                || field.getModifiers().contains(Modifier.FINAL)) {
+                error(field, "@FindBy field must be a non-private, non-static, non-final instance field for generated binding");
+                return;
+            }
+            if (!field.asType().toString().equals(WEB_ELEMENT)) {
+                error(field, "Generated binding supports WebElement fields only, found " + field.asType());
+                return;
+            }
+            String by = buildBy(field);
+            if (by == null) {
+                return;
+            }
+            body.append("        page.").append(field.getSimpleName())
+                .append(" = new LocatedElement(factory.createLocator(").append(by).append("));\n");
+        }
+        
+        String qualifiedName = packageName.isEmpty() ? binderName : packageName + "." + binderName;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, page).openWriter()) {
+            if (!packageName.isEmpty()) {
+                writer.write("package " + packageName + ";\n\n");
+            }
+            writer.write("import org.openqa.selenium.By;\n");
+            writer.write("import pages.CachingElementLocatorFactory;\n");
+            writer.write("import pages.LocatedElement;\n\n");
+            writer.write("// Generated by processor.PageObjectProcessor from the @FindBy fields of " + pageName + " - do not edit\n");
+            writer.write("public final class " + binderName + " {\n\n");
+            writer.write("    private " + binderName + "() {\n    }\n\n");
+            writer.write("    // Assign every @FindBy field of the page a lazily located element\n");
+            writer.write("    public static void bind(" + pageName + " page, CachingElementLocatorFactory factory) {\n");
+            writer.write(body.toString());
+            writer.write("    }\n}\n");
+        } catch (IOException e) {
+            error(page, "Could not write " + qualifiedName + ": " + e.getMessage());
+        }
+    }
+    
+    // Build the Java expression creating the By for a field's @FindBy
+    private String buildBy(VariableElement field) {
+        AnnotationMirror mirror = null;
+        for (AnnotationMirror annotation : field.getAnnotationMirrors()) {
+            if (annotation.getAnnotationType().toString().equals(FIND_BY)) {
+                mirror = annotation;
+            }
+        }
+        String how = null;
+        String using = null;
+        List<String> bys = new ArrayList<>();
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+            String attribute = entry.getKey().getSimpleName().toString();
+            Object value = entry.getValue().getValue();
+            if ("how".equals(attribute)) {
+                how = ((VariableElement) value).getSimpleName().toString();
+            } else if ("using".equals(attribute)) {
+                using = (String) value;
+            } else if (BY_METHODS.containsKey(attribute)) {
+                bys.add("By." + BY_METHODS.get(attribute) + "(" + literal((String) value) + ")");
+            }
+        }
+        if (how != null && !"UNSET".equals(how) && using != null) {
+            bys.add("org.openqa.selenium.support.How." + how + ".buildBy(" + literal(using) + ")");
+        }
+        if (bys.size() != 1) {
+            error(field, "@FindBy must specify exactly one locator strategy");
+            return null;
+        }
+        return bys.get(0);
+    }
+    
+    private static String literal(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+    
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
@@ -0,0 +1,34 @@
+package utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// ActionTimings: collects how long page-object actions take during the current test
+// Kept per thread because TestNG runs a test and its listener callbacks on the same thread
+public class ActionTimings {
+    
+    // action name -> {count, total nanos}
+    private static final ThreadLocal<Map<String, long[]>> CURRENT = ThreadLocal.withInitial(LinkedHashMap::new);
+    
+    /**
+     Records one execution of an action
+     @param action Action name, e.g. "click"
+     @param nanos Elapsed time in nanoseconds
+     */
+    public static void record(String action, long nanos) {
+        long[] stats = CURRENT.get().computeIfAbsent(action, k -> new long[2]);
+        stats[0]++;
+        stats[1] += nanos;
+        LiveMetrics.observeAction(action, nanos);
+    }
+    
+    /**
+     Returns the timings collected on this thread and starts a fresh set
+     @return Map of action name to {count, total nanos}
+     */
+    public static Map<String, long[]> reset() {
+        Map<String, long[]> timings = CURRENT.get();
+        CURRENT.set(new LinkedHashMap<>());
+        return timings;
+    }
+}
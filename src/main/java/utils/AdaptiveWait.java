@@ -0,0 +1,201 @@
+package utils;
+
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+// AdaptiveWait: waits whose timeout and polling adapt to how long each condition usually takes
+// Every successful wait is recorded per key (condition + locator). Once enough samples exist the
+// timeout becomes p99 x safety factor, clamped to [min, configured timeout]. A wait that outlasts the
+// learned timeout is not failed but extended to the configured timeout, and a wait that times out is
+// recorded at the time it waited, so slow renders (or a slower machine) widen the policy instead of
+// flaking. Polling starts fast and backs off, so quick elements are not held to a fixed 500 ms
+// granularity. Learned samples are persisted between runs.
+public class AdaptiveWait {
+    
+    private static final Map<String, WaitPolicy> POLICIES = new ConcurrentHashMap<>();
+    private static volatile boolean loaded;
+    
+    // Learned state for one wait key: a ring of the most recent successful wait durations
+    static class WaitPolicy {
+        private static final int MAX_SAMPLES = 200;
+        private final long[] samples = new long[MAX_SAMPLES];
+        private int next;
+        private int count;
+        
+        synchronized void record(long millis) {
+            samples[next] = millis;
+            next = (next + 1) % MAX_SAMPLES;
+            count = Math.min(count + 1, MAX_SAMPLES);
+        }
+        
+        synchronized int getCount() {
+            return count;
+        }
+        
+        synchronized long percentile(double p) {
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(p * count) - 1;
+            return sorted[Math.max(0, Math.min(count - 1, index))];
+        }
+        
+        synchronized String serialize() {
+            StringBuilder text = new StringBuilder();
+            int start = (next - count + MAX_SAMPLES) % MAX_SAMPLES;
+            for (int i = 0; i < count; i++) {
+                if (i > 0) text.append(',');
+                text.append(samples[(start + i) % MAX_SAMPLES]);
+            }
+            return text.toString();
+        }
+    }
+    
+    /**
+     Checks if adaptive waits are turned on in config
+     @return True if adaptive.wait.enabled is set
+     */
+    public static boolean isEnabled() {
+        return TestDataManager.getBooleanProperty("adaptive.wait.enabled", false);
+    }
+    
+    /**
+     Waits until the condition returns a non-null, non-false value
+     @param driver WebDriver instance
+     @param key Identifies the condition and element, e.g. "visible:By.cssSelector: button"
+     @param condition Condition to evaluate (ExpectedConditions work here)
+     @return The condition's value
+     @throws TimeoutException if the condition is not met within the configured timeout (after the learned one ran out)
+     */
+    public static <T> T until(WebDriver driver, String key, Function<? super WebDriver, T> condition) {
+        WaitPolicy policy = getPolicy(key);
+        long timeoutMs = getTimeoutMillis(policy);
+        long pollMs = TestDataManager.getIntProperty("adaptive.wait.poll.initial.ms", 10);
+        long maxPollMs = TestDataManager.getIntProperty("adaptive.wait.poll.max.ms", 250);
+        
+        long start = System.nanoTime();
+        RuntimeException lastError = null;
+        while (true) {
+            try {
+                T value = condition.apply(driver);
+                if (value != null && !Boolean.FALSE.equals(value)) {
+                    policy.record((System.nanoTime() - start) / 1_000_000);
+                    return value;
+                }
+            } catch (NotFoundException | StaleElementReferenceException e) {
+                lastError = e;
+            }
+            
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            if (elapsedMs >= timeoutMs) {
+                long fullTimeoutMs = TestDataManager.getTimeout() * 1000L;
+                if (timeoutMs < fullTimeoutMs) {
+                    // slower than learned: keep waiting up to the configured timeout; the sample this
+                    // wait records widens the policy, so one slow render does not fail the test
+                    timeoutMs = fullTimeoutMs;
+                    continue;
+                }
+                // censored sample: the condition took at least this long
+                policy.record(elapsedMs);
+                throw new TimeoutException("Condition '" + key + "' not met after " + elapsedMs + " ms", lastError);
+            }
+            try {
+                Thread.sleep(Math.min(pollMs, timeoutMs - elapsedMs));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TimeoutException("Interrupted while waiting for '" + key + "'", e);
+            }
+            pollMs = Math.min(maxPollMs, pollMs * 2);
+        }
+    }
+    
+    /**
+     Gets the timeout that would currently be used for a key
+     @param key Wait key
+     @return Timeout in milliseconds
+     */
+    public static long getTimeoutMillis(String key) {
+        return getTimeoutMillis(getPolicy(key));
+    }
+    
+    /**
+     Writes the learned samples so the next run starts from them
+     */
+    public static void save() {
+        if (POLICIES.isEmpty()) {
+            return;
+        }
+        Properties properties = new Properties();
+        for (Map.Entry<String, WaitPolicy> entry : POLICIES.entrySet()) {
+            if (entry.getValue().getCount() > 0) {
+                properties.setProperty(entry.getKey(), entry.getValue().serialize());
+            }
+        }
+        File file = new File(getStoreFile());
+        file.getParentFile().mkdirs();
+        try (OutputStream output = new FileOutputStream(file)) {
+            properties.store(output, "Learned wait durations (ms) per condition");
+        } catch (Exception e) {
+            System.err.println("Error saving wait policies: " + e.getMessage());
+        }
+    }
+    
+    private static long getTimeoutMillis(WaitPolicy policy) {
+        long maxMs = TestDataManager.getTimeout() * 1000L;
+        if (policy.getCount() < TestDataManager.getIntProperty("adaptive.wait.min.samples", 5)) {
+            return maxMs;
+        }
+        double factor = Double.parseDouble(TestDataManager.getProperty("adaptive.wait.safety.factor", "3.0"));
+        long minMs = TestDataManager.getIntProperty("adaptive.wait.min.ms", 500);
+        long learned = (long) (policy.percentile(0.99) * factor);
+        return Math.max(minMs, Math.min(maxMs, learned));
+    }
+    
+    private static WaitPolicy getPolicy(String key) {
+        if (!loaded) {
+            load();
+        }
+        return POLICIES.computeIfAbsent(key, k -> new WaitPolicy());
+    }
+    
+    private static synchronized void load() {
+        if (loaded) {
+            return;
+        }
+        File file = new File(getStoreFile());
+        if (file.exists()) {
+            Properties properties = new Properties();
+            try (InputStream input = new FileInputStream(file)) {
+                properties.load(input);
+                for (String key : properties.stringPropertyNames()) {
+                    WaitPolicy policy = new WaitPolicy();
+                    for (String sample : properties.getProperty(key).split(",")) {
+                        if (!sample.isEmpty()) {
+                            policy.record(Long.parseLong(sample.trim()));
+                        }
+                    }
+                    POLICIES.put(key, policy);
+                }
+            } catch (Exception e) {
+                System.err.println("Error loading wait policies: " + e.getMessage());
+            }
+        }
+        loaded = true;
+    }
+    
+    private static String getStoreFile() {
+        return TestDataManager.getProperty("adaptive.wait.file", "test-output/history/wait-policies.properties");
+    }
+}
@@ -0,0 +1,107 @@
+package utils;
+
+import org.openqa.selenium.WebDriver;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+// AnimationAccelerator: lets the page under test reach its settled state without waiting in real time
+// After each navigation it speeds up CSS/Web animations (Animation.setPlaybackRate), emulates
+// prefers-reduced-motion, and grants a virtual-time budget (Emulation.setVirtualTimePolicy) so
+// pending setTimeout/setInterval delays fire immediately. DevTools cannot switch virtual time off
+// again: after the budget the page is left on the "advance" policy, so for the rest of the session
+// Date.now and timers follow the virtual clock, which jumps to the next delayed task whenever the
+// page is idle. Tests that depend on real elapsed time in the page should run with acceleration off.
+// Chrome/Edge only - other browsers run unchanged.
+public class AnimationAccelerator {
+
+    // Per driver: the future completed by the next Emulation.virtualTimeBudgetExpired event
+    private static final Map<WebDriver, AtomicReference<CompletableFuture<Void>>> DRIVERS = new ConcurrentHashMap<>();
+
+    /**
+     Checks if acceleration is turned on in config
+     @return True if acceleration.enabled is set
+     */
+    public static boolean isEnabled() {
+        return TestDataManager.getBooleanProperty("acceleration.enabled", false);
+    }
+
+    /**
+     Turns on reduced motion and listens for virtual-time budget expiry. Does nothing for
+     browsers without DevTools support.
+     @param driver WebDriver instance
+     */
+    public static void attach(WebDriver driver) {
+        if (!DevToolsUtil.isSupported(driver) || DRIVERS.containsKey(driver)) {
+            return;
+        }
+        try {
+            AtomicReference<CompletableFuture<Void>> budgetExpired = new AtomicReference<>(new CompletableFuture<>());
+            DevToolsUtil.addListener(driver, "Emulation.virtualTimeBudgetExpired", params -> budgetExpired.get().complete(null));
+            DevToolsUtil.send(driver, "Animation.enable");
+
+            Map<String, Object> reducedMotion = new HashMap<>();
+            reducedMotion.put("name", "prefers-reduced-motion");
+            reducedMotion.put("value", "reduce");
+            DevToolsUtil.send(driver, "Emulation.setEmulatedMedia",
+                Collections.singletonMap("features", Collections.singletonList(reducedMotion)));
+            DRIVERS.put(driver, budgetExpired);
+        } catch (Exception e) {
+            System.err.println("Animation acceleration unavailable: " + e.getMessage());
+        }
+    }
+
+    /**
+     Stops tracking a driver (call before quitting it)
+     @param driver WebDriver instance
+     */
+    public static void detach(WebDriver driver) {
+        if (driver != null) {
+            DRIVERS.remove(driver);
+        }
+    }
+
+    /**
+     Fast-forwards the current page: re-applies the animation playback rate for the new document,
+     then runs its timers on virtual time until acceleration.virtual.time.budget.ms of page time
+     has passed (or acceleration.settle.timeout.ms of real time). The page then stays on virtual
+     time with the "advance" policy, which fast-forwards to delayed tasks whenever it is idle.
+     @param driver WebDriver that just navigated
+     */
+    public static void settle(WebDriver driver) {
+        AtomicReference<CompletableFuture<Void>> budgetExpired = driver == null ? null : DRIVERS.get(driver);
+        if (budgetExpired == null) {
+            return;
+        }
+        try {
+            DevToolsUtil.send(driver, "Animation.setPlaybackRate", Collections.singletonMap("playbackRate",
+                Double.parseDouble(TestDataManager.getProperty("acceleration.animation.rate", "10"))));
+
+            int budget = TestDataManager.getIntProperty("acceleration.virtual.time.budget.ms", 5000);
+            if (budget <= 0) {
+                return;
+            }
+            CompletableFuture<Void> expired = new CompletableFuture<>();
+            budgetExpired.set(expired);
+            Map<String, Object> policy = new HashMap<>();
+            policy.put("policy", "pauseIfNetworkFetchesPending");
+            policy.put("budget", budget);
+            DevToolsUtil.send(driver, "Emulation.setVirtualTimePolicy", policy);
+            try {
+                expired.get(TestDataManager.getIntProperty("acceleration.settle.timeout.ms", 3000), TimeUnit.MILLISECONDS);
+            } catch (Exception timedOut) {
+                // network still busy; stop pausing for it and let the normal waits take over
+            } finally {
+                // there is no policy for real time: "advance" keeps virtual time running and skips idle gaps
+                DevToolsUtil.send(driver, "Emulation.setVirtualTimePolicy", Collections.singletonMap("policy", "advance"));
+            }
+        } catch (Exception e) {
+            System.err.println("Could not accelerate page: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package utils;
+
+import com.aventstack.extentreports.markuputils.MarkupHelper;
+import org.openqa.selenium.WebDriver;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// BrowserLogCapture: streams browser console and network events into a bounded buffer
+// Events arrive on the DevTools connection thread, so passing tests pay nothing beyond
+// a ring-buffer write; the buffer is only rendered into the report when a test fails
+public class BrowserLogCapture {
+    
+    private static final Map<WebDriver, BrowserLogCapture> CAPTURES = new ConcurrentHashMap<>();
+    
+    private final String[] entries;
+    private int next;
+    private int size;
+    private long dropped;
+    
+    private BrowserLogCapture(int capacity) {
+        this.entries = new String[Math.max(1, capacity)];
+    }
+    
+    /**
+     Checks if capture is turned on in config
+     @return True if browser.logs.enabled is set
+     */
+    public static boolean isEnabled() {
+        return TestDataManager.getBooleanProperty("browser.logs.enabled", false);
+    }
+    
+    /**
+     Subscribes to console, log and network events of a driver. Does nothing for
+     browsers without DevTools support.
+     @param driver WebDriver instance
+     */
+    public static void attach(WebDriver driver) {
+        if (!DevToolsUtil.isSupported(driver) || CAPTURES.containsKey(driver)) {
+            return;
+        }
+        try {
+            BrowserLogCapture capture = new BrowserLogCapture(TestDataManager.getIntProperty("browser.logs.buffer.size", 500));
+            
+            DevToolsUtil.send(driver, "Runtime.enable");
+            DevToolsUtil.addListener(driver, "Runtime.consoleAPICalled", capture::onConsole);
+            DevToolsUtil.addListener(driver, "Runtime.exceptionThrown", capture::onException);
+            DevToolsUtil.send(driver, "Log.enable");
+            DevToolsUtil.addListener(driver, "Log.entryAdded", capture::onLogEntry);
+            if (TestDataManager.getBooleanProperty("browser.logs.network", true)) {
+                DevToolsUtil.send(driver, "Network.enable");
+                DevToolsUtil.addListener(driver, "Network.responseReceived", capture::onResponse);
+                DevToolsUtil.addListener(driver, "Network.loadingFailed", capture::onLoadingFailed);
+            }
+            CAPTURES.put(driver, capture);
+        } catch (Exception e) {
+            System.err.println("Browser log capture unavailable: " + e.getMessage());
+        }
+    }
+    
+    /**
+     Stops tracking a driver (call before quitting it)
+     @param driver WebDriver instance
+     */
+    public static void detach(WebDriver driver) {
+        if (driver != null) {
+            CAPTURES.remove(driver);
+        }
+    }
+    
+    /**
+     Clears the buffer so the next report attachment only covers the current test
+     @param driver Driver of the starting test, or null for all drivers
+     */
+    public static void startTest(WebDriver driver) {
+        for (BrowserLogCapture capture : select(driver)) {
+            capture.clear();
+        }
+    }
+    
+    /**
+     Adds the buffered console and network entries to the current report test.
+     Called on failure, or explicitly by a test that wants the evidence.
+     @param driver Driver of the current test, or null for all drivers
+     */
+    public static void attachToReport(WebDriver driver) {
+        for (BrowserLogCapture capture : select(driver)) {
+            List<String> lines = capture.snapshot();
+            if (lines.isEmpty()) {
+                continue;
+            }
+            StringBuilder text = new StringBuilder();
+            for (String line : lines) {
+                text.append(line).append('\n');
+            }
+            if (ReportManager.getCurrentTest() != null) {
+                ReportManager.getCurrentTest().info("Browser console and network log");
+                ReportManager.getCurrentTest().info(MarkupHelper.createCodeBlock(text.toString()));
+            }
+        }
+    }
+    
+    private static Collection<BrowserLogCapture> select(WebDriver driver) {
+        if (driver == null) {
+            return CAPTURES.values();
+        }
+        BrowserLogCapture capture = CAPTURES.get(driver);
+        return capture == null ? Collections.emptyList() : Collections.singletonList(capture);
+    }
+    
+    private void onConsole(Map<String, Object> params) {
+        StringBuilder text = new StringBuilder();
+        Object args = params.get("args");
+        if (args instanceof List) {
+            for (Object arg : (List<?>) args) {
+                if (arg instanceof Map) {
+                    Map<?, ?> remoteObject = (Map<?, ?>) arg;
+                    Object value = remoteObject.containsKey("value") ? remoteObject.get("value") : remoteObject.get("description");
+                    text.append(value).append(' ');
+                }
+            }
+        }
+        add("CONSOLE " + String.valueOf(params.get("type")).toUpperCase() + " " + text.toString().trim());
+    }
+    
+    private void onException(Map<String, Object> params) {
+        Object details = params.get("exceptionDetails");
+        if (details instanceof Map) {
+            Object exception = ((Map<?, ?>) details).get("exception");
+            Object description = exception instanceof Map ? ((Map<?, ?>) exception).get("description") : ((Map<?, ?>) details).get("text");
+            add("EXCEPTION " + description);
+        }
+    }
+    
+    private void onLogEntry(Map<String, Object> params) {
+        Object entry = params.get("entry");
+        if (entry instanceof Map) {
+            Map<?, ?> logEntry = (Map<?, ?>) entry;
+            add("LOG " + String.valueOf(logEntry.get("level")).toUpperCase() + " " + logEntry.get("text")
+                + (logEntry.get("url") != null ? " (" + logEntry.get("url") + ")" : ""));
+        }
+    }
+    
+    private void onResponse(Map<String, Object> params) {
+        Object response = params.get("response");
+        if (response instanceof Map) {
+            Map<?, ?> res = (Map<?, ?>) response;
+            add("NETWORK " + res.get("status") + " " + params.get("type") + " " + res.get("url"));
+        }
+    }
+    
+    private void onLoadingFailed(Map<String, Object> params) {
+        add("NETWORK FAILED " + params.get("type") + " " + params.get("errorText")
+            + (Boolean.TRUE.equals(params.get("canceled")) ? " (canceled)" : ""));
+    }
+    
+    private synchronized void add(String entry) {
+        String line = new SimpleDateFormat("HH:mm:ss.SSS").format(new Date()) + " " + entry;
+        if (size == entries.length) {
+            dropped++;
+        } else {
+            size++;
+        }
+        entries[next] = line;
+        next = (next + 1) % entries.length;
+    }
+    
+    private synchronized void clear() {
+        Arrays.fill(entries, null);
+        next = 0;
+        size = 0;
+        dropped = 0;
+    }
+    
+    private synchronized List<String> snapshot() {
+        if (size == 0) {
+            return Collections.emptyList();
+        }
+        List<String> lines = new ArrayList<>(size + 1);
+        if (dropped > 0) {
+            lines.add("... " + dropped + " earlier entries dropped");
+        }
+        int start = (next - size + entries.length) % entries.length;
+        for (int i = 0; i < size; i++) {
+            lines.add(entries[(start + i) % entries.length]);
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,229 @@
+package utils;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+// BrowserProfileCache: a warm Chromium user-data directory (HTTP disk cache included) reused across runs
+// A template profile per browser is warmed once by loading the app, then every driver gets its own
+// copy of it, since Chrome locks a user-data directory to one process. A copy is deleted when its
+// driver quits (release), or at JVM exit for drivers that never did; the template is re-warmed when
+// it gets older than cache.profile.max.age.hours. Copying holds a read lock and warming the write
+// lock, so a template is never deleted or re-warmed while another worker copies it.
+public class BrowserProfileCache {
+
+    private static final String WARMED_MARKER = ".warmed";
+    private static final ReadWriteLock TEMPLATE_LOCK = new ReentrantReadWriteLock();
+    // Copies not deleted yet; those with a driver are also in DRIVER_COPIES
+    private static final Set<Path> COPIES = ConcurrentHashMap.newKeySet();
+    private static final Map<WebDriver, Path> DRIVER_COPIES = new ConcurrentHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            for (Path copy : COPIES) {
+                delete(copy);
+            }
+        }, "profile-cache-cleanup"));
+    }
+
+    /**
+     Checks if the warm profile is turned on in config
+     @return True if cache.profile.enabled is set
+     */
+    public static boolean isEnabled() {
+        return TestDataManager.getBooleanProperty("cache.profile.enabled", false);
+    }
+
+    /**
+     Gets a private copy of the warm profile for one driver, warming the template first if needed
+     @param browserName Browser the profile is for (chrome, edge)
+     @param launcher Starts a browser on the given user-data directory; used once to warm the template
+     @return Directory to pass as --user-data-dir
+     */
+    public static Path checkout(String browserName, Function<Path, WebDriver> launcher) {
+        Path template = getTemplateDir(browserName);
+        TEMPLATE_LOCK.readLock().lock();
+        try {
+            if (!isWarm(template)) {
+                // a read lock cannot be upgraded: re-check under the write lock, then downgrade
+                TEMPLATE_LOCK.readLock().unlock();
+                TEMPLATE_LOCK.writeLock().lock();
+                try {
+                    if (!isWarm(template)) {
+                        warm(template, launcher);
+                    }
+                } finally {
+                    TEMPLATE_LOCK.readLock().lock();
+                    TEMPLATE_LOCK.writeLock().unlock();
+                }
+            }
+            Path copy = Files.createTempDirectory(browserName + "-profile-");
+            COPIES.add(copy);
+            copyProfile(template, copy);
+            return copy;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not copy browser profile " + template, e);
+        } finally {
+            TEMPLATE_LOCK.readLock().unlock();
+        }
+    }
+
+    /**
+     Ties a profile copy to the driver started on it, so release() can delete it
+     @param driver Driver running on the copy
+     @param copy Directory returned by checkout()
+     */
+    public static void assign(WebDriver driver, Path copy) {
+        DRIVER_COPIES.put(driver, copy);
+    }
+
+    /**
+     Deletes the profile copy of a driver (call after quitting it); does nothing for other drivers
+     @param driver WebDriver instance
+     */
+    public static void release(WebDriver driver) {
+        Path copy = driver == null ? null : DRIVER_COPIES.remove(driver);
+        if (copy != null) {
+            discard(copy);
+        }
+    }
+
+    /**
+     Deletes a profile copy no driver could be started on
+     @param copy Directory returned by checkout()
+     */
+    public static void discard(Path copy) {
+        if (COPIES.remove(copy)) {
+            delete(copy);
+        }
+    }
+
+    // Template location: cache.profile.dir, by default outside the project so mvn clean keeps it
+    private static Path getTemplateDir(String browserName) {
+        String configured = TestDataManager.getProperty("cache.profile.dir", "");
+        Path root = configured.isEmpty()
+            ? Paths.get(System.getProperty("user.home"), ".cache", "uniblox-automation", "browser-profiles")
+            : Paths.get(configured);
+        return root.resolve(browserName.toLowerCase());
+    }
+
+    private static boolean isWarm(Path template) {
+        Path marker = template.resolve(WARMED_MARKER);
+        if (!Files.exists(marker)) {
+            return false;
+        }
+        try {
+            long ageMillis = System.currentTimeMillis() - Files.getLastModifiedTime(marker).toMillis();
+            return ageMillis < TestDataManager.getIntProperty("cache.profile.max.age.hours", 24) * 3_600_000L;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // Loads the app (and any cache.profile.warm.urls) in a browser running on the template,
+    // then quits it cleanly so the disk cache is flushed
+    private static void warm(Path template, Function<Path, WebDriver> launcher) {
+        delete(template);
+        System.out.println("Warming browser profile " + template);
+        List<String> urls = new ArrayList<>();
+        urls.add(TestDataManager.getAppUrl());
+        for (String url : TestDataManager.getProperty("cache.profile.warm.urls", "").split(",")) {
+            if (!url.trim().isEmpty()) {
+                urls.add(url.trim());
+            }
+        }
+
+        WebDriver driver = null;
+        try {
+            Files.createDirectories(template);
+            driver = launcher.apply(template);
+            for (String url : urls) {
+                driver.get(url);
+                new WebDriverWait(driver, Duration.ofSeconds(TestDataManager.getTimeout())).until(d ->
+                    "complete".equals(ScriptLibrary.execute(d, ScriptLibrary.READY_STATE)));
+            }
+            ScriptLibrary.detach(driver);
+            driver.quit();
+            driver = null;
+            Files.write(template.resolve(WARMED_MARKER), String.join("\n", urls).getBytes());
+        } catch (Exception e) {
+            System.err.println("Could not warm browser profile, continuing with a cold one: " + e.getMessage());
+        } finally {
+            if (driver != null) {
+                ScriptLibrary.detach(driver);
+                try {
+                    driver.quit();
+                } catch (Exception ignored) {}
+            }
+        }
+    }
+
+    // Copies the profile without the singleton lock files of the process that last used it
+    private static void copyProfile(Path source, Path target) throws IOException {
+        if (!Files.isDirectory(source)) {
+            return;
+        }
+        Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(target.resolve(source.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                String name = file.getFileName().toString();
+                if (!name.startsWith("Singleton") && !name.equals("lockfile") && !name.equals(WARMED_MARKER) && attrs.isRegularFile()) {
+                    Files.copy(file, target.resolve(source.relativize(file).toString()), StandardCopyOption.REPLACE_EXISTING);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                // files still held by a running browser are not needed for the cache
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static void delete(Path dir) {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try {
+            Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    Files.deleteIfExists(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path directory, IOException e) throws IOException {
+                    Files.deleteIfExists(directory);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("Could not delete browser profile " + dir + ": " + e.getMessage());
+        }
+    }
+}
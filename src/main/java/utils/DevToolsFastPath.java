@@ -0,0 +1,129 @@
+package utils;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.json.Json;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// DevToolsFastPath: issues hot element operations straight over the DevTools WebSocket
+// A WebDriver command goes test -> chromedriver (HTTP) -> Chrome (CDP); these helpers skip
+// the chromedriver hop by evaluating small scripts with Runtime.evaluate and clicking with
+// Input.dispatchMouseEvent. Every method returns null when it cannot answer (no DevTools,
+// element not found, script error) so callers fall back to the classic WebDriver command.
+public class DevToolsFastPath {
+    
+    private static final Json JSON = new Json();
+    
+    private static final String VISIBLE_FUNCTION =
+        "function v(e) { if (!e) return false; var s = getComputedStyle(e);"
+        + " return e.getClientRects().length > 0 && s.visibility !== 'hidden' && s.display !== 'none' && s.opacity !== '0'; }";
+    
+    /**
+     Checks if the fast path is turned on and usable for the driver
+     @param driver WebDriver instance
+     @return True for DevTools-capable sessions with devtools.fastpath.enabled set
+     */
+    public static boolean isAvailable(WebDriver driver) {
+        return DevToolsUtil.isSupported(driver) && TestDataManager.getBooleanProperty("devtools.fastpath.enabled", false);
+    }
+    
+    /**
+     Checks if the first element matching a selector is visible
+     @param driver WebDriver instance
+     @param cssSelector CSS selector of the element
+     @return True/false, or null if the fast path could not answer
+     */
+    public static Boolean isVisible(WebDriver driver, String cssSelector) {
+        Object value = evaluate(driver, "(function() { " + VISIBLE_FUNCTION
+            + " return v(document.querySelector(" + JSON.toJson(cssSelector) + ")); })()");
+        return value instanceof Boolean ? (Boolean) value : null;
+    }
+    
+    /**
+     Reads the rendered text of the first visible element matching a selector
+     @param driver WebDriver instance
+     @param cssSelector CSS selector of the element
+     @return Text, or null if the element is missing or hidden
+     */
+    public static String getText(WebDriver driver, String cssSelector) {
+        Object value = evaluate(driver, "(function() { " + VISIBLE_FUNCTION
+            + " var e = document.querySelector(" + JSON.toJson(cssSelector) + ");"
+            + " return v(e) ? e.innerText.trim() : null; })()");
+        return value instanceof String ? (String) value : null;
+    }
+    
+    /**
+     Sets the value of an input or textarea and fires input/change events
+     @param driver WebDriver instance
+     @param cssSelector CSS selector of the element
+     @param text Value to set
+     @return True if set, null if the fast path could not do it
+     */
+    public static Boolean setValue(WebDriver driver, String cssSelector, String text) {
+        Object value = evaluate(driver, "(function() { " + VISIBLE_FUNCTION
+            + " var e = document.querySelector(" + JSON.toJson(cssSelector) + ");"
+            + " if (!v(e) || e.disabled || e.readOnly) return null; e.focus();"
+            + " Object.getOwnPropertyDescriptor(Object.getPrototypeOf(e), 'value').set.call(e, " + JSON.toJson(text) + ");"
+            + " e.dispatchEvent(new Event('input', {bubbles: true}));"
+            + " e.dispatchEvent(new Event('change', {bubbles: true})); return true; })()");
+        return Boolean.TRUE.equals(value) ? Boolean.TRUE : null;
+    }
+    
+    /**
+     Clicks the centre of the first visible, enabled element matching a selector with real
+     mouse events, like a WebDriver click
+     @param driver WebDriver instance
+     @param cssSelector CSS selector of the element
+     @return True if clicked, null if the fast path could not do it
+     */
+    public static Boolean click(WebDriver driver, String cssSelector) {
+        Object point = evaluate(driver, "(function() { " + VISIBLE_FUNCTION
+            + " var e = document.querySelector(" + JSON.toJson(cssSelector) + ");"
+            + " if (!v(e) || e.disabled) return null; e.scrollIntoView({block: 'center', inline: 'center'});"
+            + " var r = e.getBoundingClientRect(); var x = r.left + r.width / 2, y = r.top + r.height / 2;"
+            + " var hit = document.elementFromPoint(x, y);"
+            + " if (hit !== e && !e.contains(hit)) return null; return {x: x, y: y}; })()");
+        if (!(point instanceof Map)) {
+            return null;
+        }
+        try {
+            Map<?, ?> xy = (Map<?, ?>) point;
+            dispatchMouse(driver, "mouseMoved", xy);
+            dispatchMouse(driver, "mousePressed", xy);
+            dispatchMouse(driver, "mouseReleased", xy);
+            return Boolean.TRUE;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+    
+    private static void dispatchMouse(WebDriver driver, String type, Map<?, ?> xy) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("type", type);
+        params.put("x", xy.get("x"));
+        params.put("y", xy.get("y"));
+        if (!"mouseMoved".equals(type)) {
+            params.put("button", "left");
+            params.put("clickCount", 1);
+        }
+        DevToolsUtil.send(driver, "Input.dispatchMouseEvent", params);
+    }
+    
+    // Evaluate an expression in the page and return its value, or null on any error
+    private static Object evaluate(WebDriver driver, String expression) {
+        try {
+            Map<String, Object> params = new HashMap<>();
+            params.put("expression", expression);
+            params.put("returnByValue", true);
+            Map<String, Object> response = DevToolsUtil.send(driver, "Runtime.evaluate", params);
+            if (response.get("exceptionDetails") != null) {
+                return null;
+            }
+            Object result = response.get("result");
+            return result instanceof Map ? ((Map<?, ?>) result).get("value") : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package utils;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// DevToolsUtil: thin, version-independent access to the Chrome DevTools Protocol
+// Sends raw CDP commands and listens to raw CDP events as plain maps, so we are
+// not tied to one of the versioned selenium-devtools-vNNN packages
+public class DevToolsUtil {
+    
+    /**
+     Checks if the driver exposes a DevTools connection (Chrome and Edge)
+     @param driver WebDriver instance
+     @return True if CDP commands can be sent to this driver
+     */
+    public static boolean isSupported(WebDriver driver) {
+        return driver instanceof HasDevTools;
+    }
+    
+    /**
+     Gets the DevTools connection for a driver, opening a CDP session on first use
+     @param driver WebDriver instance (must support DevTools)
+     @return DevTools instance with an attached session
+     */
+    public static DevTools getSession(WebDriver driver) {
+        DevTools devTools = ((HasDevTools) driver).getDevTools();
+        devTools.createSessionIfThereIsNotOne();
+        return devTools;
+    }
+    
+    /**
+     Sends a CDP command without parameters
+     @param driver WebDriver instance
+     @param method CDP method, e.g. "Network.enable"
+     @return Command result as a map
+     */
+    public static Map<String, Object> send(WebDriver driver, String method) {
+        return send(driver, method, Collections.emptyMap());
+    }
+    
+    /**
+     Sends a CDP command and waits for its result
+     @param driver WebDriver instance
+     @param method CDP method, e.g. "Page.navigate"
+     @param params Command parameters
+     @return Command result as a map
+     */
+    public static Map<String, Object> send(WebDriver driver, String method, Map<String, Object> params) {
+        return getSession(driver).send(new Command<Map<String, Object>>(method, params, Json.MAP_TYPE));
+    }
+    
+    /**
+     Registers a listener for a CDP event. Listeners run on the DevTools connection
+     thread, never on the test thread, so they must be quick and thread-safe.
+     @param driver WebDriver instance
+     @param eventName CDP event, e.g. "Runtime.consoleAPICalled"
+     @param listener Callback receiving the event parameters
+     */
+    public static void addListener(WebDriver driver, String eventName, Consumer<Map<String, Object>> listener) {
+        Event<Map<String, Object>> event = new Event<>(eventName, input -> input.read(Json.MAP_TYPE));
+        getSession(driver).addListener(event, listener);
+    }
+}
@@ -0,0 +1,167 @@
+package utils;
+
+import load.TrafficRecorder;
+import org.openqa.selenium.WebDriver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// DriverPool: a bounded pool of browser sessions that are reused between users of the pool
+// Browsers are created lazily through WebDriverManagerUtil, up to the pool size; borrowers
+// block when every browser is in use
+public class DriverPool implements AutoCloseable {
+    
+    // Pools registered for tests to borrow from, by browser name
+    private static final Map<String, DriverPool> REGISTERED = new ConcurrentHashMap<>();
+    
+    private final String browserName;
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<WebDriver> idle = new LinkedBlockingDeque<>();
+    private final List<WebDriver> all = new ArrayList<>();
+    private volatile boolean closed;
+    
+    /**
+     Creates an empty pool
+     @param browserName Browser to create (chrome, firefox, edge)
+     @param maxSize Maximum number of browsers alive at once
+     */
+    public DriverPool(String browserName, int maxSize) {
+        this.browserName = browserName;
+        this.permits = new Semaphore(maxSize, true);
+    }
+    
+    /**
+     Makes a pool available to tests (BaseTest borrows from it instead of creating a driver)
+     @param pool Pool to register under its browser name
+     */
+    public static void register(DriverPool pool) {
+        REGISTERED.put(pool.getBrowserName().toLowerCase(), pool);
+    }
+    
+    /**
+     Gets the registered pool for a browser
+     @param browserName Browser name
+     @return Registered pool, or null if tests should create their own driver
+     */
+    public static DriverPool forBrowser(String browserName) {
+        return browserName == null ? null : REGISTERED.get(browserName.toLowerCase());
+    }
+    
+    /**
+     Takes a browser from the pool, starting a new one if none is idle
+     @return WebDriver that must be given back with release()
+     @throws InterruptedException if interrupted while waiting for a free browser
+     */
+    public WebDriver borrow() throws InterruptedException {
+        return borrow(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     Takes a browser from the pool, waiting at most the given time for one to become free
+     @param timeout Maximum time to wait
+     @param unit Unit of the timeout
+     @return WebDriver, or null if none became free in time
+     @throws InterruptedException if interrupted while waiting
+     */
+    public WebDriver borrow(long timeout, TimeUnit unit) throws InterruptedException {
+        if (closed) {
+            throw new IllegalStateException("Driver pool is closed");
+        }
+        if (!permits.tryAcquire(timeout, unit)) {
+            return null;
+        }
+        WebDriver driver = idle.pollFirst();
+        if (driver != null) {
+            return driver;
+        }
+        try {
+            driver = WebDriverManagerUtil.createDriver(browserName);
+            synchronized (all) {
+                all.add(driver);
+            }
+            return driver;
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+    
+    /**
+     Gives a browser back to the pool
+     @param driver WebDriver obtained from borrow()
+     */
+    public void release(WebDriver driver) {
+        if (driver == null) {
+            return;
+        }
+        if (closed) {
+            quit(driver);
+        } else {
+            idle.offerFirst(driver);
+        }
+        permits.release();
+    }
+    
+    /**
+     Quits a broken browser instead of returning it, freeing its slot for a new one
+     @param driver WebDriver obtained from borrow()
+     */
+    public void discard(WebDriver driver) {
+        if (driver == null) {
+            return;
+        }
+        synchronized (all) {
+            all.remove(driver);
+        }
+        quit(driver);
+        permits.release();
+    }
+    
+    /**
+     Gets the browser name this pool creates
+     @return Browser name
+     */
+    public String getBrowserName() {
+        return browserName;
+    }
+    
+    /**
+     Quits every browser created by the pool
+     */
+    @Override
+    public void close() {
+        closed = true;
+        REGISTERED.remove(browserName.toLowerCase(), this);
+        List<WebDriver> drivers;
+        synchronized (all) {
+            drivers = new ArrayList<>(all);
+            all.clear();
+        }
+        idle.clear();
+        for (WebDriver driver : drivers) {
+            quit(driver);
+        }
+    }
+    
+    private static void quit(WebDriver driver) {
+        try {
+            BrowserLogCapture.detach(driver);
+            ScreencastRecorder.detach(driver);
+            MemoryTelemetry.detach(driver);
+            NavigationCacheStats.detach(driver);
+            AnimationAccelerator.detach(driver);
+            ScriptLibrary.detach(driver);
+            TrafficRecorder.detach(driver);
+            driver.quit();
+        } catch (Exception ignored) {
+            // browser already gone
+        } finally {
+            BrowserProfileCache.release(driver);
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// LiveMetrics: a local HTTP endpoint showing the run while it is still going
+// GET /metrics returns counters and latency histograms in Prometheus text format, GET /events is a
+// Server-Sent-Events stream of test start/finish events. Test threads only touch LongAdders and
+// lock-free queues; formatting and socket writes happen on the server's own threads.
+public class LiveMetrics {
+
+    private static final double[] TEST_BUCKETS = {0.5, 1, 2, 5, 10, 30, 60, 120, 300};
+    private static final double[] ACTION_BUCKETS = {0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+    private static final int MAX_QUEUED_EVENTS = 10_000;
+
+    private static final LongAdder STARTED = new LongAdder();
+    private static final LongAdder IN_PROGRESS = new LongAdder();
+    private static final Map<String, LongAdder> FINISHED = new ConcurrentHashMap<>();
+    private static final Histogram TEST_DURATIONS = new Histogram(TEST_BUCKETS);
+    private static final Map<String, Histogram> ACTION_DURATIONS = new ConcurrentHashMap<>();
+    private static final List<Subscriber> SUBSCRIBERS = new CopyOnWriteArrayList<>();
+
+    private static volatile HttpServer server;
+
+    // Cumulative histogram with fixed upper bounds in seconds
+    static class Histogram {
+        private final double[] bounds;
+        private final LongAdder[] counts;
+        private final LongAdder sumNanos = new LongAdder();
+        private final LongAdder count = new LongAdder();
+
+        Histogram(double[] bounds) {
+            this.bounds = bounds;
+            this.counts = new LongAdder[bounds.length];
+            for (int i = 0; i < bounds.length; i++) {
+                counts[i] = new LongAdder();
+            }
+        }
+
+        void observe(long nanos) {
+            double seconds = nanos / 1e9;
+            for (int i = 0; i < bounds.length; i++) {
+                if (seconds <= bounds[i]) {
+                    counts[i].increment();
+                    break;
+                }
+            }
+            sumNanos.add(nanos);
+            count.increment();
+        }
+
+        void write(StringBuilder out, String name, String labels) {
+            String prefix = labels.isEmpty() ? "" : labels + ",";
+            long cumulative = 0;
+            for (int i = 0; i < bounds.length; i++) {
+                cumulative += counts[i].sum();
+                out.append(name).append("_bucket{").append(prefix).append("le=\"").append(bounds[i]).append("\"} ").append(cumulative).append('\n');
+            }
+            String braces = labels.isEmpty() ? "" : "{" + labels + "}";
+            out.append(name).append("_bucket{").append(prefix).append("le=\"+Inf\"} ").append(count.sum()).append('\n');
+            out.append(name).append("_sum").append(braces).append(' ').append(sumNanos.sum() / 1e9).append('\n');
+            out.append(name).append("_count").append(braces).append(' ').append(count.sum()).append('\n');
+        }
+    }
+
+    // One open /events connection with its pending events
+    private static class Subscriber {
+        private final Queue<String> events = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private volatile Thread writer;
+
+        void offer(String event) {
+            if (size.incrementAndGet() > MAX_QUEUED_EVENTS) {
+                size.decrementAndGet(); // slow client - drop rather than grow without bound
+                return;
+            }
+            events.offer(event);
+            Thread thread = writer;
+            if (thread != null) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        String poll() {
+            String event = events.poll();
+            if (event != null) {
+                size.decrementAndGet();
+            }
+            return event;
+        }
+    }
+
+    /**
+     Checks if the live endpoint is turned on in config
+     @return True if metrics.server.enabled is set
+     */
+    public static boolean isEnabled() {
+        return TestDataManager.getBooleanProperty("metrics.server.enabled", false);
+    }
+
+    /**
+     Starts the endpoint on 127.0.0.1:metrics.server.port (does nothing if already running)
+     */
+    public static synchronized void start() {
+        if (server != null) {
+            return;
+        }
+        try {
+            HttpServer httpServer = HttpServer.create(new InetSocketAddress("127.0.0.1", TestDataManager.getIntProperty("metrics.server.port", 9464)), 0);
+            httpServer.createContext("/metrics", LiveMetrics::handleMetrics);
+            httpServer.createContext("/events", LiveMetrics::handleEvents);
+            httpServer.setExecutor(Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "live-metrics");
+                thread.setDaemon(true);
+                return thread;
+            }));
+            httpServer.start();
+            server = httpServer;
+            System.out.println("Live metrics on http://127.0.0.1:" + httpServer.getAddress().getPort() + "/metrics and /events");
+        } catch (IOException e) {
+            System.err.println("Could not start live metrics endpoint: " + e.getMessage());
+        }
+    }
+
+    /**
+     Sends a final event to /events subscribers and stops the endpoint
+     */
+    public static synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        publish("suite-finished", "{}");
+        // Give stream writers a moment to flush the last events
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(500));
+        server.stop(0);
+        server = null;
+    }
+
+    /**
+     Gets the port the endpoint listens on
+     @return Port, or -1 if not running
+     */
+    public static int getPort() {
+        HttpServer running = server;
+        return running == null ? -1 : running.getAddress().getPort();
+    }
+
+    /**
+     Counts a started test and announces it on /events
+     @param testName Name of the test
+     */
+    public static void testStarted(String testName) {
+        STARTED.increment();
+        IN_PROGRESS.increment();
+        publish("test-started", "{\"test\":\"" + escape(testName) + "\",\"thread\":\"" + escape(Thread.currentThread().getName()) + "\"}");
+    }
+
+    /**
+     Counts a finished test, records its duration and announces it on /events
+     @param testName Name of the test
+     @param status PASS, FAIL or SKIP
+     @param durationMs Test duration in milliseconds
+     */
+    public static void testFinished(String testName, String status, long durationMs) {
+        IN_PROGRESS.decrement();
+        FINISHED.computeIfAbsent(status.toLowerCase(), k -> new LongAdder()).increment();
+        TEST_DURATIONS.observe(TimeUnit.MILLISECONDS.toNanos(durationMs));
+        publish("test-finished", "{\"test\":\"" + escape(testName) + "\",\"status\":\"" + status + "\",\"durationMs\":" + durationMs + "}");
+    }
+
+    /**
+     Records one page-object action for the action latency histogram (no-op unless running)
+     @param action Action name, e.g. "click"
+     @param nanos Elapsed time in nanoseconds
+     */
+    public static void observeAction(String action, long nanos) {
+        if (server != null) {
+            ACTION_DURATIONS.computeIfAbsent(action, k -> new Histogram(ACTION_BUCKETS)).observe(nanos);
+        }
+    }
+
+    private static void publish(String type, String json) {
+        if (SUBSCRIBERS.isEmpty()) {
+            return;
+        }
+        String event = "event: " + type + "\ndata: " + json + "\n\n";
+        for (Subscriber subscriber : SUBSCRIBERS) {
+            subscriber.offer(event);
+        }
+    }
+
+    /**
+     Renders all counters and histograms in Prometheus text exposition format
+     @return Metrics text
+     */
+    public static String toPrometheusText() {
+        StringBuilder out = new StringBuilder();
+        out.append("# HELP uniblox_tests_started_total Tests started in this run\n");
+        out.append("# TYPE uniblox_tests_started_total counter\n");
+        out.append("uniblox_tests_started_total ").append(STARTED.sum()).append('\n');
+        out.append("# HELP uniblox_tests_in_progress Tests currently running\n");
+        out.append("# TYPE uniblox_tests_in_progress gauge\n");
+        out.append("uniblox_tests_in_progress ").append(Math.max(0, IN_PROGRESS.sum())).append('\n');
+        out.append("# HELP uniblox_tests_finished_total Tests finished in this run by status\n");
+        out.append("# TYPE uniblox_tests_finished_total counter\n");
+        for (Map.Entry<String, LongAdder> entry : FINISHED.entrySet()) {
+            out.append("uniblox_tests_finished_total{status=\"").append(entry.getKey()).append("\"} ").append(entry.getValue().sum()).append('\n');
+        }
+        out.append("# HELP uniblox_test_duration_seconds Test method duration\n");
+        out.append("# TYPE uniblox_test_duration_seconds histogram\n");
+        TEST_DURATIONS.write(out, "uniblox_test_duration_seconds", "");
+        out.append("# HELP uniblox_action_duration_seconds Page-object action duration\n");
+        out.append("# TYPE uniblox_action_duration_seconds histogram\n");
+        for (Map.Entry<String, Histogram> entry : ACTION_DURATIONS.entrySet()) {
+            entry.getValue().write(out, "uniblox_action_duration_seconds", "action=\"" + escape(entry.getKey()) + "\"");
+        }
+        return out.toString();
+    }
+
+    private static void handleMetrics(HttpExchange exchange) throws IOException {
+        byte[] body = toPrometheusText().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    // Keeps the connection open and writes queued events until the client leaves or the server stops
+    private static void handleEvents(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0);
+        Subscriber subscriber = new Subscriber();
+        subscriber.writer = Thread.currentThread();
+        SUBSCRIBERS.add(subscriber);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write((": started " + STARTED.sum() + ", in progress " + IN_PROGRESS.sum() + "\n\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            long lastWrite = System.nanoTime();
+            while (server != null) {
+                String event = subscriber.poll();
+                if (event != null) {
+                    out.write(event.getBytes(StandardCharsets.UTF_8));
+                    if (subscriber.events.isEmpty()) {
+                        out.flush();
+                    }
+                    lastWrite = System.nanoTime();
+                } else if (System.nanoTime() - lastWrite > TimeUnit.SECONDS.toNanos(15)) {
+                    // comment line as keep-alive; also detects clients that went away
+                    out.write(": keep-alive\n\n".getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                    lastWrite = System.nanoTime();
+                } else {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(250));
+                }
+            }
+            // drain what was published before the stop
+            for (String event = subscriber.poll(); event != null; event = subscriber.poll()) {
+                out.write(event.getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            // client disconnected
+        } finally {
+            SUBSCRIBERS.remove(subscriber);
+        }
+    }
+
+    private static String escape(String text) {
+        return text.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", " ");
+    }
+}
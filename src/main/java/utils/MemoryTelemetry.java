@@ -0,0 +1,269 @@
+package utils;
+
+import com.aventstack.extentreports.markuputils.MarkupHelper;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// MemoryTelemetry: samples browser memory before and after each test to catch page-side leaks
+// Process memory is the summed VmRSS (/proc/<pid>/status) of the browser process found by its
+// debugging port or profile directory, plus its child processes. JS heap, DOM node and listener
+// counts come from DevTools Performance.getMetrics (Chrome/Edge), or performance.memory as a
+// fallback. Growth per test and since the driver started is compared with the memory.* limits.
+public class MemoryTelemetry {
+
+    private static final Path PROC = Paths.get("/proc");
+    private static final double MB = 1024.0 * 1024.0;
+    private static final ScriptLibrary.Script JS_HEAP_SCRIPT = ScriptLibrary.register("jsHeapUsed",
+        "return window.performance && performance.memory ? performance.memory.usedJSHeapSize : null");
+
+    // Per driver: the first reading (baseline), the reading at test start and the browser pid
+    private static final Map<WebDriver, DriverMemory> DRIVERS = new ConcurrentHashMap<>();
+
+    // One memory reading; values are -1 when unavailable for this browser
+    public static class Reading {
+        private final double rssMb;
+        private final double jsHeapUsedMb;
+        private final long domNodes;
+        private final long jsEventListeners;
+
+        Reading(double rssMb, double jsHeapUsedMb, long domNodes, long jsEventListeners) {
+            this.rssMb = rssMb;
+            this.jsHeapUsedMb = jsHeapUsedMb;
+            this.domNodes = domNodes;
+            this.jsEventListeners = jsEventListeners;
+        }
+
+        public double getRssMb() {
+            return rssMb;
+        }
+
+        public double getJsHeapUsedMb() {
+            return jsHeapUsedMb;
+        }
+
+        public long getDomNodes() {
+            return domNodes;
+        }
+
+        public long getJsEventListeners() {
+            return jsEventListeners;
+        }
+    }
+
+    private static class DriverMemory {
+        private long browserPid = -1;
+        private Reading baseline;
+        private Reading testStart;
+        private boolean recycle;
+    }
+
+    /**
+     Checks if memory telemetry is turned on in config
+     @return True if memory.telemetry.enabled is set
+     */
+    public static boolean isEnabled() {
+        return TestDataManager.getBooleanProperty("memory.telemetry.enabled", false);
+    }
+
+    /**
+     Takes the reading a test's growth is measured from
+     @param driver Driver of the starting test
+     */
+    public static void startTest(WebDriver driver) {
+        if (driver == null) {
+            return;
+        }
+        DriverMemory memory = DRIVERS.computeIfAbsent(driver, d -> new DriverMemory());
+        memory.testStart = read(driver, memory);
+        if (memory.baseline == null) {
+            memory.baseline = memory.testStart;
+        }
+    }
+
+    /**
+     Takes the reading after a test, adds before/after values to the current report test
+     and warns when the growth crosses memory.leak.* or the driver crosses memory.recycle.*
+     @param driver Driver of the finished test
+     @param testName Name of the test, for the console warning
+     */
+    public static void finishTest(WebDriver driver, String testName) {
+        DriverMemory memory = driver == null ? null : DRIVERS.get(driver);
+        if (memory == null || memory.testStart == null) {
+            return;
+        }
+        Reading before = memory.testStart;
+        Reading after = read(driver, memory);
+        memory.testStart = null;
+
+        String[][] table = {
+            {"", "Before", "After", "Growth", "Since driver start"},
+            row("Browser RSS (MB)", before.getRssMb(), after.getRssMb(), memory.baseline.getRssMb(), "%.1f"),
+            row("JS heap used (MB)", before.getJsHeapUsedMb(), after.getJsHeapUsedMb(), memory.baseline.getJsHeapUsedMb(), "%.1f"),
+            row("DOM nodes", before.getDomNodes(), after.getDomNodes(), memory.baseline.getDomNodes(), "%.0f"),
+            row("JS event listeners", before.getJsEventListeners(), after.getJsEventListeners(), memory.baseline.getJsEventListeners(), "%.0f")};
+        if (ReportManager.getCurrentTest() != null) {
+            ReportManager.getCurrentTest().info(MarkupHelper.createTable(table));
+        }
+
+        double rssGrowth = growth(before.getRssMb(), after.getRssMb());
+        double heapGrowth = growth(before.getJsHeapUsedMb(), after.getJsHeapUsedMb());
+        if (rssGrowth > TestDataManager.getIntProperty("memory.leak.rss.growth.mb", 100)
+                || heapGrowth > TestDataManager.getIntProperty("memory.leak.heap.growth.mb", 20)) {
+            String message = String.format("Possible memory leak: browser RSS +%.1f MB, JS heap +%.1f MB during this test", rssGrowth, heapGrowth);
+            ReportManager.logWarning(message);
+            System.err.println(testName + ": " + message);
+        }
+
+        int recycleRss = TestDataManager.getIntProperty("memory.recycle.rss.mb", 0);
+        int recycleHeap = TestDataManager.getIntProperty("memory.recycle.heap.mb", 0);
+        if ((recycleRss > 0 && after.getRssMb() > recycleRss) || (recycleHeap > 0 && after.getJsHeapUsedMb() > recycleHeap)) {
+            memory.recycle = true;
+            ReportManager.logWarning(String.format("Browser over memory limit (RSS %.0f MB, JS heap %.0f MB); driver will be recycled before the next test",
+                after.getRssMb(), after.getJsHeapUsedMb()));
+        }
+    }
+
+    /**
+     Checks if a driver crossed the memory.recycle.* limits and should be replaced
+     @param driver WebDriver instance
+     @return True if the driver should be quit and recreated before the next test
+     */
+    public static boolean shouldRecycle(WebDriver driver) {
+        DriverMemory memory = driver == null ? null : DRIVERS.get(driver);
+        return memory != null && memory.recycle;
+    }
+
+    /**
+     Stops tracking a driver (call before quitting it)
+     @param driver WebDriver instance
+     */
+    public static void detach(WebDriver driver) {
+        if (driver != null) {
+            DRIVERS.remove(driver);
+        }
+    }
+
+    /**
+     Reads browser RSS and JS heap metrics for a driver
+     @param driver WebDriver instance
+     @return Reading with -1 for values this browser does not expose
+     */
+    public static Reading read(WebDriver driver) {
+        return read(driver, DRIVERS.computeIfAbsent(driver, d -> new DriverMemory()));
+    }
+
+    private static Reading read(WebDriver driver, DriverMemory memory) {
+        double heapMb = -1;
+        long nodes = -1;
+        long listeners = -1;
+        if (DevToolsUtil.isSupported(driver)) {
+            try {
+                if (TestDataManager.getBooleanProperty("memory.gc.before.sample", true)) {
+                    // Only memory that survives a collection counts as growth
+                    DevToolsUtil.send(driver, "HeapProfiler.collectGarbage");
+                }
+                DevToolsUtil.send(driver, "Performance.enable");
+                Object metrics = DevToolsUtil.send(driver, "Performance.getMetrics").get("metrics");
+                if (metrics instanceof List) {
+                    for (Object metric : (List<?>) metrics) {
+                        Map<?, ?> entry = (Map<?, ?>) metric;
+                        double value = ((Number) entry.get("value")).doubleValue();
+                        switch (String.valueOf(entry.get("name"))) {
+                            case "JSHeapUsedSize": heapMb = value / MB; break;
+                            case "Nodes": nodes = (long) value; break;
+                            case "JSEventListeners": listeners = (long) value; break;
+                            default: break;
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                // session busy or closed; fall back to performance.memory below
+            }
+        }
+        if (heapMb < 0 && driver instanceof JavascriptExecutor) {
+            try {
+                Object used = ScriptLibrary.execute(driver, JS_HEAP_SCRIPT);
+                if (used instanceof Number) {
+                    heapMb = ((Number) used).doubleValue() / MB;
+                }
+            } catch (Exception ignored) {}
+        }
+
+        if (memory.browserPid < 0) {
+            memory.browserPid = findBrowserPid(driver);
+        }
+        return new Reading(readTreeRssMb(memory.browserPid), heapMb, nodes, listeners);
+    }
+
+    // Finds the browser's main process among this JVM's descendants by a value unique to the session:
+    // the DevTools port of Chrome/Edge or the profile directory of Firefox
+    private static long findBrowserPid(WebDriver driver) {
+        String marker = getProcessMarker(driver);
+        if (marker == null) {
+            return -1;
+        }
+        Optional<ProcessHandle> browser = ProcessHandle.current().descendants()
+            .filter(process -> readCommandLine(process.pid()).contains(marker))
+            .findFirst();
+        return browser.map(ProcessHandle::pid).orElse(-1L);
+    }
+
+    private static String getProcessMarker(WebDriver driver) {
+        if (!(driver instanceof HasCapabilities)) {
+            return null;
+        }
+        for (String key : new String[]{"goog:chromeOptions", "ms:edgeOptions"}) {
+            Object options = ((HasCapabilities) driver).getCapabilities().getCapability(key);
+            if (options instanceof Map && ((Map<?, ?>) options).get("debuggerAddress") != null) {
+                String address = String.valueOf(((Map<?, ?>) options).get("debuggerAddress"));
+                return "--remote-debugging-port=" + address.substring(address.lastIndexOf(':') + 1);
+            }
+        }
+        Object profile = ((HasCapabilities) driver).getCapabilities().getCapability("moz:profile");
+        return profile == null ? null : String.valueOf(profile);
+    }
+
+    private static String readCommandLine(long pid) {
+        try {
+            return new String(Files.readAllBytes(PROC.resolve(Long.toString(pid)).resolve("cmdline")), StandardCharsets.UTF_8).replace('\0', ' ');
+        } catch (Exception e) {
+            return "";
+        }
+    }
+
+    // VmRSS of the process and all of its children (renderers, GPU and utility processes)
+    private static double readTreeRssMb(long pid) {
+        if (pid < 0) {
+            return -1;
+        }
+        Optional<ProcessHandle> root = ProcessHandle.of(pid);
+        if (!root.isPresent()) {
+            return -1;
+        }
+        long totalKb = ProcStats.readRssKb(pid) + root.get().descendants().mapToLong(process -> ProcStats.readRssKb(process.pid())).sum();
+        return totalKb / 1024.0;
+    }
+
+    private static double growth(double before, double after) {
+        return before < 0 || after < 0 ? 0 : after - before;
+    }
+
+    private static String[] row(String name, double before, double after, double baseline, String pattern) {
+        String signed = pattern.replace("%", "%+");
+        return new String[]{name,
+            before < 0 ? "-" : String.format(pattern, before),
+            after < 0 ? "-" : String.format(pattern, after),
+            before < 0 || after < 0 ? "-" : String.format(signed, after - before),
+            baseline < 0 || after < 0 ? "-" : String.format(signed, after - baseline)};
+    }
+}
@@ -0,0 +1,220 @@
+package utils;
+
+import com.aventstack.extentreports.markuputils.MarkupHelper;
+import org.openqa.selenium.WebDriver;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// NavigationCacheStats: bytes served from the browser cache vs the network, per main-frame navigation
+// Listens to DevTools Network events (Chrome/Edge). A response counts as cached when it came from
+// the disk or memory cache; its size is the decoded data received. Network bytes are the encoded
+// bytes on the wire. Shows whether the warm profile (BrowserProfileCache) is paying off.
+public class NavigationCacheStats {
+
+    private static final Map<WebDriver, NavigationCacheStats> STATS = new ConcurrentHashMap<>();
+
+    private String mainFrameId;
+    private final List<Navigation> navigations = new ArrayList<>();
+    private final Map<String, long[]> pending = new HashMap<>(); // requestId -> {cached flag, data bytes}
+
+    // Totals for one navigation
+    public static class Navigation {
+        private final String url;
+        private int cachedRequests;
+        private int networkRequests;
+        private long cachedBytes;
+        private long networkBytes;
+
+        Navigation(String url) {
+            this.url = url;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public int getCachedRequests() {
+            return cachedRequests;
+        }
+
+        public int getNetworkRequests() {
+            return networkRequests;
+        }
+
+        public long getCachedBytes() {
+            return cachedBytes;
+        }
+
+        public long getNetworkBytes() {
+            return networkBytes;
+        }
+    }
+
+    /**
+     Checks if cache metrics are turned on in config
+     @return True if cache.metrics.enabled is set
+     */
+    public static boolean isEnabled() {
+        return TestDataManager.getBooleanProperty("cache.metrics.enabled", false);
+    }
+
+    /**
+     Subscribes to the network events of a driver. Does nothing for browsers without DevTools.
+     @param driver WebDriver instance
+     */
+    public static void attach(WebDriver driver) {
+        if (!DevToolsUtil.isSupported(driver) || STATS.containsKey(driver)) {
+            return;
+        }
+        try {
+            NavigationCacheStats stats = new NavigationCacheStats();
+            Object frameTree = DevToolsUtil.send(driver, "Page.getFrameTree").get("frameTree");
+            if (frameTree instanceof Map && ((Map<?, ?>) frameTree).get("frame") instanceof Map) {
+                stats.mainFrameId = String.valueOf(((Map<?, ?>) ((Map<?, ?>) frameTree).get("frame")).get("id"));
+            }
+            DevToolsUtil.send(driver, "Network.enable");
+            DevToolsUtil.addListener(driver, "Network.requestWillBeSent", stats::onRequest);
+            DevToolsUtil.addListener(driver, "Network.requestServedFromCache", stats::onServedFromCache);
+            DevToolsUtil.addListener(driver, "Network.responseReceived", stats::onResponse);
+            DevToolsUtil.addListener(driver, "Network.dataReceived", stats::onData);
+            DevToolsUtil.addListener(driver, "Network.loadingFinished", stats::onFinished);
+            DevToolsUtil.addListener(driver, "Network.loadingFailed", stats::onFailed);
+            STATS.put(driver, stats);
+        } catch (Exception e) {
+            System.err.println("Cache metrics unavailable: " + e.getMessage());
+        }
+    }
+
+    /**
+     Stops tracking a driver (call before quitting it)
+     @param driver WebDriver instance
+     */
+    public static void detach(WebDriver driver) {
+        if (driver != null) {
+            STATS.remove(driver);
+        }
+    }
+
+    /**
+     Gets the navigations not yet attached to a report: those since the last attachment, starting
+     with the app load in setUp for the first test of a driver
+     @param driver WebDriver instance
+     @return Copy of the navigation totals
+     */
+    public static List<Navigation> getNavigations(WebDriver driver) {
+        NavigationCacheStats stats = driver == null ? null : STATS.get(driver);
+        if (stats == null) {
+            return new ArrayList<>();
+        }
+        synchronized (stats) {
+            return new ArrayList<>(stats.navigations);
+        }
+    }
+
+    /**
+     Adds a cached vs network table of the unreported navigations to the current report test and
+     forgets them. Navigations are kept until then, so a test also reports the app load done in setUp.
+     @param driver Driver of the current test
+     */
+    public static void attachToReport(WebDriver driver) {
+        NavigationCacheStats stats = driver == null ? null : STATS.get(driver);
+        if (stats == null || ReportManager.getCurrentTest() == null) {
+            return;
+        }
+        List<Navigation> list = stats.takeNavigations();
+        if (list.isEmpty()) {
+            return;
+        }
+        String[][] table = new String[list.size() + 1][];
+        table[0] = new String[]{"Navigation", "Cached requests", "Cached KB", "Network requests", "Network KB", "Cache share"};
+        for (int i = 0; i < list.size(); i++) {
+            Navigation navigation = list.get(i);
+            long total = navigation.getCachedBytes() + navigation.getNetworkBytes();
+            table[i + 1] = new String[]{
+                navigation.getUrl(),
+                String.valueOf(navigation.getCachedRequests()),
+                String.format("%.1f", navigation.getCachedBytes() / 1024.0),
+                String.valueOf(navigation.getNetworkRequests()),
+                String.format("%.1f", navigation.getNetworkBytes() / 1024.0),
+                total == 0 ? "-" : String.format("%.0f%%", 100.0 * navigation.getCachedBytes() / total)};
+        }
+        ReportManager.getCurrentTest().info(MarkupHelper.createTable(table));
+    }
+
+    // Hands out the navigations that saw any request and starts over on the current page, so requests
+    // the page makes during the next test count toward that test
+    private synchronized List<Navigation> takeNavigations() {
+        List<Navigation> taken = new ArrayList<>();
+        for (Navigation navigation : navigations) {
+            if (navigation.cachedRequests + navigation.networkRequests > 0) {
+                taken.add(navigation);
+            }
+        }
+        if (!navigations.isEmpty()) {
+            Navigation current = navigations.get(navigations.size() - 1);
+            navigations.clear();
+            navigations.add(new Navigation(current.url));
+        }
+        return taken;
+    }
+
+    private synchronized void onRequest(Map<String, Object> params) {
+        // A document request whose id is the loader id starts a new navigation of its frame
+        boolean document = "Document".equals(params.get("type")) && String.valueOf(params.get("requestId")).equals(params.get("loaderId"));
+        if (document && (mainFrameId == null || mainFrameId.equals(params.get("frameId")))) {
+            Object request = params.get("request");
+            navigations.add(new Navigation(request instanceof Map ? String.valueOf(((Map<?, ?>) request).get("url")) : "?"));
+        }
+        pending.put(String.valueOf(params.get("requestId")), new long[2]);
+    }
+
+    private synchronized void onServedFromCache(Map<String, Object> params) {
+        long[] request = pending.get(String.valueOf(params.get("requestId")));
+        if (request != null) {
+            request[0] = 1;
+        }
+    }
+
+    private synchronized void onResponse(Map<String, Object> params) {
+        long[] request = pending.get(String.valueOf(params.get("requestId")));
+        Object response = params.get("response");
+        if (request != null && response instanceof Map) {
+            Map<?, ?> res = (Map<?, ?>) response;
+            if (Boolean.TRUE.equals(res.get("fromDiskCache")) || Boolean.TRUE.equals(res.get("fromPrefetchCache"))) {
+                request[0] = 1;
+            }
+        }
+    }
+
+    private synchronized void onData(Map<String, Object> params) {
+        long[] request = pending.get(String.valueOf(params.get("requestId")));
+        if (request != null && params.get("dataLength") instanceof Number) {
+            request[1] += ((Number) params.get("dataLength")).longValue();
+        }
+    }
+
+    // Failed, blocked and cancelled requests never finish; they count toward neither total
+    private synchronized void onFailed(Map<String, Object> params) {
+        pending.remove(String.valueOf(params.get("requestId")));
+    }
+
+    private synchronized void onFinished(Map<String, Object> params) {
+        long[] request = pending.remove(String.valueOf(params.get("requestId")));
+        if (request == null || navigations.isEmpty()) {
+            return;
+        }
+        Navigation current = navigations.get(navigations.size() - 1);
+        if (request[0] == 1) {
+            current.cachedRequests++;
+            current.cachedBytes += request[1];
+        } else {
+            current.networkRequests++;
+            current.networkBytes += params.get("encodedDataLength") instanceof Number
+                ? ((Number) params.get("encodedDataLength")).longValue() : request[1];
+        }
+    }
+}
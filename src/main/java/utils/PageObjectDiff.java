@@ -0,0 +1,271 @@
+package utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// PageObjectDiff: turns a git diff into the change entries TestImpact selects tests by
+// Lines in page objects (src/main/java/pages, classes extending BasePage) map to the method they are in
+// ("MainPage.getHeaderText") or, outside methods, to the locator they declare (@FindBy or By.xxx("..."),
+// old and new value, written as By.toString() does). Lines in test classes map to the test method or,
+// outside methods, to the whole class. Comments, imports and plain field declarations are ignored;
+// anything else (utils, config, BaseTest, listeners, other page classes) cannot be narrowed down.
+public class PageObjectDiff {
+
+    private static final String PAGES = "src/main/java/pages/";
+    private static final String TESTS = "src/test/java/tests/";
+    private static final Pattern HUNK = Pattern.compile("^@@ -\\d+(?:,\\d+)? \\+(\\d+)(?:,(\\d+))? @@");
+    private static final Pattern BY_CALL = Pattern.compile("By\\.(id|name|className|tagName|linkText|partialLinkText|xpath|cssSelector)\\(\"((?:[^\"\\\\]|\\\\.)*)\"\\)");
+    private static final Pattern FIND_BY = Pattern.compile("@FindBy\\(\\s*(id|name|className|tagName|linkText|partialLinkText|xpath|css)\\s*=\\s*\"((?:[^\"\\\\]|\\\\.)*)\"");
+    private static final Pattern METHOD = Pattern.compile("^\\s*(?:(?:public|protected|private|static|final|synchronized|abstract|default)\\s+)*(?:<[^>]*>\\s*)?[\\w.<>\\[\\], ?]*?\\b(\\w+)\\s*\\(");
+    private static final Pattern DECLARATION = Pattern.compile("^\\s*(?:(?:public|protected|private|static|final|volatile|transient)\\s+)*[\\w.<>\\[\\], ?]+\\s+\\w+\\s*;\\s*$");
+
+    /**
+     Diffs the sources, suite file and pom of the working tree against a git ref
+     @param baseRef Commit, branch or tag to compare with, e.g. HEAD or origin/main
+     @return Change entries; TestImpact.ALL if the diff could not be read or narrowed down
+     */
+    public static Set<String> fromGit(String baseRef) {
+        try {
+            Process git = new ProcessBuilder("git", "diff", "-U0", "--no-color", "--no-ext-diff", baseRef, "--", "src", "testng.xml", "pom.xml")
+                .redirectErrorStream(true).start();
+            List<String> diff = new ArrayList<>();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(git.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    diff.add(line);
+                }
+            }
+            if (git.waitFor() != 0) {
+                System.err.println("git diff " + baseRef + " failed: " + String.join("\n", diff));
+                return all();
+            }
+            Set<String> changes = parse(diff, Paths.get(""));
+            System.out.println("Impact selection: changes since " + baseRef + ": " + changes);
+            return changes;
+        } catch (IOException e) {
+            System.err.println("Could not run git diff: " + e.getMessage());
+            return all();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return all();
+        }
+    }
+
+    /**
+     Maps a unified diff (-U0) to change entries
+     @param diff Lines of the diff
+     @param root Directory the diff paths are relative to (the new side is read from there)
+     @return Change entries
+     */
+    public static Set<String> parse(List<String> diff, Path root) {
+        Set<String> changes = new LinkedHashSet<>();
+        // file -> {changed new-side lines}, {removed lines}; a pure deletion is recorded at the line before it
+        Map<String, List<Integer>> lines = new LinkedHashMap<>();
+        Map<String, List<String>> removed = new LinkedHashMap<>();
+        String file = null;
+        for (String line : diff) {
+            if (line.startsWith("diff --git ")) {
+                int b = line.lastIndexOf(" b/");
+                file = b < 0 ? null : line.substring(b + 3);
+                if (file != null) {
+                    lines.put(file, new ArrayList<>());
+                    removed.put(file, new ArrayList<>());
+                }
+            } else if (file == null || line.startsWith("---") || line.startsWith("+++")) {
+                continue;
+            } else if (line.startsWith("@@")) {
+                Matcher hunk = HUNK.matcher(line);
+                if (hunk.find()) {
+                    int start = Integer.parseInt(hunk.group(1));
+                    int count = hunk.group(2) == null ? 1 : Integer.parseInt(hunk.group(2));
+                    for (int i = 0; i < Math.max(count, 1); i++) {
+                        lines.get(file).add(Math.max(1, start + i));
+                    }
+                }
+            } else if (line.startsWith("-")) {
+                removed.get(file).add(line.substring(1));
+            }
+        }
+        for (String changed : lines.keySet()) {
+            addChanges(changed, lines.get(changed), removed.get(changed), root, changes);
+        }
+        return changes;
+    }
+
+    private static void addChanges(String file, List<Integer> changedLines, List<String> removedLines, Path root, Set<String> changes) {
+        boolean test = file.startsWith(TESTS) && !file.endsWith("/BaseTest.java");
+        if (file.startsWith("src/test/java/benchmarks/") || file.startsWith("src/test/java/runners/")) {
+            return;
+        }
+        if (!file.endsWith(".java") || !(test || file.startsWith(PAGES))) {
+            changes.add(TestImpact.ALL);
+            return;
+        }
+        Path path = root.resolve(file);
+        if (!Files.exists(path)) {
+            // a deleted page object or test class
+            changes.add(TestImpact.ALL);
+            return;
+        }
+        List<String> source;
+        try {
+            source = Files.readAllLines(path, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            changes.add(TestImpact.ALL);
+            return;
+        }
+        String className = path.getFileName().toString().replace(".java", "");
+        if (!test && !className.equals("BasePage") && !String.join("\n", source).contains("extends BasePage")) {
+            // locator factories, element wrappers and snapshots are used by every page
+            changes.add(TestImpact.ALL);
+            return;
+        }
+        String owner = test ? file.substring("src/test/java/".length(), file.length() - 5).replace('/', '.') : className;
+
+        String[] methods = findMethods(source);
+        for (int number : changedLines) {
+            String method = number <= source.size() ? methods[number - 1] : null;
+            if (method != null) {
+                changes.add(test ? TestImpact.TEST_PREFIX + owner + "." + method : owner + "." + method);
+            } else if (number <= source.size()) {
+                addOutsideMethod(source, number - 1, test, owner, changes);
+            }
+        }
+        for (String line : removedLines) {
+            addLocators(line, changes);
+        }
+    }
+
+    // A changed line between methods: locators, ignorable lines, or (in a test class) the whole class
+    private static void addOutsideMethod(List<String> source, int index, boolean test, String owner, Set<String> changes) {
+        String line = source.get(index);
+        String trimmed = line.trim();
+        int locators = changes.size();
+        addLocators(line, changes);
+        if (changes.size() > locators) {
+            return;
+        }
+        // the field line under an @FindBy belongs to that locator, which did not change; annotations
+        // of test methods (groups, data providers) do matter
+        if (trimmed.isEmpty() || trimmed.startsWith("//") || trimmed.startsWith("*") || trimmed.startsWith("/*")
+            || trimmed.startsWith("import ") || trimmed.startsWith("package ") || trimmed.equals("}")
+            || (trimmed.startsWith("@") && !trimmed.startsWith("@FindBy") && !test) || DECLARATION.matcher(line).matches()) {
+            return;
+        }
+        changes.add(test ? TestImpact.CLASS_PREFIX + owner : TestImpact.ALL);
+    }
+
+    // Locators declared on a line, in By.toString() form, e.g. "By.cssSelector: button"
+    private static void addLocators(String line, Set<String> changes) {
+        Matcher by = BY_CALL.matcher(line);
+        while (by.find()) {
+            changes.add("By." + by.group(1) + ": " + unescape(by.group(2)));
+        }
+        Matcher findBy = FIND_BY.matcher(line);
+        while (findBy.find()) {
+            String how = "css".equals(findBy.group(1)) ? "cssSelector" : findBy.group(1);
+            changes.add("By." + how + ": " + unescape(findBy.group(2)));
+        }
+    }
+
+    private static String unescape(String literal) {
+        return literal.replace("\\\"", "\"").replace("\\\\", "\\");
+    }
+
+    // Name of the method each line belongs to (null between methods), for a top-level class:
+    // a method starts at a member declaration with parameters in the class body and ends with its body
+    private static String[] findMethods(List<String> source) {
+        String[] methods = new String[source.size()];
+        int depth = 0;
+        String current = null;
+        int headerStart = -1;
+        String header = null;
+        boolean inComment = false;
+        for (int i = 0; i < source.size(); i++) {
+            String line = source.get(i);
+            if (depth == 1 && current == null && header == null) {
+                Matcher method = METHOD.matcher(line);
+                String trimmed = line.trim();
+                if (method.find() && !trimmed.startsWith("@") && !trimmed.startsWith("//") && !trimmed.startsWith("*")
+                    && !line.substring(0, method.end()).contains("=") && !isKeyword(method.group(1))) {
+                    header = method.group(1);
+                    headerStart = i;
+                }
+            }
+            for (int c = 0; c < line.length(); c++) {
+                char ch = line.charAt(c);
+                if (inComment) {
+                    if (ch == '*' && c + 1 < line.length() && line.charAt(c + 1) == '/') {
+                        inComment = false;
+                        c++;
+                    }
+                } else if (ch == '/' && c + 1 < line.length() && line.charAt(c + 1) == '/') {
+                    break;
+                } else if (ch == '/' && c + 1 < line.length() && line.charAt(c + 1) == '*') {
+                    inComment = true;
+                    c++;
+                } else if (ch == '"' || ch == '\'') {
+                    c = skipLiteral(line, c);
+                } else if (ch == '{') {
+                    depth++;
+                    if (depth == 2 && header != null) {
+                        current = header;
+                        for (int h = headerStart; h < i; h++) {
+                            methods[h] = current;
+                        }
+                        header = null;
+                    }
+                } else if (ch == '}') {
+                    depth--;
+                    if (depth == 1 && current != null) {
+                        methods[i] = current;
+                        current = null;
+                    }
+                } else if (ch == ';' && depth == 1 && header != null) {
+                    // abstract or interface method without a body
+                    header = null;
+                }
+            }
+            if (current != null) {
+                methods[i] = current;
+            }
+        }
+        return methods;
+    }
+
+    private static int skipLiteral(String line, int start) {
+        char quote = line.charAt(start);
+        for (int c = start + 1; c < line.length(); c++) {
+            if (line.charAt(c) == '\\') {
+                c++;
+            } else if (line.charAt(c) == quote) {
+                return c;
+            }
+        }
+        return line.length();
+    }
+
+    private static boolean isKeyword(String word) {
+        return "if".equals(word) || "for".equals(word) || "while".equals(word) || "switch".equals(word)
+            || "catch".equals(word) || "synchronized".equals(word) || "return".equals(word) || "new".equals(word);
+    }
+
+    private static Set<String> all() {
+        Set<String> changes = new LinkedHashSet<>();
+        changes.add(TestImpact.ALL);
+        return changes;
+    }
+}
@@ -0,0 +1,31 @@
+package utils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+// ProcStats: per-process readings from the Linux /proc filesystem
+// Shared by ResourceGovernor and MemoryTelemetry; every reading is 0 where /proc is not available.
+final class ProcStats {
+    
+    private static final Path PROC = Paths.get("/proc");
+    
+    private ProcStats() {
+    }
+    
+    // Resident set size of a process, from the VmRSS line of /proc/<pid>/status
+    // @param pid Process id
+    // @return RSS in KB, or 0 if the process exited or /proc is not available
+    static long readRssKb(long pid) {
+        try {
+            for (String line : Files.readAllLines(PROC.resolve(Long.toString(pid)).resolve("status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D", ""));
+                }
+            }
+        } catch (Exception ignored) {
+            // process exited or /proc is not available
+        }
+        return 0;
+    }
+}
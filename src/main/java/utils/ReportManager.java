@@ -3,20 +3,26 @@ package utils;
 import com.aventstack.extentreports.ExtentReports;
 import com.aventstack.extentreports.ExtentTest;
 import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.model.Test;
 import com.aventstack.extentreports.reporter.ExtentSparkReporter;
+import com.aventstack.extentreports.reporter.JsonFormatter;
 import com.aventstack.extentreports.reporter.configuration.Theme;
 import org.openqa.selenium.WebDriver;
 
 import java.io.File;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
 
 // ReportManager: manages test reports using ExtentReports
 // Creates a clean report directory each run and attaches screenshots
 public class ReportManager {
     
     private static ExtentReports extent;
-    private static ExtentTest test;
+    // Current test per thread, so tests running in parallel log to their own entries
+    private static final ThreadLocal<ExtentTest> currentTest = new ThreadLocal<>();
     private static final String REPORT_DIR = "test-output/reports/";
     private static final String SCREENSHOT_DIR = "test-output/screenshots/";
     
@@ -24,7 +30,7 @@ public class ReportManager {
      Initializes the ExtentReports instance
      @return ExtentReports instance
      */
-    public static ExtentReports getInstance() {
+    public static synchronized ExtentReports getInstance() {
         if (extent == null) {
             createInstance();
         }
@@ -37,8 +43,11 @@ public class ReportManager {
     private static void createInstance() {
         // Create report directory if it doesn't exist
         // Clean old reports and screenshots to keep only latest run
+        // (a resumed run keeps the screenshots its restored report entries link to)
         cleanDirectory(REPORT_DIR);
-        cleanDirectory(SCREENSHOT_DIR);
+        if (!SuiteCheckpoint.isResume()) {
+            cleanDirectory(SCREENSHOT_DIR);
+        }
         createDirectory(REPORT_DIR);
         createDirectory(SCREENSHOT_DIR);
         
@@ -57,6 +66,13 @@ public class ReportManager {
         
         // Create ExtentReports instance
         extent = new ExtentReports();
+        if (SuiteCheckpoint.isEnabled()) {
+            if (SuiteCheckpoint.isResume()) {
+                restoreFromArchive();
+            }
+            // Keep a JSON archive next to the checkpoint so a resumed run can merge it back in
+            extent.attachReporter(new JsonFormatter(SuiteCheckpoint.REPORT_ARCHIVE));
+        }
         extent.attachReporter(sparkReporter);
         
         // Set system information
@@ -68,6 +84,38 @@ public class ReportManager {
         extent.setSystemInfo("User", System.getProperty("user.name"));
     }
     
+    /**
+     Loads the report of the interrupted run, keeping only the entries of tests that passed
+     (everything else runs again and gets a fresh entry). The archive is written on flush, so a
+     crash mid-suite leaves it missing or behind the checkpoint; passed results it does not have
+     get a placeholder entry built from the checkpoint instead of running again.
+     */
+    private static void restoreFromArchive() {
+        File archive = new File(SuiteCheckpoint.REPORT_ARCHIVE);
+        Set<String> passed = SuiteCheckpoint.getPassedReportNames();
+        Set<String> restored = new HashSet<>();
+        if (archive.exists()) {
+            try {
+                extent.createDomainFromJsonArchive(archive);
+                for (Test test : new ArrayList<>(extent.getReport().getTestList())) {
+                    if (passed.contains(test.getName()) && test.getStatus() == Status.PASS) {
+                        restored.add(test.getName());
+                    } else {
+                        extent.removeTest(test.getName());
+                    }
+                }
+            } catch (Exception e) {
+                System.err.println("Could not restore report archive, passed tests get placeholder entries: " + e.getMessage());
+            }
+        }
+        for (String name : passed) {
+            if (!restored.contains(name)) {
+                extent.createTest(name, "Passed in the interrupted run (from the checkpoint; its report entry was not archived)")
+                    .pass("Passed before the crash - skipped on resume");
+            }
+        }
+    }
+    
     /**
      Creates a new test in the report
      @param testName Name of the test
@@ -75,7 +123,8 @@ public class ReportManager {
      @return ExtentTest instance
      */
     public static ExtentTest createTest(String testName, String description) {
-        test = getInstance().createTest(testName, description);
+        ExtentTest test = getInstance().createTest(testName, description);
+        currentTest.set(test);
         return test;
     }
     
@@ -85,6 +134,7 @@ public class ReportManager {
      @param message Message to log
      */
     public static void log(Status status, String message) {
+        ExtentTest test = currentTest.get();
         if (test != null) {
             test.log(status, message);
         }
@@ -136,6 +186,7 @@ public class ReportManager {
      @param screenshotName Name for the screenshot
      */
     public static void addScreenshot(WebDriver driver, String screenshotName) {
+        ExtentTest test = currentTest.get();
         if (test != null && driver != null) {
             try {
                 String screenshotPath = takeScreenshot(driver, screenshotName);
@@ -147,6 +198,28 @@ public class ReportManager {
         }
     }
     
+    /**
+     Writes a binary attachment (image or clip) to the screenshots directory
+     and adds it to the current test
+     @param fileName File name for the attachment
+     @param content Bytes to write
+     @param title Caption shown in the report
+     */
+    public static void attachFile(String fileName, byte[] content, String title) {
+        ExtentTest test = currentTest.get();
+        if (test != null) {
+            try {
+                File file = new File(SCREENSHOT_DIR + fileName);
+                file.getParentFile().mkdirs();
+                java.nio.file.Files.write(file.toPath(), content);
+                // Reports live in a sibling directory of the screenshots
+                test.addScreenCaptureFromPath("../screenshots/" + fileName, title);
+            } catch (Exception e) {
+                logWarning("Failed to attach " + fileName + ": " + e.getMessage());
+            }
+        }
+    }
+    
     /**
      Takes a screenshot and saves it to the screenshots directory
      @param driver WebDriver instance
@@ -179,6 +252,7 @@ public class ReportManager {
      @param message Test result message
      */
     public static void updateTestResult(int status, String message) {
+        ExtentTest test = currentTest.get();
         if (test != null) {
             switch (status) {
                 case 1: // SUCCESS
@@ -252,10 +326,10 @@ public class ReportManager {
     }
     
     /**
-     Gets the current test instance
+     Gets the current test instance of the calling thread
      @return Current ExtentTest instance
      */
     public static ExtentTest getCurrentTest() {
-        return test;
+        return currentTest.get();
     }
 }
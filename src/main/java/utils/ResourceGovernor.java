@@ -0,0 +1,294 @@
+package utils;
+
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.markuputils.MarkupHelper;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// ResourceGovernor: admits new browser sessions only while the machine has room for them
+// Before a test starts its browser it asks for admission; the governor samples CPU utilization
+// (/proc/stat), available memory (/proc/meminfo, capped by the cgroup limit) and the RSS of every
+// browser/driver process started by this JVM (/proc/<pid>/status) and holds the start back while
+// CPU is above the target or another browser would not fit in memory. At least one session is
+// always admitted, so a busy machine slows the suite down instead of stalling it.
+public class ResourceGovernor {
+
+    private static final Object LOCK = new Object();
+    private static final Path PROC = Paths.get("/proc");
+
+    private static int activeSessions;
+    private static long lastAdmitNanos;
+    private static long[] lastCpuTicks;
+    private static double lastCpuUtilization;
+
+    // Backpressure metrics
+    private static final AtomicLong ADMITTED = new AtomicLong();
+    private static final AtomicLong HELD = new AtomicLong();
+    private static final AtomicLong FORCED = new AtomicLong();
+    private static final AtomicLong TOTAL_WAIT_MS = new AtomicLong();
+    private static final AtomicLong MAX_WAIT_MS = new AtomicLong();
+    private static final AtomicLong PEAK_SESSIONS = new AtomicLong();
+    private static final AtomicLong PEAK_BROWSER_RSS_MB = new AtomicLong();
+    private static final AtomicLong MIN_AVAILABLE_MB = new AtomicLong(Long.MAX_VALUE);
+    private static final Map<String, AtomicLong> HOLD_REASONS = new ConcurrentHashMap<>();
+
+    // Point-in-time view of the machine
+    public static class Sample {
+        private final int cores;
+        private final double cpuUtilization;
+        private final long availableMb;
+        private final long browserRssMb;
+        private final int sessions;
+
+        Sample(int cores, double cpuUtilization, long availableMb, long browserRssMb, int sessions) {
+            this.cores = cores;
+            this.cpuUtilization = cpuUtilization;
+            this.availableMb = availableMb;
+            this.browserRssMb = browserRssMb;
+            this.sessions = sessions;
+        }
+
+        public int getCores() {
+            return cores;
+        }
+
+        // Fraction of all cores busy since the previous sample (0..1)
+        public double getCpuUtilization() {
+            return cpuUtilization;
+        }
+
+        public long getAvailableMb() {
+            return availableMb;
+        }
+
+        // Combined resident memory of all processes started by this JVM (browsers and drivers)
+        public long getBrowserRssMb() {
+            return browserRssMb;
+        }
+
+        public int getSessions() {
+            return sessions;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("cores=%d cpu=%.0f%% available=%d MB browsers=%d MB sessions=%d",
+                cores, cpuUtilization * 100, availableMb, browserRssMb, sessions);
+        }
+    }
+
+    /**
+     Checks if the governor is enabled in config.properties
+     @return True if governor.enabled=true
+     */
+    public static boolean isEnabled() {
+        return TestDataManager.getBooleanProperty("governor.enabled", false);
+    }
+
+    /**
+     Blocks until there are enough resources to start another browser session
+     Gives up holding back after governor.max.wait.seconds and admits anyway
+     @param who Name of the test or user asking, for logging
+     @return Time spent waiting in milliseconds
+     @throws InterruptedException if interrupted while held back
+     */
+    public static long acquire(String who) throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + TestDataManager.getIntProperty("governor.max.wait.seconds", 300) * 1_000_000_000L;
+        long pollMs = TestDataManager.getIntProperty("governor.poll.ms", 250);
+        boolean held = false;
+
+        synchronized (LOCK) {
+            while (true) {
+                Sample sample = sample();
+                String reason = getHoldReason(sample);
+                if (reason == null) {
+                    break;
+                }
+                if (System.nanoTime() >= deadline) {
+                    FORCED.incrementAndGet();
+                    System.err.println("Resource governor: admitting " + who + " after max wait despite " + reason + " (" + sample + ")");
+                    break;
+                }
+                if (!held) {
+                    held = true;
+                    HELD.incrementAndGet();
+                    System.out.println("Resource governor: holding " + who + " back, " + reason + " (" + sample + ")");
+                }
+                HOLD_REASONS.computeIfAbsent(reason.split(" ")[0], k -> new AtomicLong()).incrementAndGet();
+                LOCK.wait(pollMs);
+            }
+            activeSessions++;
+            lastAdmitNanos = System.nanoTime();
+            PEAK_SESSIONS.accumulateAndGet(activeSessions, Math::max);
+        }
+
+        long waitedMs = (System.nanoTime() - start) / 1_000_000;
+        ADMITTED.incrementAndGet();
+        TOTAL_WAIT_MS.addAndGet(waitedMs);
+        MAX_WAIT_MS.accumulateAndGet(waitedMs, Math::max);
+        return waitedMs;
+    }
+
+    /**
+     Marks a session admitted by acquire() as finished and wakes held-back starts
+     */
+    public static void release() {
+        synchronized (LOCK) {
+            activeSessions = Math.max(0, activeSessions - 1);
+            LOCK.notifyAll();
+        }
+    }
+
+    // Why a new session cannot start right now, or null if it can
+    private static String getHoldReason(Sample sample) {
+        if (sample.getSessions() == 0) {
+            return null;
+        }
+        int maxSessions = TestDataManager.getIntProperty("governor.max.sessions", 0);
+        if (maxSessions > 0 && sample.getSessions() >= maxSessions) {
+            return "sessions at limit " + maxSessions;
+        }
+        // A just-admitted browser is still launching and not yet visible in CPU or RSS
+        long settleMs = TestDataManager.getIntProperty("governor.admit.interval.ms", 1000);
+        if ((System.nanoTime() - lastAdmitNanos) / 1_000_000 < settleMs) {
+            return "settling after last start";
+        }
+        double targetCpu = TestDataManager.getIntProperty("governor.target.cpu.percent", 80) / 100.0;
+        if (sample.getCpuUtilization() > targetCpu) {
+            return String.format("cpu %.0f%% above target %.0f%%", sample.getCpuUtilization() * 100, targetCpu * 100);
+        }
+        long perSession = Math.max(TestDataManager.getIntProperty("governor.session.estimate.mb", 400),
+            sample.getBrowserRssMb() / sample.getSessions());
+        long reserve = TestDataManager.getIntProperty("governor.memory.reserve.mb", 1024);
+        if (sample.getAvailableMb() >= 0 && sample.getAvailableMb() - perSession < reserve) {
+            return "memory " + sample.getAvailableMb() + " MB available, need " + perSession + " MB + " + reserve + " MB reserve";
+        }
+        return null;
+    }
+
+    /**
+     Takes a reading of cores, CPU utilization, available memory and browser RSS
+     @return Current sample; memory is -1 when it cannot be read
+     */
+    public static Sample sample() {
+        int sessions;
+        synchronized (LOCK) {
+            sessions = activeSessions;
+        }
+        long available = readAvailableMb();
+        long browserRss = readBrowserRssMb();
+        if (available >= 0) {
+            MIN_AVAILABLE_MB.accumulateAndGet(available, Math::min);
+        }
+        PEAK_BROWSER_RSS_MB.accumulateAndGet(browserRss, Math::max);
+        return new Sample(Runtime.getRuntime().availableProcessors(), readCpuUtilization(), available, browserRss, sessions);
+    }
+
+    // CPU busy fraction from the change in /proc/stat since the last reading,
+    // falling back to the JVM's view of system load on machines without /proc
+    private static synchronized double readCpuUtilization() {
+        try {
+            String[] fields = Files.readAllLines(PROC.resolve("stat")).get(0).trim().split("\\s+");
+            long[] ticks = new long[2];
+            for (int i = 1; i < fields.length && i <= 8; i++) {
+                long value = Long.parseLong(fields[i]);
+                ticks[0] += value;
+                if (i == 4 || i == 5) {
+                    ticks[1] += value; // idle + iowait
+                }
+            }
+            if (lastCpuTicks != null && ticks[0] > lastCpuTicks[0]) {
+                long total = ticks[0] - lastCpuTicks[0];
+                long idle = ticks[1] - lastCpuTicks[1];
+                lastCpuUtilization = Math.max(0, Math.min(1, 1.0 - (double) idle / total));
+            }
+            lastCpuTicks = ticks;
+            return lastCpuUtilization;
+        } catch (Exception e) {
+            if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean) {
+                double load = ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getSystemCpuLoad();
+                return load < 0 ? 0 : load;
+            }
+            return 0;
+        }
+    }
+
+    // MemAvailable from /proc/meminfo, limited by the cgroup v2 memory limit when running in a container
+    private static long readAvailableMb() {
+        long available = -1;
+        try {
+            for (String line : Files.readAllLines(PROC.resolve("meminfo"))) {
+                if (line.startsWith("MemAvailable:")) {
+                    available = Long.parseLong(line.replaceAll("\\D", "")) / 1024;
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean) {
+                available = ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getFreePhysicalMemorySize() / (1024 * 1024);
+            }
+        }
+        try {
+            Path cgroup = Paths.get("/sys/fs/cgroup");
+            String max = new String(Files.readAllBytes(cgroup.resolve("memory.max"))).trim();
+            if (!"max".equals(max)) {
+                long current = Long.parseLong(new String(Files.readAllBytes(cgroup.resolve("memory.current"))).trim());
+                long cgroupAvailable = (Long.parseLong(max) - current) / (1024 * 1024);
+                available = available < 0 ? cgroupAvailable : Math.min(available, cgroupAvailable);
+            }
+        } catch (Exception ignored) {
+            // no cgroup v2 limit
+        }
+        return available;
+    }
+
+    // Sum of VmRSS over every process descended from this JVM (drivers and the browsers they started)
+    private static long readBrowserRssMb() {
+        return ProcessHandle.current().descendants().mapToLong(process -> ProcStats.readRssKb(process.pid())).sum() / 1024;
+    }
+
+    /**
+     Builds the backpressure metrics table
+     @return Rows of metric name and value
+     */
+    public static String[][] toTable() {
+        long admitted = ADMITTED.get();
+        long minAvailable = MIN_AVAILABLE_MB.get();
+        StringBuilder reasons = new StringBuilder();
+        for (Map.Entry<String, AtomicLong> reason : HOLD_REASONS.entrySet()) {
+            if (reasons.length() > 0) reasons.append(", ");
+            reasons.append(reason.getKey()).append(": ").append(reason.getValue().get());
+        }
+        return new String[][]{
+            {"Metric", "Value"},
+            {"Sessions admitted", String.valueOf(admitted)},
+            {"Starts held back", String.valueOf(HELD.get())},
+            {"Admitted after max wait", String.valueOf(FORCED.get())},
+            {"Total wait", TOTAL_WAIT_MS.get() + " ms"},
+            {"Average wait", (admitted == 0 ? 0 : TOTAL_WAIT_MS.get() / admitted) + " ms"},
+            {"Longest wait", MAX_WAIT_MS.get() + " ms"},
+            {"Peak concurrent sessions", String.valueOf(PEAK_SESSIONS.get())},
+            {"Peak browser RSS", PEAK_BROWSER_RSS_MB.get() + " MB"},
+            {"Lowest available memory", minAvailable == Long.MAX_VALUE ? "-" : minAvailable + " MB"},
+            {"Hold checks by reason", reasons.length() == 0 ? "-" : reasons.toString()}};
+    }
+
+    /**
+     Adds the backpressure metrics as a test entry in the Extent report
+     */
+    public static void addToReport() {
+        ExtentTest test = ReportManager.createTest("Resource Governor", "Admission of browser sessions on "
+            + Runtime.getRuntime().availableProcessors() + " cores");
+        test.info(MarkupHelper.createTable(toTable()));
+        if (FORCED.get() > 0) {
+            test.warning(FORCED.get() + " sessions were admitted after waiting governor.max.wait.seconds; the machine is undersized for this suite");
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package utils;
+
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.markuputils.MarkupHelper;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonOutput;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// RunHistory: append-only store of test results across runs
+// Lives outside the report/screenshot directories so it survives ReportManager's cleanup.
+// Layout: one JSON-lines file per run (run_<id>.jsonl) plus index.tsv listing finished runs
+public class RunHistory {
+    
+    private static final String HISTORY_DIR = "test-output/history/";
+    private static final String INDEX_FILE = HISTORY_DIR + "index.tsv";
+    private static final Json JSON = new Json();
+    
+    // Navigation timing relative to navigation start, in milliseconds
+    private static final ScriptLibrary.Script PAGE_METRICS_SCRIPT = ScriptLibrary.register("pageMetrics",
+        "var n = performance.getEntriesByType('navigation')[0]; if (!n) return null;"
+        + " return {ttfb: n.responseStart, domContentLoaded: n.domContentLoadedEventEnd,"
+        + " load: n.loadEventEnd, transferSize: n.transferSize,"
+        + " resources: performance.getEntriesByType('resource').length};");
+    
+    private static String runId;
+    private static final List<TestRecord> currentRun = Collections.synchronizedList(new ArrayList<>());
+    
+    /**
+     Starts a new run (only the first call per JVM has any effect)
+     */
+    public static synchronized void startRun() {
+        if (runId == null) {
+            // milliseconds plus the pid, so runs starting in the same second (e.g. parallel CI jobs) stay apart
+            runId = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss-SSS").format(new Date()) + "_" + ProcessHandle.current().pid();
+            new File(HISTORY_DIR).mkdirs();
+        }
+    }
+    
+    /**
+     Gets the id of the current run
+     @return Run id, or null before startRun
+     */
+    public static String getRunId() {
+        return runId;
+    }
+    
+    /**
+     Records a finished test, including the page-object action timings collected on
+     this thread and the navigation metrics of the current page
+     @param testName Name of the test
+     @param status PASS, FAIL or SKIP
+     @param durationMs Test duration in milliseconds
+     @param driver WebDriver used by the test (may be null)
+     */
+    public static void recordTest(String testName, String status, long durationMs, WebDriver driver) {
+        startRun();
+        Map<String, Long> actionCounts = new LinkedHashMap<>();
+        Map<String, Double> actionMillis = new LinkedHashMap<>();
+        for (Map.Entry<String, long[]> entry : ActionTimings.reset().entrySet()) {
+            actionCounts.put(entry.getKey(), entry.getValue()[0]);
+            actionMillis.put(entry.getKey(), entry.getValue()[1] / 1_000_000.0);
+        }
+        TestRecord record = new TestRecord(runId, testName, status, durationMs, actionCounts, actionMillis, readPageMetrics(driver));
+        currentRun.add(record);
+        appendLine(HISTORY_DIR + "run_" + runId + ".jsonl", toJsonLine(record.toMap()));
+    }
+    
+    /**
+     Marks the current run as complete by adding it to the index
+     */
+    public static synchronized void finishRun() {
+        if (runId == null || listRuns().contains(runId)) {
+            return;
+        }
+        int passed = 0, failed = 0, skipped = 0;
+        long totalMs = 0;
+        for (TestRecord record : getCurrentRun()) {
+            totalMs += record.getDurationMs();
+            if ("PASS".equals(record.getStatus())) passed++;
+            else if ("FAIL".equals(record.getStatus())) failed++;
+            else skipped++;
+        }
+        appendLine(INDEX_FILE, runId + "\t" + (passed + failed + skipped) + "\t" + passed + "\t" + failed + "\t" + skipped + "\t" + totalMs);
+    }
+    
+    /**
+     Lists finished runs, oldest first
+     @return Run ids from the index
+     */
+    public static List<String> listRuns() {
+        List<String> runs = new ArrayList<>();
+        try {
+            if (new File(INDEX_FILE).exists()) {
+                for (String line : Files.readAllLines(Paths.get(INDEX_FILE), StandardCharsets.UTF_8)) {
+                    if (!line.trim().isEmpty()) {
+                        runs.add(line.split("\t")[0]);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading run history index: " + e.getMessage());
+        }
+        return runs;
+    }
+    
+    /**
+     Loads all test records of a run
+     @param id Run id
+     @return Records in the order the tests finished
+     */
+    public static List<TestRecord> loadRun(String id) {
+        List<TestRecord> records = new ArrayList<>();
+        File file = new File(HISTORY_DIR + "run_" + id + ".jsonl");
+        if (!file.exists()) {
+            return records;
+        }
+        try {
+            for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+                if (!line.trim().isEmpty()) {
+                    Map<String, Object> map = JSON.toType(line, Json.MAP_TYPE);
+                    records.add(TestRecord.fromMap(map));
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Error reading run " + id + ": " + e.getMessage());
+        }
+        return records;
+    }
+    
+    /**
+     Gets the records of one test from the most recent finished runs (excluding the current run)
+     @param testName Name of the test
+     @param lastRuns How many previous runs to look at
+     @return Matching records, oldest first
+     */
+    public static List<TestRecord> getHistory(String testName, int lastRuns) {
+        return getHistory(lastRuns).getOrDefault(testName, new ArrayList<>());
+    }
+    
+    /**
+     Loads the most recent finished runs (excluding the current run) once, indexed by test name
+     @param lastRuns How many previous runs to look at
+     @return Test name -> its records, oldest first
+     */
+    public static Map<String, List<TestRecord>> getHistory(int lastRuns) {
+        List<String> runs = new ArrayList<>(listRuns());
+        runs.remove(runId);
+        Map<String, List<TestRecord>> history = new HashMap<>();
+        for (String id : runs.subList(Math.max(0, runs.size() - lastRuns), runs.size())) {
+            for (TestRecord record : loadRun(id)) {
+                history.computeIfAbsent(record.getTestName(), k -> new ArrayList<>()).add(record);
+            }
+        }
+        return history;
+    }
+    
+    /**
+     Gets the records collected so far in this run
+     @return Copy of the current run's records
+     */
+    public static List<TestRecord> getCurrentRun() {
+        synchronized (currentRun) {
+            return new ArrayList<>(currentRun);
+        }
+    }
+    
+    /**
+     Adds a "Run History Trend" entry to the report comparing each passed test's duration
+     with its average over the last N passed runs, flagging regressions beyond the threshold
+     */
+    public static void addTrendToReport() {
+        int lastRuns = TestDataManager.getIntProperty("history.trend.runs", 5);
+        double threshold = Double.parseDouble(TestDataManager.getProperty("history.regression.threshold", "0.25"));
+        long minDeltaMs = TestDataManager.getIntProperty("history.regression.min.ms", 200);
+        
+        List<String[]> rows = new ArrayList<>();
+        List<String> regressions = new ArrayList<>();
+        Map<String, List<TestRecord>> history = getHistory(lastRuns);
+        for (TestRecord record : getCurrentRun()) {
+            if (!"PASS".equals(record.getStatus())) {
+                continue;
+            }
+            long total = 0;
+            int count = 0;
+            for (TestRecord previous : history.getOrDefault(record.getTestName(), Collections.emptyList())) {
+                if ("PASS".equals(previous.getStatus())) {
+                    total += previous.getDurationMs();
+                    count++;
+                }
+            }
+            if (count == 0) {
+                rows.add(new String[]{record.getTestName(), String.valueOf(record.getDurationMs()), "-", "-", "new"});
+                continue;
+            }
+            double average = (double) total / count;
+            double change = (record.getDurationMs() - average) / average;
+            boolean regressed = change > threshold && record.getDurationMs() - average > minDeltaMs;
+            if (regressed) {
+                regressions.add(record.getTestName());
+            }
+            rows.add(new String[]{record.getTestName(), String.valueOf(record.getDurationMs()),
+                String.format("%.0f", average), String.format("%+.1f%%", change * 100), regressed ? "REGRESSED" : "ok"});
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        
+        String[][] table = new String[rows.size() + 1][];
+        table[0] = new String[]{"Test", "This run (ms)", "Avg last " + lastRuns + " (ms)", "Change", "Trend"};
+        for (int i = 0; i < rows.size(); i++) {
+            table[i + 1] = rows.get(i);
+        }
+        ExtentTest trend = ReportManager.createTest("Run History Trend", "Duration versus the last " + lastRuns + " runs");
+        trend.info(MarkupHelper.createTable(table));
+        if (regressions.isEmpty()) {
+            trend.pass("No duration regressions beyond " + Math.round(threshold * 100) + "%");
+        } else {
+            trend.warning("Duration regressed beyond " + Math.round(threshold * 100) + "%: " + String.join(", ", regressions));
+        }
+    }
+    
+    private static Map<String, Double> readPageMetrics(WebDriver driver) {
+        Map<String, Double> metrics = new LinkedHashMap<>();
+        if (!(driver instanceof JavascriptExecutor)) {
+            return metrics;
+        }
+        try {
+            Object raw = ScriptLibrary.execute(driver, PAGE_METRICS_SCRIPT);
+            if (raw instanceof Map) {
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) raw).entrySet()) {
+                    if (entry.getValue() instanceof Number) {
+                        metrics.put(String.valueOf(entry.getKey()), ((Number) entry.getValue()).doubleValue());
+                    }
+                }
+            }
+        } catch (Exception ignored) {
+            // browser gone or page without navigation timing
+        }
+        return metrics;
+    }
+    
+    private static String toJsonLine(Map<String, Object> map) {
+        StringBuilder line = new StringBuilder();
+        try (JsonOutput out = JSON.newOutput(line)) {
+            out.setPrettyPrint(false);
+            out.write(map);
+        }
+        return line.toString();
+    }
+    
+    private static synchronized void appendLine(String path, String line) {
+        try {
+            Files.write(Paths.get(path), (line + System.lineSeparator()).getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            System.err.println("Error writing run history: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package utils;
+
+import org.openqa.selenium.WebDriver;
+import org.w3c.dom.Node;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// ScreencastRecorder: keeps the last few seconds of the page as a rolling buffer of frames
+// Frames come from DevTools Page.startScreencast and stay as the raw base64 JPEG payload,
+// so nothing is decoded or written to disk unless a test fails and we build the clip
+public class ScreencastRecorder {
+    
+    private static final Map<WebDriver, ScreencastRecorder> RECORDERS = new ConcurrentHashMap<>();
+    
+    private final WebDriver driver;
+    private final double windowSeconds;
+    private final int maxFrames;
+    private final ArrayDeque<Frame> frames = new ArrayDeque<>();
+    
+    // A single screencast frame: base64 JPEG and its capture time in seconds
+    private static class Frame {
+        final String data;
+        final double timestamp;
+        
+        Frame(String data, double timestamp) {
+            this.data = data;
+            this.timestamp = timestamp;
+        }
+    }
+    
+    private ScreencastRecorder(WebDriver driver, double windowSeconds) {
+        this.driver = driver;
+        this.windowSeconds = windowSeconds;
+        // Chrome sends at most ~30 frames per second; this is a hard cap on memory
+        this.maxFrames = (int) Math.ceil(windowSeconds * 30);
+    }
+    
+    /**
+     Checks if screencast recording is turned on in config
+     @return True if screencast.enabled is set
+     */
+    public static boolean isEnabled() {
+        return TestDataManager.getBooleanProperty("screencast.enabled", false);
+    }
+    
+    /**
+     Starts the screencast for a driver. Does nothing for browsers without DevTools.
+     @param driver WebDriver instance
+     */
+    public static void attach(WebDriver driver) {
+        if (!DevToolsUtil.isSupported(driver) || RECORDERS.containsKey(driver)) {
+            return;
+        }
+        try {
+            ScreencastRecorder recorder = new ScreencastRecorder(driver, TestDataManager.getIntProperty("screencast.seconds", 10));
+            DevToolsUtil.addListener(driver, "Page.screencastFrame", recorder::onFrame);
+            
+            Map<String, Object> params = new HashMap<>();
+            params.put("format", "jpeg");
+            params.put("quality", TestDataManager.getIntProperty("screencast.quality", 50));
+            params.put("maxWidth", TestDataManager.getIntProperty("screencast.max.width", 800));
+            params.put("maxHeight", TestDataManager.getIntProperty("screencast.max.height", 600));
+            params.put("everyNthFrame", TestDataManager.getIntProperty("screencast.every.nth.frame", 2));
+            DevToolsUtil.send(driver, "Page.enable");
+            DevToolsUtil.send(driver, "Page.startScreencast", params);
+            RECORDERS.put(driver, recorder);
+        } catch (Exception e) {
+            System.err.println("Screencast recording unavailable: " + e.getMessage());
+        }
+    }
+    
+    /**
+     Stops recording a driver (call before quitting it)
+     @param driver WebDriver instance
+     */
+    public static void detach(WebDriver driver) {
+        if (driver != null && RECORDERS.remove(driver) != null) {
+            try {
+                DevToolsUtil.send(driver, "Page.stopScreencast");
+            } catch (Exception ignored) {}
+        }
+    }
+    
+    /**
+     Drops buffered frames so a clip only covers the current test
+     @param driver Driver of the current test, or null for all drivers
+     */
+    public static void startTest(WebDriver driver) {
+        for (ScreencastRecorder recorder : select(driver)) {
+            recorder.clear();
+        }
+    }
+    
+    /**
+     Throws away the buffered frames of a test that needs no clip (e.g. one that passed)
+     @param driver Driver of the finished test, or null for all drivers
+     */
+    public static void discard(WebDriver driver) {
+        for (ScreencastRecorder recorder : select(driver)) {
+            recorder.clear();
+        }
+    }
+    
+    /**
+     Encodes the buffered frames as an animated GIF and attaches it to the current report test
+     @param driver Driver of the current test, or null for all drivers
+     @param clipName Base name for the clip file
+     */
+    public static void attachToReport(WebDriver driver, String clipName) {
+        int index = 0;
+        for (ScreencastRecorder recorder : select(driver)) {
+            List<Frame> clip = recorder.takeFrames();
+            if (clip.isEmpty()) {
+                continue;
+            }
+            try {
+                String name = clipName + (index++ > 0 ? "_" + index : "") + ".gif";
+                ReportManager.attachFile(name, encodeGif(clip), "Screencast of the last " + (int) recorder.windowSeconds + "s");
+            } catch (Exception e) {
+                ReportManager.logWarning("Failed to encode screencast: " + e.getMessage());
+            }
+        }
+    }
+    
+    private static Collection<ScreencastRecorder> select(WebDriver driver) {
+        if (driver == null) {
+            return RECORDERS.values();
+        }
+        ScreencastRecorder recorder = RECORDERS.get(driver);
+        return recorder == null ? Collections.emptyList() : Collections.singletonList(recorder);
+    }
+    
+    private void onFrame(Map<String, Object> params) {
+        // Chrome stops sending frames until each one is acknowledged
+        Map<String, Object> ack = new HashMap<>();
+        ack.put("sessionId", params.get("sessionId"));
+        try {
+            DevToolsUtil.send(driver, "Page.screencastFrameAck", ack);
+        } catch (Exception ignored) {
+            return;
+        }
+        
+        Object metadata = params.get("metadata");
+        Object timestamp = metadata instanceof Map ? ((Map<?, ?>) metadata).get("timestamp") : null;
+        double seconds = timestamp instanceof Number ? ((Number) timestamp).doubleValue() : System.currentTimeMillis() / 1000.0;
+        add(new Frame((String) params.get("data"), seconds));
+    }
+    
+    private synchronized void add(Frame frame) {
+        frames.addLast(frame);
+        while (frames.size() > maxFrames || frame.timestamp - frames.peekFirst().timestamp > windowSeconds) {
+            frames.removeFirst();
+        }
+    }
+    
+    private synchronized void clear() {
+        frames.clear();
+    }
+    
+    private synchronized List<Frame> takeFrames() {
+        List<Frame> clip = new ArrayList<>(frames);
+        frames.clear();
+        return clip;
+    }
+    
+    /**
+     Builds a looping animated GIF, using the real gap between frames as the frame delay
+     */
+    private static byte[] encodeGif(List<Frame> clip) throws Exception {
+        ImageWriter writer = ImageIO.getImageWritersBySuffix("gif").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(stream);
+            writer.prepareWriteSequence(null);
+            for (int i = 0; i < clip.size(); i++) {
+                Frame frame = clip.get(i);
+                BufferedImage image = ImageIO.read(new ByteArrayInputStream(Base64.getDecoder().decode(frame.data)));
+                if (image == null) {
+                    continue;
+                }
+                double next = i + 1 < clip.size() ? clip.get(i + 1).timestamp : frame.timestamp + 1.0;
+                int delayCentis = (int) Math.max(2, Math.round((next - frame.timestamp) * 100));
+                writer.writeToSequence(new IIOImage(image, null, gifMetadata(writer, image, delayCentis, i == 0)), null);
+            }
+            writer.endWriteSequence();
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+    
+    private static IIOMetadata gifMetadata(ImageWriter writer, BufferedImage image, int delayCentis, boolean first) throws Exception {
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        IIOMetadata metadata = writer.getDefaultImageMetadata(ImageTypeSpecifier.createFromRenderedImage(image), param);
+        String format = metadata.getNativeMetadataFormatName();
+        IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(format);
+        
+        IIOMetadataNode control = child(root, "GraphicControlExtension");
+        control.setAttribute("disposalMethod", "none");
+        control.setAttribute("userInputFlag", "FALSE");
+        control.setAttribute("transparentColorFlag", "FALSE");
+        control.setAttribute("delayTime", String.valueOf(delayCentis));
+        control.setAttribute("transparentColorIndex", "0");
+        
+        if (first) {
+            // NETSCAPE2.0 extension makes the clip loop forever
+            IIOMetadataNode extensions = child(root, "ApplicationExtensions");
+            IIOMetadataNode loop = new IIOMetadataNode("ApplicationExtension");
+            loop.setAttribute("applicationID", "NETSCAPE");
+            loop.setAttribute("authenticationCode", "2.0");
+            loop.setUserObject(new byte[]{0x1, 0, 0});
+            extensions.appendChild(loop);
+        }
+        metadata.setFromTree(format, root);
+        return metadata;
+    }
+    
+    private static IIOMetadataNode child(IIOMetadataNode root, String name) {
+        for (Node node = root.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (node.getNodeName().equalsIgnoreCase(name)) {
+                return (IIOMetadataNode) node;
+            }
+        }
+        IIOMetadataNode node = new IIOMetadataNode(name);
+        root.appendChild(node);
+        return node;
+    }
+}
@@ -0,0 +1,208 @@
+package utils;
+
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.markuputils.MarkupHelper;
+import org.openqa.selenium.JavascriptException;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.ScriptKey;
+import org.openqa.selenium.WebDriver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// ScriptLibrary: central registry of the JavaScript snippets the framework runs over and over
+// Each script is pinned once per session with JavascriptExecutor.pin; on Chrome/Edge that defines it
+// in every new document (Page.addScriptToEvaluateOnNewDocument), so later calls only send a short
+// function call instead of the whole source, across navigations. Browsers that cannot pin, or a
+// document the pinned function is missing from, fall back to sending the source. The pinned copy
+// tags errors the script throws itself, so a failing script is reported rather than run again.
+public class ScriptLibrary {
+
+    // Prefix the pinned wrapper puts on errors thrown by the script itself
+    private static final String SCRIPT_ERROR = "ScriptLibrary script error: ";
+
+    private static final Map<String, Script> SCRIPTS = new ConcurrentHashMap<>();
+    private static final Map<WebDriver, Map<Script, ScriptKey>> PINNED = new ConcurrentHashMap<>();
+    // Drivers whose pin() failed, so it is not retried on every call
+    private static final Set<WebDriver> UNPINNABLE = ConcurrentHashMap.newKeySet();
+
+    // Shared scripts
+    public static final Script READY_STATE = register("readyState", "return document.readyState");
+
+    // A registered script and its call statistics
+    public static class Script {
+        private final String name;
+        private final String source;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder pinnedCalls = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        private Script(String name, String source) {
+            this.name = name;
+            this.source = source;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getSource() {
+            return source;
+        }
+
+        public long getCalls() {
+            return calls.sum();
+        }
+
+        // Calls that went through the pinned handle rather than the full source
+        public long getPinnedCalls() {
+            return pinnedCalls.sum();
+        }
+
+        public double getAverageMillis() {
+            long count = calls.sum();
+            return count == 0 ? 0 : totalNanos.sum() / 1_000_000.0 / count;
+        }
+
+        public double getMaxMillis() {
+            return maxNanos.get() / 1_000_000.0;
+        }
+
+        private void record(long nanos, boolean pinned) {
+            calls.increment();
+            if (pinned) {
+                pinnedCalls.increment();
+            }
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+    }
+
+    /**
+     Checks if scripts should be pinned per session
+     @return True if script.pinning.enabled is set
+     */
+    public static boolean isPinningEnabled() {
+        return TestDataManager.getBooleanProperty("script.pinning.enabled", true);
+    }
+
+    /**
+     Registers a script under a name; registering the same name again returns the existing handle
+     @param name Unique name shown in the statistics
+     @param source Script body, as for executeScript (may use arguments and return)
+     @return Handle to pass to execute()
+     */
+    public static Script register(String name, String source) {
+        Script script = SCRIPTS.computeIfAbsent(name, key -> new Script(key, source));
+        if (!script.getSource().equals(source)) {
+            throw new IllegalArgumentException("Script '" + name + "' is already registered with a different source");
+        }
+        return script;
+    }
+
+    /**
+     Runs a registered script, pinning it to the driver's session on first use
+     @param driver WebDriver instance (must be a JavascriptExecutor)
+     @param script Handle from register()
+     @param args Script arguments
+     @return Script result, as for executeScript
+     */
+    public static Object execute(WebDriver driver, Script script, Object... args) {
+        JavascriptExecutor js = (JavascriptExecutor) driver;
+        long start = System.nanoTime();
+        ScriptKey key = isPinningEnabled() ? getKey(driver, script) : null;
+        if (key != null) {
+            try {
+                Object result = js.executeScript(key, args);
+                script.record(System.nanoTime() - start, true);
+                return result;
+            } catch (JavascriptException e) {
+                if (e.getMessage() != null && e.getMessage().contains(SCRIPT_ERROR)) {
+                    // the script ran and threw; running it again would repeat its side effects
+                    script.record(System.nanoTime() - start, true);
+                    throw e;
+                }
+                // pinned function not defined in this document (e.g. about:blank); send the source instead
+            }
+        }
+        Object result = js.executeScript(script.getSource(), args);
+        script.record(System.nanoTime() - start, false);
+        return result;
+    }
+
+    // Pinned handle of a script for a driver, or null if the driver cannot pin
+    private static ScriptKey getKey(WebDriver driver, Script script) {
+        // Only Chromium drivers really pin; the default pin() would still send the source every call
+        if (!DevToolsUtil.isSupported(driver) || UNPINNABLE.contains(driver)) {
+            return null;
+        }
+        Map<Script, ScriptKey> keys = PINNED.computeIfAbsent(driver, d -> new ConcurrentHashMap<>());
+        ScriptKey key = keys.get(script);
+        if (key == null) {
+            try {
+                key = ((JavascriptExecutor) driver).pin(pinnedSource(script));
+                ScriptKey existing = keys.putIfAbsent(script, key);
+                if (existing != null) {
+                    ((JavascriptExecutor) driver).unpin(key);
+                    key = existing;
+                }
+            } catch (Exception e) {
+                UNPINNABLE.add(driver);
+                return null;
+            }
+        }
+        return key;
+    }
+
+    // Source pinned for a script: runs it unchanged, but tags what it throws so execute() can tell
+    // an error of the script from a call to a pinned function the document does not have
+    private static String pinnedSource(Script script) {
+        return "try { return (function() { " + script.getSource() + "\n}).apply(this, arguments); }"
+            + " catch (e) { throw new Error('" + SCRIPT_ERROR + "' + (e && e.message ? e.message : e)); }";
+    }
+
+    /**
+     Forgets the pinned handles of a driver (call before quitting it)
+     @param driver WebDriver instance
+     */
+    public static void detach(WebDriver driver) {
+        if (driver != null) {
+            PINNED.remove(driver);
+            UNPINNABLE.remove(driver);
+        }
+    }
+
+    /**
+     Builds the statistics table, one row per script that was called
+     @return Header row followed by script rows
+     */
+    public static String[][] toTable() {
+        List<String[]> rows = new ArrayList<>();
+        rows.add(new String[]{"Script", "Calls", "Pinned calls", "Avg ms", "Max ms"});
+        for (Script script : SCRIPTS.values()) {
+            if (script.getCalls() > 0) {
+                rows.add(new String[]{script.getName(), String.valueOf(script.getCalls()), String.valueOf(script.getPinnedCalls()),
+                    String.format("%.2f", script.getAverageMillis()), String.format("%.2f", script.getMaxMillis())});
+            }
+        }
+        return rows.toArray(new String[0][]);
+    }
+
+    /**
+     Adds the call counts and latencies as a test entry in the Extent report
+     */
+    public static void addToReport() {
+        String[][] table = toTable();
+        if (table.length == 1) {
+            return;
+        }
+        ExtentTest test = ReportManager.createTest("Script Library", "Calls and latency of registered scripts");
+        test.info(MarkupHelper.createTable(table));
+    }
+}
@@ -0,0 +1,232 @@
+package utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// SuiteCheckpoint: remembers which test methods and data-provider rows already finished
+// Every result is appended to test-output/checkpoint/checkpoint.tsv as it happens; the file is
+// fsynced in batches (every checkpoint.fsync.batch results or checkpoint.fsync.interval.ms) so a
+// crash loses at most one batch. With checkpoint.resume=true the next run skips everything that
+// passed. The checkpoint alone decides what is skipped: the Extent JSON archive of the earlier run is
+// only written when the report is flushed, so after a crash it is usually missing or behind. Its
+// passed entries are merged into the new report; the others get a placeholder from the checkpoint.
+public class SuiteCheckpoint {
+
+    private static final String CHECKPOINT_DIR = "test-output/checkpoint/";
+    private static final Path CHECKPOINT_FILE = Paths.get(CHECKPOINT_DIR, "checkpoint.tsv");
+    // Extent JSON archive of the run, loaded back into the report when resuming
+    public static final String REPORT_ARCHIVE = CHECKPOINT_DIR + "report.json";
+
+    // key -> {status, report name} of the previous run (resume mode only)
+    private static Map<String, String[]> previous;
+    private static FileChannel channel;
+    private static ScheduledExecutorService flusher;
+    private static int unsynced;
+
+    /**
+     Checks if checkpointing is turned on in config
+     @return True if checkpoint.enabled is set
+     */
+    public static boolean isEnabled() {
+        return TestDataManager.getBooleanProperty("checkpoint.enabled", false);
+    }
+
+    /**
+     Checks if this run should resume the previous one
+     @return True if checkpointing is enabled and checkpoint.resume is set
+     */
+    public static boolean isResume() {
+        return isEnabled() && TestDataManager.getBooleanProperty("checkpoint.resume", false);
+    }
+
+    /**
+     Opens the checkpoint for writing. A normal run starts a fresh checkpoint; a resumed
+     run keeps appending to the previous one.
+     */
+    public static synchronized void begin() {
+        if (channel != null) {
+            return;
+        }
+        try {
+            Files.createDirectories(CHECKPOINT_FILE.getParent());
+            if (isResume()) {
+                loadPrevious();
+                boolean torn = endsWithTornLine();
+                channel = FileChannel.open(CHECKPOINT_FILE, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                if (torn) {
+                    channel.write(ByteBuffer.wrap(new byte[]{'\n'}));
+                }
+                System.out.println("Resuming from checkpoint: " + getPassedCount() + " passed results will be skipped");
+            } else {
+                Files.deleteIfExists(Paths.get(REPORT_ARCHIVE));
+                channel = FileChannel.open(CHECKPOINT_FILE, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            }
+            long interval = TestDataManager.getIntProperty("checkpoint.fsync.interval.ms", 1000);
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "checkpoint-fsync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(SuiteCheckpoint::sync, interval, interval, TimeUnit.MILLISECONDS);
+        } catch (IOException e) {
+            System.err.println("Checkpointing unavailable: " + e.getMessage());
+        }
+    }
+
+    /**
+     Appends a finished test method or data-provider row to the checkpoint
+     @param key Key from keyOf()
+     @param status PASS, FAIL or SKIP
+     @param reportName Name of the test in the report
+     */
+    public static synchronized void record(String key, String status, String reportName) {
+        if (channel == null) {
+            return;
+        }
+        String line = status + "\t" + key + "\t" + reportName.replace('\t', ' ').replace('\n', ' ') + "\n";
+        try {
+            channel.write(ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8)));
+            if (++unsynced >= TestDataManager.getIntProperty("checkpoint.fsync.batch", 20)) {
+                sync();
+            }
+        } catch (IOException e) {
+            System.err.println("Could not write checkpoint: " + e.getMessage());
+        }
+    }
+
+    /**
+     Forces pending checkpoint entries to disk and stops the background sync
+     */
+    public static synchronized void finish() {
+        if (channel == null) {
+            return;
+        }
+        flusher.shutdownNow();
+        sync();
+        try {
+            channel.close();
+        } catch (IOException ignored) {}
+        channel = null;
+    }
+
+    /**
+     Checks if a test method or data-provider row passed in the run being resumed
+     @param key Key from keyOf()
+     @return True if it can be skipped
+     */
+    public static synchronized boolean hasPassed(String key) {
+        if (!isResume()) {
+            return false;
+        }
+        loadPrevious();
+        String[] entry = previous.get(key);
+        // no need for a report entry: ReportManager adds a placeholder for passed results the archive lacks
+        return entry != null && "PASS".equals(entry[0]);
+    }
+
+    /**
+     Gets the report names of everything that passed in the run being resumed, i.e. the
+     entries of the archived report that the new report should keep
+     @return Report names of passed results
+     */
+    public static synchronized Set<String> getPassedReportNames() {
+        Set<String> names = new HashSet<>();
+        if (isResume()) {
+            loadPrevious();
+            for (String[] entry : previous.values()) {
+                if ("PASS".equals(entry[0])) {
+                    names.add(entry[1]);
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     Builds the checkpoint key of a test method call
+     @param testName Name of the suite's <test>, so the same method in several <test>s is kept apart
+     @param className Test class name
+     @param methodName Test method name
+     @param parameters Data-provider row, or an empty array
+     @return Key that identifies the call across runs
+     */
+    public static String keyOf(String testName, String className, String methodName, Object[] parameters) {
+        String key = testName + "/" + className + "." + methodName;
+        if (parameters != null && parameters.length > 0) {
+            key += Arrays.deepToString(parameters).replace('\t', ' ').replace('\n', ' ');
+        }
+        return key;
+    }
+
+    private static int getPassedCount() {
+        int passed = 0;
+        for (String[] entry : previous.values()) {
+            if ("PASS".equals(entry[0])) {
+                passed++;
+            }
+        }
+        return passed;
+    }
+
+    // Reads the previous checkpoint once; the last entry for a key wins (e.g. a failure that passed on resume)
+    private static void loadPrevious() {
+        if (previous != null) {
+            return;
+        }
+        previous = new LinkedHashMap<>();
+        File file = CHECKPOINT_FILE.toFile();
+        if (!file.exists()) {
+            return;
+        }
+        try {
+            for (String line : Files.readAllLines(CHECKPOINT_FILE, StandardCharsets.UTF_8)) {
+                String[] fields = line.split("\t", 3);
+                // a torn last line from a crash has fewer fields and is ignored
+                if (fields.length == 3) {
+                    previous.put(fields[1], new String[]{fields[0], fields[2]});
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Could not read checkpoint: " + e.getMessage());
+        }
+    }
+
+    // True if a crash cut the last line short, so new entries must start on a fresh line
+    private static boolean endsWithTornLine() throws IOException {
+        if (!Files.exists(CHECKPOINT_FILE) || Files.size(CHECKPOINT_FILE) == 0) {
+            return false;
+        }
+        try (FileChannel reader = FileChannel.open(CHECKPOINT_FILE, StandardOpenOption.READ)) {
+            ByteBuffer last = ByteBuffer.allocate(1);
+            reader.read(last, reader.size() - 1);
+            return last.get(0) != '\n';
+        }
+    }
+
+    private static synchronized void sync() {
+        if (channel == null || unsynced == 0) {
+            return;
+        }
+        try {
+            channel.force(false);
+            unsynced = 0;
+        } catch (IOException e) {
+            System.err.println("Could not sync checkpoint: " + e.getMessage());
+        }
+    }
+}
@@ -58,6 +58,26 @@ public class TestDataManager {
         return properties.getProperty(key, defaultValue);
     }
     
+    /**
+     Gets a boolean property with default value
+     @param key Property key
+     @param defaultValue Default value if key not found
+     @return Parsed boolean value
+     */
+    public static boolean getBooleanProperty(String key, boolean defaultValue) {
+        return Boolean.parseBoolean(getProperty(key, String.valueOf(defaultValue)));
+    }
+    
+    /**
+     Gets an integer property with default value
+     @param key Property key
+     @param defaultValue Default value if key not found
+     @return Parsed integer value
+     */
+    public static int getIntProperty(String key, int defaultValue) {
+        return Integer.parseInt(getProperty(key, String.valueOf(defaultValue)).trim());
+    }
+    
     /**
      Gets the application URL
      @return Application URL
@@ -0,0 +1,252 @@
+package utils;
+
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.markuputils.MarkupHelper;
+import org.openqa.selenium.By;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+// TestImpact: which page-object methods and locators each test exercised, and which tests a change affects
+// Page objects report every locator they use; the page-object methods on the stack at that moment are
+// recorded with it (e.g. "MainPage.getHeaderText", "BasePage.isElementVisible", "By.tagName: h1").
+// The map is kept in test-output/impact/impact-map.tsv, one "test<TAB>entry" line per entry; a run
+// replaces the entries of the tests that passed, adds to the entries of tests that failed or were skipped
+// (they may have stopped before some of their page-object calls) and keeps the others. With impact.changed set, only tests
+// whose entries intersect the change run, plus tests the map does not know yet. A change that cannot be
+// pinned to page-object methods or locators (utils, config, a method no test was seen using) runs all.
+public class TestImpact {
+
+    private static final Path MAP_FILE = Paths.get("test-output", "impact", "impact-map.tsv");
+    // Change entry meaning "cannot narrow this down"
+    public static final String ALL = "*";
+    // Change entry prefixes for edited tests: "test:<class>.<method>" and "class:<class>"
+    public static final String TEST_PREFIX = "test:";
+    public static final String CLASS_PREFIX = "class:";
+
+    private static final StackWalker STACK = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+    private static final ThreadLocal<String> CURRENT_TEST = new ThreadLocal<>();
+    private static final ThreadLocal<Set<String>> CURRENT = new ThreadLocal<>();
+    // test -> entries recorded in this run
+    private static final Map<String, Set<String>> RECORDED = new ConcurrentHashMap<>();
+    // tests with a failed or skipped invocation in this run; their recording may be incomplete
+    private static final Set<String> INCOMPLETE = ConcurrentHashMap.newKeySet();
+
+    private static Set<String> changes;
+    private static Map<String, Set<String>> savedMap;
+
+    /**
+     Checks if tests record the page-object methods and locators they use
+     @return True if impact.record.enabled is set
+     */
+    public static boolean isRecording() {
+        return TestDataManager.getBooleanProperty("impact.record.enabled", true);
+    }
+
+    /**
+     Checks if this run should only run the tests affected by impact.changed
+     @return True if impact.changed is set
+     */
+    public static boolean isSelecting() {
+        return !TestDataManager.getProperty("impact.changed", "").trim().isEmpty();
+    }
+
+    /**
+     Starts recording for a test on the current thread (retries and data-provider rows add to the same entry)
+     @param test Qualified test name, e.g. tests.UrlFlowTest.testNavigationFlow
+     */
+    public static void startTest(String test) {
+        if (isRecording()) {
+            CURRENT_TEST.set(test);
+            CURRENT.set(RECORDED.computeIfAbsent(test, k -> ConcurrentHashMap.newKeySet()));
+        }
+    }
+
+    /**
+     Stops recording on the current thread, for an attempt that will be retried
+     */
+    public static void finishTest() {
+        CURRENT_TEST.remove();
+        CURRENT.remove();
+    }
+
+    /**
+     Stops recording on the current thread
+     @param passed False if the test failed or was skipped; its entries are then added to the saved ones
+     instead of replacing them
+     */
+    public static void finishTest(boolean passed) {
+        String test = CURRENT_TEST.get();
+        if (test != null && !passed) {
+            INCOMPLETE.add(test);
+        }
+        finishTest();
+    }
+
+    /**
+     Records a locator, and the page-object methods using it, for the test running on this thread
+     @param pageRoot Base class of the page objects; methods of its subclasses on the stack are recorded
+     @param by Locator being used
+     */
+    public static void record(Class<?> pageRoot, By by) {
+        Set<String> entries = CURRENT.get();
+        if (entries == null) {
+            return;
+        }
+        entries.add(by.toString());
+        STACK.forEach(frame -> {
+            if (pageRoot.isAssignableFrom(frame.getDeclaringClass())) {
+                String method = methodName(frame.getMethodName());
+                if (method != null) {
+                    entries.add(frame.getDeclaringClass().getSimpleName() + "." + method);
+                }
+            }
+        });
+    }
+
+    // Source method of a frame: lambda$getHeaderText$0 -> getHeaderText; null for constructors
+    private static String methodName(String frameMethod) {
+        if (frameMethod.startsWith("lambda$")) {
+            int end = frameMethod.indexOf('$', 7);
+            return end > 7 ? frameMethod.substring(7, end) : null;
+        }
+        return frameMethod.startsWith("<") ? null : frameMethod;
+    }
+
+    /**
+     Writes this run's entries into the impact map: passed tests get this run's entries, failed or
+     skipped ones keep their saved entries plus this run's, and tests that did not run keep theirs
+     */
+    public static synchronized void save() {
+        if (RECORDED.isEmpty()) {
+            return;
+        }
+        Map<String, Set<String>> map = new TreeMap<>(loadMap());
+        for (Map.Entry<String, Set<String>> test : RECORDED.entrySet()) {
+            Set<String> entries = new TreeSet<>(test.getValue());
+            if (INCOMPLETE.contains(test.getKey()) && map.containsKey(test.getKey())) {
+                entries.addAll(map.get(test.getKey()));
+            }
+            map.put(test.getKey(), entries);
+        }
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<String, Set<String>> test : map.entrySet()) {
+            for (String entry : test.getValue()) {
+                lines.add(test.getKey() + "\t" + entry);
+            }
+        }
+        try {
+            Files.createDirectories(MAP_FILE.getParent());
+            Files.write(MAP_FILE, lines, StandardCharsets.UTF_8);
+            savedMap = map;
+        } catch (IOException e) {
+            System.err.println("Could not save test impact map: " + e.getMessage());
+        }
+    }
+
+    /**
+     Loads the impact map saved by earlier runs
+     @return Test -> recorded entries; empty if there is no map yet
+     */
+    public static synchronized Map<String, Set<String>> loadMap() {
+        if (savedMap != null) {
+            return savedMap;
+        }
+        Map<String, Set<String>> map = new TreeMap<>();
+        if (Files.exists(MAP_FILE)) {
+            try {
+                for (String line : Files.readAllLines(MAP_FILE, StandardCharsets.UTF_8)) {
+                    int tab = line.indexOf('\t');
+                    if (tab > 0) {
+                        map.computeIfAbsent(line.substring(0, tab), k -> new TreeSet<>()).add(line.substring(tab + 1));
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("Could not read test impact map: " + e.getMessage());
+            }
+        }
+        savedMap = map;
+        return map;
+    }
+
+    /**
+     Gets the change the selection is based on: impact.changed=git diffs against impact.base.ref
+     (see PageObjectDiff), anything else is a ';'-separated list of page-object methods and locators,
+     e.g. "MainPage.getHeaderText;By.cssSelector: button"
+     @return Changed entries; contains ALL when the change cannot be narrowed down
+     */
+    public static synchronized Set<String> getChanges() {
+        if (changes == null) {
+            String spec = TestDataManager.getProperty("impact.changed", "").trim();
+            if ("git".equalsIgnoreCase(spec)) {
+                changes = PageObjectDiff.fromGit(TestDataManager.getProperty("impact.base.ref", "HEAD"));
+            } else {
+                changes = new LinkedHashSet<>();
+                for (String entry : spec.split(";")) {
+                    if (!entry.trim().isEmpty()) {
+                        changes.add(entry.trim());
+                    }
+                }
+            }
+            // a changed method no recorded test was seen in may still be used without a locator lookup
+            // (e.g. BasePage.getCurrentUrl); a new locator value has no users yet, its old value counts
+            Set<String> known = new LinkedHashSet<>();
+            for (Set<String> entries : loadMap().values()) {
+                known.addAll(entries);
+            }
+            for (String change : new ArrayList<>(changes)) {
+                if (!change.equals(ALL) && !change.startsWith("By.") && !change.startsWith(TEST_PREFIX)
+                    && !change.startsWith(CLASS_PREFIX) && !known.contains(change)) {
+                    System.out.println("Impact selection: no recorded test uses " + change + "; running all tests");
+                    changes.add(ALL);
+                }
+            }
+        }
+        return changes;
+    }
+
+    /**
+     Checks if a test has to run for the current change
+     @param testClass Fully qualified test class
+     @param test Qualified test name (class + "." + method)
+     @return True if the test is affected, edited, or not in the impact map yet
+     */
+    public static boolean isAffected(String testClass, String test) {
+        Set<String> changed = getChanges();
+        if (changed.contains(ALL) || changed.contains(TEST_PREFIX + test) || changed.contains(CLASS_PREFIX + testClass)) {
+            return true;
+        }
+        Set<String> entries = loadMap().get(test);
+        return entries == null || !Collections.disjoint(entries, changed);
+    }
+
+    /**
+     Adds "Test Impact Selection" to the report: the change and the tests left out for it
+     @param context Name of the <test> the selection was made for
+     @param selected Number of tests that run
+     @param skipped Qualified names of the tests left out
+     */
+    public static void addToReport(String context, int selected, List<String> skipped) {
+        List<String> changed = new ArrayList<>(getChanges());
+        String[][] table = new String[Math.max(changed.size(), skipped.size()) + 1][];
+        table[0] = new String[]{"Changed", "Left out (" + skipped.size() + ", " + selected + " run)"};
+        for (int i = 1; i < table.length; i++) {
+            table[i] = new String[]{i <= changed.size() ? changed.get(i - 1) : "", i <= skipped.size() ? skipped.get(i - 1) : ""};
+        }
+        ExtentTest test = ReportManager.createTest("Test Impact Selection - " + context,
+            "Tests selected by the page-object methods and locators they used (impact.changed)");
+        test.info(MarkupHelper.createTable(table));
+    }
+}
@@ -0,0 +1,108 @@
+package utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// TestRecord: the stored result of one test in one run
+// Serialized as a single compact JSON line in the run-history files
+public class TestRecord {
+    
+    private final String runId;
+    private final String testName;
+    private final String status;
+    private final long durationMs;
+    private final Map<String, Long> actionCounts;
+    private final Map<String, Double> actionMillis;
+    private final Map<String, Double> pageMetrics;
+    
+    public TestRecord(String runId, String testName, String status, long durationMs,
+                      Map<String, Long> actionCounts, Map<String, Double> actionMillis, Map<String, Double> pageMetrics) {
+        this.runId = runId;
+        this.testName = testName;
+        this.status = status;
+        this.durationMs = durationMs;
+        this.actionCounts = actionCounts;
+        this.actionMillis = actionMillis;
+        this.pageMetrics = pageMetrics;
+    }
+    
+    /**
+     Converts the record to a map for JSON output
+     @return Map representation
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("runId", runId);
+        map.put("test", testName);
+        map.put("status", status);
+        map.put("durationMs", durationMs);
+        map.put("actionCounts", actionCounts);
+        map.put("actionMillis", actionMillis);
+        map.put("pageMetrics", pageMetrics);
+        return map;
+    }
+    
+    /**
+     Rebuilds a record from its JSON map form
+     @param map Parsed JSON object
+     @return TestRecord instance
+     */
+    public static TestRecord fromMap(Map<String, Object> map) {
+        return new TestRecord(
+            String.valueOf(map.get("runId")),
+            String.valueOf(map.get("test")),
+            String.valueOf(map.get("status")),
+            ((Number) map.get("durationMs")).longValue(),
+            toLongMap(map.get("actionCounts")),
+            toDoubleMap(map.get("actionMillis")),
+            toDoubleMap(map.get("pageMetrics")));
+    }
+    
+    private static Map<String, Long> toLongMap(Object raw) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        if (raw instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) raw).entrySet()) {
+                result.put(String.valueOf(entry.getKey()), ((Number) entry.getValue()).longValue());
+            }
+        }
+        return result;
+    }
+    
+    private static Map<String, Double> toDoubleMap(Object raw) {
+        Map<String, Double> result = new LinkedHashMap<>();
+        if (raw instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) raw).entrySet()) {
+                result.put(String.valueOf(entry.getKey()), ((Number) entry.getValue()).doubleValue());
+            }
+        }
+        return result;
+    }
+    
+    public String getRunId() {
+        return runId;
+    }
+    
+    public String getTestName() {
+        return testName;
+    }
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    public long getDurationMs() {
+        return durationMs;
+    }
+    
+    public Map<String, Long> getActionCounts() {
+        return actionCounts;
+    }
+    
+    public Map<String, Double> getActionMillis() {
+        return actionMillis;
+    }
+    
+    public Map<String, Double> getPageMetrics() {
+        return pageMetrics;
+    }
+}
@@ -0,0 +1,123 @@
+package utils;
+
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.markuputils.MarkupHelper;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+// VisualCheck: screenshot comparison against stored baselines
+// Baselines are PNGs under visual.baseline.dir/<browser>/<name>.png. A missing baseline is recorded
+// from the current screenshot (as is every screenshot with visual.update.baselines=true); otherwise
+// the screenshot is compared with VisualComparator and the changed tiles are attached to the report.
+public class VisualCheck {
+
+    /**
+     Checks if visual checks are turned on in config
+     @return True if visual.enabled is set
+     */
+    public static boolean isEnabled() {
+        return TestDataManager.getBooleanProperty("visual.enabled", false);
+    }
+
+    /**
+     Compares a screenshot of the viewport with its baseline
+     @param driver WebDriver instance (must support screenshots)
+     @param name Baseline name
+     @return Comparison result (a match when the baseline was just recorded)
+     */
+    public static VisualComparator.Result verify(WebDriver driver, String name) {
+        return verify(driver, ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES), name);
+    }
+
+    /**
+     Compares a screenshot of one element with its baseline
+     @param driver WebDriver instance
+     @param element Element to capture, e.g. a page object's bound field
+     @param name Baseline name
+     @return Comparison result (a match when the baseline was just recorded)
+     */
+    public static VisualComparator.Result verify(WebDriver driver, WebElement element, String name) {
+        return verify(driver, element.getScreenshotAs(OutputType.BYTES), name);
+    }
+
+    private static VisualComparator.Result verify(WebDriver driver, byte[] png, String name) {
+        Path baselineFile = getBaselineDir(driver).resolve(name + ".png");
+        try {
+            BufferedImage actual = ImageIO.read(new ByteArrayInputStream(png));
+            if (!Files.exists(baselineFile) || TestDataManager.getBooleanProperty("visual.update.baselines", false)) {
+                Files.createDirectories(baselineFile.getParent());
+                Files.write(baselineFile, png);
+                ReportManager.logInfo("Recorded visual baseline " + baselineFile);
+                return VisualComparator.identical(actual.getWidth(), actual.getHeight());
+            }
+
+            BufferedImage baseline = ImageIO.read(baselineFile.toFile());
+            int[] expectedPixels = VisualComparator.toPixels(baseline);
+            int[] actualPixels = VisualComparator.toPixels(actual);
+            long start = System.nanoTime();
+            VisualComparator.Result result = VisualComparator.compare(expectedPixels, baseline.getWidth(), baseline.getHeight(),
+                actualPixels, actual.getWidth(), actual.getHeight(), ForkJoinPool.commonPool());
+            long compareMillis = (System.nanoTime() - start) / 1_000_000;
+            addToReport(name, result, compareMillis, expectedPixels, actualPixels, png);
+            return result;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not compare screenshot with baseline " + baselineFile, e);
+        }
+    }
+
+    // Baselines are kept per browser since rendering differs between engines
+    private static Path getBaselineDir(WebDriver driver) {
+        String browser = driver instanceof HasCapabilities
+            ? ((HasCapabilities) driver).getCapabilities().getBrowserName() : "unknown";
+        return Paths.get(TestDataManager.getProperty("visual.baseline.dir", "src/test/resources/baselines"),
+            browser == null || browser.isEmpty() ? "unknown" : browser.toLowerCase());
+    }
+
+    // Adds the comparison table to the current test and attaches a diff image per changed tile
+    // (up to visual.max.diff.images), or the whole screenshot when the layout changed
+    private static void addToReport(String name, VisualComparator.Result result, long compareMillis,
+                                    int[] expectedPixels, int[] actualPixels, byte[] png) throws IOException {
+        ExtentTest test = ReportManager.getCurrentTest();
+        if (test == null) {
+            return;
+        }
+        List<Integer> changedTiles = result.getChangedTiles();
+        String[][] table = {
+            {"Baseline", name},
+            {"Result", result.isMatch() ? "match" : result.getSummary()},
+            {"Hash distance", String.valueOf(result.getHashDistance())},
+            {"Changed tiles", result.isLayoutChanged() ? "-" : changedTiles.size() + " / " + result.getTileCount()},
+            {"Changed pixels", result.isLayoutChanged() ? "-" : String.valueOf(result.getTotalChangedPixels())},
+            {"Compare ms", String.valueOf(compareMillis)}
+        };
+        test.info(MarkupHelper.createTable(table));
+
+        if (result.isLayoutChanged()) {
+            ReportManager.attachFile("visual/" + name + "/actual.png", png, name + ": layout changed");
+            return;
+        }
+        int limit = TestDataManager.getIntProperty("visual.max.diff.images", 20);
+        for (int i = 0; i < changedTiles.size() && i < limit; i++) {
+            int tile = changedTiles.get(i);
+            int[] bounds = result.getTileBounds(tile);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(VisualComparator.renderTileDiff(result, tile, expectedPixels, actualPixels), "png", out);
+            ReportManager.attachFile("visual/" + name + "/tile_" + bounds[0] + "_" + bounds[1] + ".png", out.toByteArray(),
+                name + " at " + bounds[0] + "," + bounds[1] + ": " + result.getChangedPixels(tile) + " pixels (baseline | actual | diff)");
+        }
+    }
+}
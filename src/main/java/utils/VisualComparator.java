@@ -0,0 +1,362 @@
+package utils;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// VisualComparator: compares two screenshots held as int[] RGB pixel arrays
+// A 64-bit difference hash (dHash) of each image is the prefilter: when it is further apart than
+// visual.hash.max.distance the layout changed as a whole and no pixel diff is done. Otherwise the
+// image is cut into square tiles whose rows are diffed in parallel on a fork-join pool; each pixel row
+// is first checked with Arrays.mismatch (vectorized by the JIT) and pixels are only counted in the
+// tiles that differ. Nothing is allocated per pixel. Diff images are rendered for changed tiles only.
+public class VisualComparator {
+
+    // Outcome of a comparison
+    public static class Result {
+        private final int width;
+        private final int height;
+        private final int tileSize;
+        private final int columns;
+        private final int rows;
+        private final int hashDistance;
+        private final boolean layoutChanged;
+        // Changed pixel count per tile, row-major; null when the tile diff was skipped
+        private final int[] changedPixels;
+        private final int minChangedPixels;
+
+        Result(int width, int height, int tileSize, int hashDistance, boolean layoutChanged, int[] changedPixels, int minChangedPixels) {
+            this.width = width;
+            this.height = height;
+            this.tileSize = tileSize;
+            this.columns = (width + tileSize - 1) / tileSize;
+            this.rows = (height + tileSize - 1) / tileSize;
+            this.hashDistance = hashDistance;
+            this.layoutChanged = layoutChanged;
+            this.changedPixels = changedPixels;
+            this.minChangedPixels = minChangedPixels;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        public int getTileSize() {
+            return tileSize;
+        }
+
+        public int getTileCount() {
+            return columns * rows;
+        }
+
+        // Hamming distance of the two dHashes (0-64)
+        public int getHashDistance() {
+            return hashDistance;
+        }
+
+        // True when the sizes differ or the hashes are too far apart for a tile diff to be useful
+        public boolean isLayoutChanged() {
+            return layoutChanged;
+        }
+
+        public boolean isMatch() {
+            return !layoutChanged && getChangedTiles().isEmpty();
+        }
+
+        // Row-major indexes of the tiles with at least visual.tile.min.pixels changed pixels
+        public List<Integer> getChangedTiles() {
+            List<Integer> tiles = new ArrayList<>();
+            if (changedPixels != null) {
+                for (int i = 0; i < changedPixels.length; i++) {
+                    if (changedPixels[i] >= minChangedPixels) {
+                        tiles.add(i);
+                    }
+                }
+            }
+            return tiles;
+        }
+
+        public int getChangedPixels(int tile) {
+            return changedPixels == null ? 0 : changedPixels[tile];
+        }
+
+        public long getTotalChangedPixels() {
+            long total = 0;
+            if (changedPixels != null) {
+                for (int count : changedPixels) {
+                    total += count;
+                }
+            }
+            return total;
+        }
+
+        // Pixel bounds {x, y, width, height} of a tile
+        public int[] getTileBounds(int tile) {
+            int x = (tile % columns) * tileSize;
+            int y = (tile / columns) * tileSize;
+            return new int[]{x, y, Math.min(tileSize, width - x), Math.min(tileSize, height - y)};
+        }
+
+        public String getSummary() {
+            if (layoutChanged) {
+                return "Layout changed (hash distance " + hashDistance + ", " + width + "x" + height + ")";
+            }
+            return getChangedTiles().size() + " of " + getTileCount() + " tiles changed, "
+                + getTotalChangedPixels() + " pixels (hash distance " + hashDistance + ")";
+        }
+    }
+
+    /**
+     Compares two images with the tile size and tolerances from config, on the common fork-join pool
+     @param baseline Expected image
+     @param actual Captured image
+     @return Comparison result
+     */
+    public static Result compare(BufferedImage baseline, BufferedImage actual) {
+        return compare(toPixels(baseline), baseline.getWidth(), baseline.getHeight(),
+            toPixels(actual), actual.getWidth(), actual.getHeight(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     Compares two images given as RGB pixel arrays
+     @param baseline Expected pixels, row-major
+     @param baselineWidth Width of the expected image
+     @param baselineHeight Height of the expected image
+     @param actual Captured pixels, row-major
+     @param width Width of the captured image
+     @param height Height of the captured image
+     @param pool Pool the tile diff runs on
+     @return Comparison result
+     */
+    public static Result compare(int[] baseline, int baselineWidth, int baselineHeight,
+                                 int[] actual, int width, int height, ForkJoinPool pool) {
+        int tileSize = TestDataManager.getIntProperty("visual.tile.size", 64);
+        int minChangedPixels = Math.max(1, TestDataManager.getIntProperty("visual.tile.min.pixels", 4));
+        int distance = Long.bitCount(dHash(baseline, baselineWidth, baselineHeight) ^ dHash(actual, width, height));
+        if (baselineWidth != width || baselineHeight != height
+            || distance > TestDataManager.getIntProperty("visual.hash.max.distance", 12)) {
+            return new Result(width, height, tileSize, distance, true, null, minChangedPixels);
+        }
+
+        int tolerance = TestDataManager.getIntProperty("visual.pixel.tolerance", 16);
+        int columns = (width + tileSize - 1) / tileSize;
+        int rows = (height + tileSize - 1) / tileSize;
+        int[] changedPixels = new int[columns * rows];
+        pool.invoke(new TileDiff(baseline, actual, width, height, tileSize, columns, tolerance, changedPixels, 0, rows));
+        return new Result(width, height, tileSize, distance, false, changedPixels, minChangedPixels);
+    }
+
+    // Result for an image compared with itself, e.g. a baseline that was just recorded
+    static Result identical(int width, int height) {
+        int tileSize = TestDataManager.getIntProperty("visual.tile.size", 64);
+        int tiles = ((width + tileSize - 1) / tileSize) * ((height + tileSize - 1) / tileSize);
+        return new Result(width, height, tileSize, 0, false, new int[tiles], 1);
+    }
+
+    /**
+     Computes a 64-bit difference hash: the image is reduced to 9x8 grey cells (averaged over a
+     sample grid) and each bit tells whether a cell is brighter than its right neighbour
+     @param pixels RGB pixels, row-major
+     @param width Image width
+     @param height Image height
+     @return Hash; similar images have a small Hamming distance
+     */
+    public static long dHash(int[] pixels, int width, int height) {
+        final int cellsX = 9;
+        final int cellsY = 8;
+        final int samples = 8;
+        int[] grey = new int[cellsX * cellsY];
+        for (int cy = 0; cy < cellsY; cy++) {
+            for (int cx = 0; cx < cellsX; cx++) {
+                int sum = 0;
+                for (int sy = 0; sy < samples; sy++) {
+                    int y = (int) (((cy * samples + sy) * 2L + 1) * height / (2L * cellsY * samples));
+                    for (int sx = 0; sx < samples; sx++) {
+                        int x = (int) (((cx * samples + sx) * 2L + 1) * width / (2L * cellsX * samples));
+                        sum += luminance(pixels[y * width + x]);
+                    }
+                }
+                grey[cy * cellsX + cx] = sum;
+            }
+        }
+        long hash = 0;
+        for (int cy = 0; cy < cellsY; cy++) {
+            for (int cx = 0; cx < cellsX - 1; cx++) {
+                hash <<= 1;
+                if (grey[cy * cellsX + cx] > grey[cy * cellsX + cx + 1]) {
+                    hash |= 1;
+                }
+            }
+        }
+        return hash;
+    }
+
+    /**
+     Renders one tile as baseline | actual | highlight, the highlight being the actual tile in
+     faded grey with changed pixels in red
+     @param result Result of compare()
+     @param tile Tile index from getChangedTiles()
+     @param baseline Expected pixels
+     @param actual Captured pixels
+     @return Image three tiles wide
+     */
+    public static BufferedImage renderTileDiff(Result result, int tile, int[] baseline, int[] actual) {
+        int[] bounds = result.getTileBounds(tile);
+        int tolerance = TestDataManager.getIntProperty("visual.pixel.tolerance", 16);
+        int tileWidth = bounds[2];
+        BufferedImage image = new BufferedImage(tileWidth * 3, bounds[3], BufferedImage.TYPE_INT_RGB);
+        int[] highlight = new int[tileWidth];
+        for (int row = 0; row < bounds[3]; row++) {
+            int offset = (bounds[1] + row) * result.getWidth() + bounds[0];
+            image.setRGB(0, row, tileWidth, 1, baseline, offset, tileWidth);
+            image.setRGB(tileWidth, row, tileWidth, 1, actual, offset, tileWidth);
+            for (int x = 0; x < tileWidth; x++) {
+                int expected = baseline[offset + x];
+                int captured = actual[offset + x];
+                if (differs(expected, captured, tolerance)) {
+                    highlight[x] = 0xFF0000;
+                } else {
+                    int faded = 192 + luminance(captured) / 4;
+                    highlight[x] = faded << 16 | faded << 8 | faded;
+                }
+            }
+            image.setRGB(tileWidth * 2, row, tileWidth, 1, highlight, 0, tileWidth);
+        }
+        return image;
+    }
+
+    /**
+     Gets the pixels of an image as opaque RGB ints, reading the raster directly for the
+     image types screenshots decode to
+     @param image Image
+     @return Pixels, row-major
+     */
+    public static int[] toPixels(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = new int[width * height];
+        switch (image.getType()) {
+            case BufferedImage.TYPE_INT_RGB:
+            case BufferedImage.TYPE_INT_ARGB: {
+                int[] data = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+                if (data.length == pixels.length) {
+                    for (int i = 0; i < pixels.length; i++) {
+                        pixels[i] = data[i] | 0xFF000000;
+                    }
+                    return pixels;
+                }
+                break;
+            }
+            case BufferedImage.TYPE_3BYTE_BGR:
+            case BufferedImage.TYPE_4BYTE_ABGR: {
+                byte[] data = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+                int step = image.getType() == BufferedImage.TYPE_3BYTE_BGR ? 3 : 4;
+                int blue = step == 3 ? 0 : 1;
+                if (data.length == pixels.length * step) {
+                    for (int i = 0, b = blue; i < pixels.length; i++, b += step) {
+                        pixels[i] = 0xFF000000 | (data[b + 2] & 0xFF) << 16 | (data[b + 1] & 0xFF) << 8 | (data[b] & 0xFF);
+                    }
+                    return pixels;
+                }
+                break;
+            }
+            default:
+                break;
+        }
+        image.getRGB(0, 0, width, height, pixels, 0, width);
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] |= 0xFF000000;
+        }
+        return pixels;
+    }
+
+    // Diffs a range of tile rows, splitting it in halves down to single rows of tiles. A row of tiles
+    // is walked pixel row by pixel row across all its tiles, so memory is read front to back.
+    private static class TileDiff extends RecursiveAction {
+        private final int[] baseline;
+        private final int[] actual;
+        private final int width;
+        private final int height;
+        private final int tileSize;
+        private final int columns;
+        private final int tolerance;
+        private final int[] changedPixels;
+        private final int fromRow;
+        private final int toRow;
+
+        TileDiff(int[] baseline, int[] actual, int width, int height, int tileSize, int columns, int tolerance,
+                 int[] changedPixels, int fromRow, int toRow) {
+            this.baseline = baseline;
+            this.actual = actual;
+            this.width = width;
+            this.height = height;
+            this.tileSize = tileSize;
+            this.columns = columns;
+            this.tolerance = tolerance;
+            this.changedPixels = changedPixels;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+        }
+
+        @Override
+        protected void compute() {
+            if (toRow - fromRow <= 1) {
+                for (int tileRow = fromRow; tileRow < toRow; tileRow++) {
+                    diffTileRow(tileRow);
+                }
+                return;
+            }
+            int middle = (fromRow + toRow) >>> 1;
+            invokeAll(new TileDiff(baseline, actual, width, height, tileSize, columns, tolerance, changedPixels, fromRow, middle),
+                new TileDiff(baseline, actual, width, height, tileSize, columns, tolerance, changedPixels, middle, toRow));
+        }
+
+        private void diffTileRow(int tileRow) {
+            int top = tileRow * tileSize;
+            int bottom = Math.min(top + tileSize, height);
+            int firstTile = tileRow * columns;
+            for (int y = top; y < bottom; y++) {
+                int rowStart = y * width;
+                int rowEnd = rowStart + width;
+                // most rows are unchanged across the whole width
+                if (Arrays.mismatch(baseline, rowStart, rowEnd, actual, rowStart, rowEnd) < 0) {
+                    continue;
+                }
+                for (int column = 0; column < columns; column++) {
+                    int start = rowStart + column * tileSize;
+                    int end = Math.min(start + tileSize, rowEnd);
+                    int mismatch = Arrays.mismatch(baseline, start, end, actual, start, end);
+                    if (mismatch < 0) {
+                        continue;
+                    }
+                    int changed = 0;
+                    for (int i = start + mismatch; i < end; i++) {
+                        if (differs(baseline[i], actual[i], tolerance)) {
+                            changed++;
+                        }
+                    }
+                    changedPixels[firstTile + column] += changed;
+                }
+            }
+        }
+    }
+
+    private static boolean differs(int expected, int captured, int tolerance) {
+        return Math.abs((expected >> 16 & 0xFF) - (captured >> 16 & 0xFF)) > tolerance
+            || Math.abs((expected >> 8 & 0xFF) - (captured >> 8 & 0xFF)) > tolerance
+            || Math.abs((expected & 0xFF) - (captured & 0xFF)) > tolerance;
+    }
+
+    private static int luminance(int rgb) {
+        return ((rgb >> 16 & 0xFF) * 77 + (rgb >> 8 & 0xFF) * 150 + (rgb & 0xFF) * 29) >> 8;
+    }
+}
@@ -1,5 +1,6 @@
 package utils;
 
+import dom.DomDriver;
 import io.github.bonigarcia.wdm.WebDriverManager;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
@@ -9,17 +10,21 @@ import org.openqa.selenium.firefox.FirefoxOptions;
 import org.openqa.selenium.edge.EdgeDriver;
 import org.openqa.selenium.edge.EdgeOptions;
 
+import java.nio.file.Path;
+import java.util.function.Supplier;
+
 // WebDriverManager utility for managing browser instances
-// Supports Chrome, Firefox, and Edge
+// Supports Chrome, Firefox, and Edge, plus the browserless DOM driver (dom.DomDriver)
 public class WebDriverManagerUtil {
     
     private static final String CHROME = "chrome";
     private static final String FIREFOX = "firefox";
     private static final String EDGE = "edge";
+    private static final String DOM = DomDriver.BROWSER_NAME;
     
     /**
      Creates and returns a WebDriver instance based on the specified browser
-     @param browserName Name of the browser (chrome, firefox, edge)
+     @param browserName Name of the browser (chrome, firefox, edge, dom)
      @return WebDriver instance
      */
     public static WebDriver createDriver(String browserName) {
@@ -28,19 +33,19 @@ public class WebDriverManagerUtil {
         switch (browserName.toLowerCase()) {
             case CHROME:
                 WebDriverManager.chromedriver().setup();
-                ChromeOptions chromeOptions = new ChromeOptions();
-                chromeOptions.addArguments("--start-maximized");
-                chromeOptions.addArguments("--disable-notifications");
-                chromeOptions.addArguments("--disable-popup-blocking");
-                // Headless for speed, controlled via config
-                if (Boolean.parseBoolean(TestDataManager.getProperty("headless", "true"))) {
-                    chromeOptions.addArguments("--headless=new");
-                    chromeOptions.addArguments("--window-size=1366,768");
+                ChromeOptions chromeOptions = createChromeOptions();
+                // Start from a copy of the warm profile so app assets come from the disk cache
+                if (BrowserProfileCache.isEnabled()) {
+                    Path chromeProfile = BrowserProfileCache.checkout(CHROME, template -> {
+                        ChromeOptions warmOptions = createChromeOptions();
+                        warmOptions.addArguments("--user-data-dir=" + template);
+                        return new ChromeDriver(warmOptions);
+                    });
+                    chromeOptions.addArguments("--user-data-dir=" + chromeProfile);
+                    driver = startOnProfile(() -> new ChromeDriver(chromeOptions), chromeProfile);
+                } else {
+                    driver = new ChromeDriver(chromeOptions);
                 }
-                // Faster page load: disable images and use eager strategy
-                chromeOptions.addArguments("--blink-settings=imagesEnabled=false");
-                chromeOptions.setPageLoadStrategy(org.openqa.selenium.PageLoadStrategy.EAGER);
-                driver = new ChromeDriver(chromeOptions);
                 break;
                 
             case FIREFOX:
@@ -54,16 +59,72 @@ public class WebDriverManagerUtil {
                 WebDriverManager.edgedriver().setup();
                 EdgeOptions edgeOptions = new EdgeOptions();
                 edgeOptions.addArguments("--start-maximized");
-                driver = new EdgeDriver(edgeOptions);
+                if (BrowserProfileCache.isEnabled()) {
+                    Path edgeProfile = BrowserProfileCache.checkout(EDGE, template -> {
+                        EdgeOptions warmOptions = new EdgeOptions();
+                        warmOptions.addArguments("--user-data-dir=" + template);
+                        return new EdgeDriver(warmOptions);
+                    });
+                    edgeOptions.addArguments("--user-data-dir=" + edgeProfile);
+                    driver = startOnProfile(() -> new EdgeDriver(edgeOptions), edgeProfile);
+                } else {
+                    driver = new EdgeDriver(edgeOptions);
+                }
                 break;
                 
+            case DOM:
+                // Static HTML only: no browser process, no DevTools hooks to attach
+                return new DomDriver();
+                
             default:
                 throw new IllegalArgumentException("Unsupported browser: " + browserName);
         }
         
+        // Stream console/network events into a buffer for failure diagnostics
+        if (BrowserLogCapture.isEnabled()) {
+            BrowserLogCapture.attach(driver);
+        }
+        // Keep a rolling screencast so failures come with a short clip
+        if (ScreencastRecorder.isEnabled()) {
+            ScreencastRecorder.attach(driver);
+        }
+        // Count cached vs network bytes per navigation
+        if (NavigationCacheStats.isEnabled()) {
+            NavigationCacheStats.attach(driver);
+        }
+        
         return driver;
     }
     
+    // Start a browser on a profile copy and tie the copy to it (deleted when the driver quits)
+    private static WebDriver startOnProfile(Supplier<WebDriver> starter, Path profile) {
+        try {
+            WebDriver driver = starter.get();
+            BrowserProfileCache.assign(driver, profile);
+            return driver;
+        } catch (RuntimeException e) {
+            BrowserProfileCache.discard(profile);
+            throw e;
+        }
+    }
+    
+    // Chrome options shared by test drivers and the profile warm-up browser
+    private static ChromeOptions createChromeOptions() {
+        ChromeOptions options = new ChromeOptions();
+        options.addArguments("--start-maximized");
+        options.addArguments("--disable-notifications");
+        options.addArguments("--disable-popup-blocking");
+        // Headless for speed, controlled via config
+        if (Boolean.parseBoolean(TestDataManager.getProperty("headless", "true"))) {
+            options.addArguments("--headless=new");
+            options.addArguments("--window-size=1366,768");
+        }
+        // Faster page load: disable images and use eager strategy
+        options.addArguments("--blink-settings=imagesEnabled=false");
+        options.setPageLoadStrategy(org.openqa.selenium.PageLoadStrategy.EAGER);
+        return options;
+    }
+    
     /**
      Creates a Chrome driver with default settings
      @return Chrome WebDriver instance
@@ -0,0 +1,68 @@
+package benchmarks;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import utils.DevToolsFastPath;
+import utils.WebDriverManagerUtil;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+// DevToolsFastPathBenchmark - Per-command latency of classic WebDriver commands vs the DevTools fast path
+// Needs a local Chrome. Uses a small inline page so results do not depend on the app's network.
+// Run the main method from the IDE after mvn test-compile (not part of testng.xml).
+public class DevToolsFastPathBenchmark {
+    
+    private static final int WARMUP_ITERATIONS = 50;
+    private static final int MEASURED_ITERATIONS = 500;
+    
+    private static final String FIXTURE = "data:text/html,"
+        + "<h1>Fast path benchmark</h1>"
+        + "<input type='text' id='name'>"
+        + "<button onclick='this.dataset.clicks=(+this.dataset.clicks||0)+1'>Start</button>";
+    
+    public static void main(String[] args) {
+        WebDriver driver = WebDriverManagerUtil.createChromeDriver();
+        try {
+            driver.get(FIXTURE);
+            WebElement header = driver.findElement(By.tagName("h1"));
+            WebElement input = driver.findElement(By.cssSelector("input[type='text']"));
+            WebElement button = driver.findElement(By.cssSelector("button"));
+            
+            System.out.println(String.format("%-28s %12s %12s", "Command", "avg us", "p95 us"));
+            measure("WebDriver getText", header::getText);
+            measure("DevTools getText", () -> DevToolsFastPath.getText(driver, "h1"));
+            measure("WebDriver isDisplayed", header::isDisplayed);
+            measure("DevTools isVisible", () -> DevToolsFastPath.isVisible(driver, "h1"));
+            measure("WebDriver clear+sendKeys", () -> {
+                input.clear();
+                input.sendKeys("value");
+                return null;
+            });
+            measure("DevTools setValue", () -> DevToolsFastPath.setValue(driver, "input[type='text']", "value"));
+            measure("WebDriver click", () -> {
+                button.click();
+                return null;
+            });
+            measure("DevTools click", () -> DevToolsFastPath.click(driver, "button"));
+        } finally {
+            driver.quit();
+        }
+    }
+    
+    private static void measure(String name, Supplier<Object> command) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            command.get();
+        }
+        long[] micros = new long[MEASURED_ITERATIONS];
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            long start = System.nanoTime();
+            command.get();
+            micros[i] = (System.nanoTime() - start) / 1000;
+        }
+        Arrays.sort(micros);
+        double average = Arrays.stream(micros).average().orElse(0);
+        System.out.println(String.format("%-28s %12.0f %12d", name, average, micros[(int) (MEASURED_ITERATIONS * 0.95) - 1]));
+    }
+}
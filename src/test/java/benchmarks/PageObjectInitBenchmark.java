@@ -0,0 +1,62 @@
+package benchmarks;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.PageFactory;
+import pages.CachingElementLocatorFactory;
+import pages.MainPage;
+import pages.MainPage_Elements;
+
+import java.lang.reflect.Proxy;
+
+// PageObjectInitBenchmark - Compares generated element binding with PageFactory.initElements
+// Runs without a browser: a stub driver is enough because elements are only located on use.
+// Run the main method from the IDE after mvn test-compile (not part of testng.xml).
+public class PageObjectInitBenchmark {
+    
+    private static final int WARMUP_ITERATIONS = 200_000;
+    private static final int MEASURED_ITERATIONS = 1_000_000;
+    
+    // Sink so the JIT cannot drop the work being measured
+    private static volatile Object sink;
+    
+    public static void main(String[] args) {
+        WebDriver driver = stubDriver();
+        MainPage page = new MainPage(driver);
+        CachingElementLocatorFactory factory = new CachingElementLocatorFactory(driver);
+        
+        System.out.println(String.format("%-40s %12s", "Path", "ns/op"));
+        report("Generated MainPage_Elements.bind", () -> MainPage_Elements.bind(page, factory));
+        report("PageFactory.initElements (proxies)", () -> PageFactory.initElements(driver, page));
+        report("PageFactory + caching locators", () -> PageFactory.initElements(factory, page));
+        report("new MainPage(driver) (generated)", () -> sink = new MainPage(driver));
+    }
+    
+    private static void report(String name, Runnable action) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            action.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            action.run();
+        }
+        double nsPerOp = (double) (System.nanoTime() - start) / MEASURED_ITERATIONS;
+        System.out.println(String.format("%-40s %12.1f", name, nsPerOp));
+    }
+    
+    // WebDriver that answers every call with null; page construction never calls it
+    private static WebDriver stubDriver() {
+        return (WebDriver) Proxy.newProxyInstance(
+            PageObjectInitBenchmark.class.getClassLoader(), new Class[]{WebDriver.class}, (proxy, method, args) -> {
+                if ("toString".equals(method.getName())) {
+                    return "StubDriver";
+                }
+                if ("hashCode".equals(method.getName())) {
+                    return System.identityHashCode(proxy);
+                }
+                if ("equals".equals(method.getName())) {
+                    return proxy == args[0];
+                }
+                return null;
+            });
+    }
+}
@@ -0,0 +1,116 @@
+package benchmarks;
+
+import utils.VisualComparator;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+// VisualDiffBenchmark - Throughput of VisualComparator on large synthetic screenshots
+// Compares the fork-join tile diff with the same diff on one thread and with a naive
+// BufferedImage.getRGB loop, for identical images, a few changed tiles and a changed layout.
+// Runs without a browser. Run the main method from the IDE after mvn test-compile (not part of testng.xml).
+public class VisualDiffBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASURED_ITERATIONS = 20;
+
+    // Sink so the JIT cannot drop the work being measured
+    private static volatile Object sink;
+
+    public static void main(String[] args) {
+        int[][] sizes = {{1920, 1080}, {1920, 8000}, {3840, 2160}};
+        ForkJoinPool singleThread = new ForkJoinPool(1);
+
+        System.out.println(String.format("%-14s %-18s %-22s %10s %10s", "Size", "Scenario", "Path", "ms/op", "MPix/s"));
+        for (int[] size : sizes) {
+            int width = size[0];
+            int height = size[1];
+            int[] baseline = page(width, height, 1);
+            int[] identical = baseline.clone();
+            int[] fewTiles = baseline.clone();
+            // a changed button label and a moved badge
+            fill(fewTiles, width, 300, 200, 180, 40, 0xFF3366CC);
+            fill(fewTiles, width, width - 260, height / 2, 120, 24, 0xFFCC3333);
+            int[] otherLayout = page(width, height, 2);
+            BufferedImage baselineImage = toImage(baseline, width, height);
+            BufferedImage fewTilesImage = toImage(fewTiles, width, height);
+
+            String label = width + "x" + height;
+            report(label, "identical", "fork-join tiles", width, height,
+                () -> VisualComparator.compare(baseline, width, height, identical, width, height, ForkJoinPool.commonPool()));
+            report(label, "identical", "single-thread tiles", width, height,
+                () -> VisualComparator.compare(baseline, width, height, identical, width, height, singleThread));
+            report(label, "few tiles changed", "fork-join tiles", width, height,
+                () -> VisualComparator.compare(baseline, width, height, fewTiles, width, height, ForkJoinPool.commonPool()));
+            report(label, "few tiles changed", "single-thread tiles", width, height,
+                () -> VisualComparator.compare(baseline, width, height, fewTiles, width, height, singleThread));
+            report(label, "few tiles changed", "naive getRGB loop", width, height,
+                () -> naiveDiff(baselineImage, fewTilesImage));
+            report(label, "layout changed", "hash prefilter", width, height,
+                () -> VisualComparator.compare(baseline, width, height, otherLayout, width, height, ForkJoinPool.commonPool()));
+            report(label, "decode to int[]", "toPixels", width, height,
+                () -> VisualComparator.toPixels(fewTilesImage));
+        }
+        singleThread.shutdown();
+
+        VisualComparator.Result result = VisualComparator.compare(toImage(page(1920, 1080, 1), 1920, 1080), toImage(page(1920, 1080, 2), 1920, 1080));
+        System.out.println("Sanity check, different layouts: " + result.getSummary());
+    }
+
+    private static void report(String size, String scenario, String path, int width, int height, Runnable action) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            action.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            action.run();
+        }
+        double msPerOp = (System.nanoTime() - start) / 1e6 / MEASURED_ITERATIONS;
+        double megapixelsPerSecond = (double) width * height / 1e6 / (msPerOp / 1000);
+        System.out.println(String.format("%-14s %-18s %-22s %10.2f %10.0f", size, scenario, path, msPerOp, megapixelsPerSecond));
+    }
+
+    // Pixel-by-pixel comparison through BufferedImage, the approach the tile diff replaces
+    private static void naiveDiff(BufferedImage baseline, BufferedImage actual) {
+        int changed = 0;
+        for (int y = 0; y < baseline.getHeight(); y++) {
+            for (int x = 0; x < baseline.getWidth(); x++) {
+                if (baseline.getRGB(x, y) != actual.getRGB(x, y)) {
+                    changed++;
+                }
+            }
+        }
+        sink = changed;
+    }
+
+    // Page-like image: white background, header band and rows of text-like dashes placed by the seed
+    private static int[] page(int width, int height, long seed) {
+        Random random = new Random(seed);
+        int[] pixels = new int[width * height];
+        Arrays.fill(pixels, 0xFFFFFFFF);
+        fill(pixels, width, 0, 0, width, 80, 0xFF203040);
+        for (int y = 120; y + 16 < height; y += 32) {
+            int x = 40 + random.nextInt(80);
+            while (x < width - 200) {
+                int word = 20 + random.nextInt(120);
+                fill(pixels, width, x, y, word, 12 + random.nextInt(4), 0xFF000000 | random.nextInt(0x404040));
+                x += word + 10 + random.nextInt(20);
+            }
+        }
+        return pixels;
+    }
+
+    private static void fill(int[] pixels, int width, int x, int y, int w, int h, int rgb) {
+        for (int row = y; row < y + h && row < pixels.length / width; row++) {
+            Arrays.fill(pixels, row * width + x, row * width + Math.min(width, x + w), rgb);
+        }
+    }
+
+    private static BufferedImage toImage(int[] pixels, int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, width, height, pixels, 0, width);
+        return image;
+    }
+}
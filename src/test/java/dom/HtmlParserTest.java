@@ -0,0 +1,137 @@
+package dom;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// HtmlParserTest - Unit tests for the DOM driver's HTML parser (no browser needed)
+// Covers implied end tags, void and raw-text elements, attributes, character references
+// and the rendered-text normalisation DomElement.getText relies on
+public class HtmlParserTest {
+    
+    @Test(description = "A new <li>, <option> or <td> ends the open one")
+    public void testImpliedEndTags() {
+        DomNode document = HtmlParser.parse("<ul><li>one<li>two</ul>"
+            + "<select><option>a<option>b<optgroup><option>c</select>"
+            + "<table><tr><td>1<td>2<tr><td>3</table>");
+
+        DomNode list = document.getElementChildren().get(0);
+        Assert.assertEquals(names(list.getElementChildren()), "li li");
+        Assert.assertEquals(list.getElementChildren().get(1).getTextContent(), "two");
+
+        DomNode select = document.getElementChildren().get(1);
+        Assert.assertEquals(names(select.getElementChildren()), "option option optgroup");
+        Assert.assertEquals(select.getElementChildren().get(1).getTextContent(), "b");
+
+        DomNode table = document.getElementChildren().get(2);
+        Assert.assertEquals(names(table.getElementChildren()), "tr tr");
+        Assert.assertEquals(names(table.getElementChildren().get(0).getElementChildren()), "td td");
+        Assert.assertEquals(table.getElementChildren().get(1).getTextContent(), "3");
+    }
+    
+    @Test(description = "Block start tags end an open <p>, except across a container")
+    public void testParagraphEndedByBlock() {
+        DomNode document = HtmlParser.parse("<p>a<div>b</div><p>c<p>d<section><p>e<div>f</div></section>");
+        Assert.assertEquals(names(document.getElementChildren()), "p div p p section");
+
+        DomNode section = document.getElementChildren().get(4);
+        DomNode paragraph = section.getElementChildren().get(0);
+        Assert.assertEquals(names(section.getElementChildren()), "p div");
+        Assert.assertEquals(paragraph.getTextContent(), "e");
+    }
+    
+    @Test(description = "Void and self-closing elements take no children")
+    public void testVoidElements() {
+        DomNode document = HtmlParser.parse("<p>a<br>b<img src=x.png>c<input name=\"q\"/>d</p><div/><span>e</span>");
+
+        DomNode paragraph = document.getElementChildren().get(0);
+        Assert.assertEquals(names(paragraph.getElementChildren()), "br img input");
+        for (DomNode element : paragraph.getElementChildren()) {
+            Assert.assertTrue(element.getChildren().isEmpty(), element + " should have no children");
+        }
+        Assert.assertEquals(paragraph.getTextContent(), "abcd");
+        Assert.assertEquals(paragraph.getElementChildren().get(2).getAttribute("name"), "q");
+
+        // <div/> is closed by its own tag, so the span is its sibling
+        Assert.assertEquals(names(document.getElementChildren()), "p div span");
+    }
+    
+    @Test(description = "Script, style and textarea content is kept as text, not parsed")
+    public void testRawTextElements() {
+        DomNode document = HtmlParser.parse("<script>if (a < b && c) { s = '<div>'; }</script>"
+            + "<textarea>x &lt; y <b>z</b></textarea><div>after</div>");
+
+        Assert.assertEquals(names(document.getElementChildren()), "script textarea div");
+        DomNode script = document.getElementChildren().get(0);
+        Assert.assertTrue(script.getElementChildren().isEmpty());
+        Assert.assertEquals(script.getTextContent(), "if (a < b && c) { s = '<div>'; }");
+        // textarea content is decoded, script content is not
+        Assert.assertEquals(document.getElementChildren().get(1).getTextContent(), "x < y <b>z</b>");
+    }
+    
+    @Test(description = "Attributes: quoted, unquoted, valueless, upper-case and duplicated")
+    public void testAttributes() {
+        DomNode input = HtmlParser.parse("<INPUT Type=checkbox name='agree' value=\"a b\" checked data-x=1 name=other>")
+            .getElementChildren().get(0);
+
+        Assert.assertEquals(input.getName(), "input");
+        Assert.assertEquals(input.getAttribute("type"), "checkbox");
+        Assert.assertEquals(input.getAttribute("TYPE"), "checkbox");
+        Assert.assertEquals(input.getAttribute("value"), "a b");
+        Assert.assertEquals(input.getAttribute("checked"), "");
+        Assert.assertEquals(input.getAttribute("data-x"), "1");
+        // the first of duplicate attributes wins
+        Assert.assertEquals(input.getAttribute("name"), "agree");
+        Assert.assertNull(input.getAttribute("id"));
+    }
+    
+    @Test(description = "Named, decimal and hex character references are decoded; unknown ones are kept")
+    public void testEntities() {
+        DomNode paragraph = HtmlParser.parse("<p title=\"a &amp; b\">&lt;tag&gt; &#65;&#x42; &copy;&nbsp;&unknown; & x</p>")
+            .getElementChildren().get(0);
+
+        Assert.assertEquals(paragraph.getAttribute("title"), "a & b");
+        Assert.assertEquals(paragraph.getTextContent(), "<tag> AB © &unknown; & x");
+        Assert.assertEquals(HtmlParser.decode("no references"), "no references");
+        Assert.assertEquals(HtmlParser.decode("&#xZZ; &;"), "&#xZZ; &;");
+    }
+    
+    @Test(description = "Comments, doctype and stray end tags are skipped")
+    public void testIgnoredMarkup() {
+        DomNode document = HtmlParser.parse("<!DOCTYPE html><!-- <p>hidden</p> --><div>a</span>b<? pi ?></div>1 < 2");
+
+        Assert.assertEquals(names(document.getElementChildren()), "div");
+        Assert.assertEquals(document.getElementChildren().get(0).getTextContent(), "ab");
+        Assert.assertEquals(document.getTextContent(), "ab1 < 2");
+    }
+    
+    @Test(description = "Visible text collapses whitespace and puts blocks and <br> on their own lines")
+    public void testVisibleTextNormalisation() {
+        DomNode div = HtmlParser.parse("<div>  Hello\n   <b>big</b>\t world <p>Next</p>"
+            + "<span hidden>no</span><span style=\"display: none\">no</span>tail<br>after&nbsp;&nbsp;line "
+            + "<input type=submit value=Go><input type=hidden value=secret></div>").getElementChildren().get(0);
+
+        Assert.assertEquals(div.getVisibleText(), "Hello big world\nNext\ntail\nafter line Go");
+        Assert.assertEquals(HtmlParser.parse("<div style='visibility:hidden'><p>x</p></div>")
+            .getElementChildren().get(0).getElementChildren().get(0).getVisibleText(), "");
+    }
+    
+    @Test(description = "Serializing a parsed tree gives back equivalent markup")
+    public void testToHtml() {
+        DomNode document = HtmlParser.parse("<ul class=list><li>a &amp; b<li>c<br></ul>");
+
+        Assert.assertEquals(document.toHtml(false), "<ul class=\"list\"><li>a &amp; b</li><li>c<br></li></ul>");
+        Assert.assertEquals(document.getElementChildren().get(0).toHtml(false), "<li>a &amp; b</li><li>c<br></li>");
+    }
+    
+    // Tag names of a list of elements, separated by spaces
+    private static String names(List<DomNode> nodes) {
+        List<String> names = new ArrayList<>();
+        for (DomNode node : nodes) {
+            names.add(node.getName());
+        }
+        return String.join(" ", names);
+    }
+}
@@ -0,0 +1,160 @@
+package dom;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.InvalidSelectorException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// SelectorsTest - Unit tests for the DOM driver's locator engine (no browser needed)
+// Covers the By strategies, CSS combinators, attribute operators and pseudo-classes,
+// and the supported XPath forms, including what is rejected as unsupported
+public class SelectorsTest {
+    
+    private static final String PAGE = "<div id=\"main\" class=\"box wide\">"
+        + "<h1 lang=\"en-US\">Title</h1>"
+        + "<ul class=\"list\">"
+        + "<li class=\"item\">one</li><li class=\"item active\">two</li><li class=\"item\">three</li><li>four</li>"
+        + "</ul>"
+        + "<p class=\"note\">first</p>"
+        + "<span>after p</span>"
+        + "<form><input type=\"checkbox\" name=\"agree\" checked><input name=\"email\" disabled data-x=\"abc-def\"></form>"
+        + "<a href=\"/next\">Next\n  page</a>"
+        + "</div>";
+    
+    private final DomNode document = HtmlParser.parse(PAGE);
+    
+    @Test(description = "Basic By strategies: id, name, class name, tag name and link text")
+    public void testByStrategies() {
+        Assert.assertEquals(describe(By.id("main")), "div#main");
+        Assert.assertEquals(describe(By.name("email")), "input[email]");
+        Assert.assertEquals(texts(By.className("active")), "two");
+        Assert.assertEquals(find(By.className("item")).size(), 3);
+        Assert.assertEquals(find(By.tagName("LI")).size(), 4);
+        Assert.assertEquals(find(By.linkText("Next page")).size(), 1);
+        Assert.assertEquals(find(By.partialLinkText("Next")).size(), 1);
+        Assert.assertTrue(find(By.linkText("Next")).isEmpty());
+    }
+    
+    @Test(description = "CSS descendant, child, adjacent and general sibling combinators, and groups")
+    public void testCssCombinators() {
+        Assert.assertEquals(find(By.cssSelector("div li")).size(), 4);
+        Assert.assertEquals(find(By.cssSelector("ul > li")).size(), 4);
+        Assert.assertTrue(find(By.cssSelector("div > li")).isEmpty());
+        Assert.assertEquals(texts(By.cssSelector("li.active + li")), "three");
+        Assert.assertEquals(texts(By.cssSelector("li.active ~ li")), "three four");
+        Assert.assertEquals(texts(By.cssSelector("h1 ~ p")), "first");
+        Assert.assertTrue(find(By.cssSelector("p + h1")).isEmpty());
+        Assert.assertEquals(texts(By.cssSelector("#main>p.note+span")), "after p");
+        // groups come back in document order, each element once
+        Assert.assertEquals(texts(By.cssSelector("span, h1, .note, h1")), "Title first after p");
+    }
+    
+    @Test(description = "CSS attribute presence and the =, ~=, |=, ^=, $= and *= operators")
+    public void testCssAttributeOperators() {
+        Assert.assertEquals(find(By.cssSelector("[lang]")).size(), 1);
+        Assert.assertEquals(find(By.cssSelector("h1[lang='en-US']")).size(), 1);
+        Assert.assertTrue(find(By.cssSelector("h1[lang=en]")).isEmpty());
+        Assert.assertEquals(find(By.cssSelector("h1[lang|=en]")).size(), 1);
+        Assert.assertEquals(texts(By.cssSelector("li[class~=active]")), "two");
+        Assert.assertEquals(find(By.cssSelector("[data-x^=abc]")).size(), 1);
+        Assert.assertEquals(find(By.cssSelector("[data-x$=\"def\"]")).size(), 1);
+        Assert.assertEquals(find(By.cssSelector("[data-x*='c-d']")).size(), 1);
+        Assert.assertTrue(find(By.cssSelector("[data-x^='']")).isEmpty());
+        Assert.assertEquals(find(By.cssSelector("h1[lang='EN-us' i]")).size(), 1);
+    }
+    
+    @Test(description = "CSS structural and state pseudo-classes, including :nth-child and :not")
+    public void testCssPseudoClasses() {
+        Assert.assertEquals(texts(By.cssSelector("li:nth-child(2)")), "two");
+        Assert.assertEquals(texts(By.cssSelector("li:nth-child(odd)")), "one three");
+        Assert.assertEquals(texts(By.cssSelector("li:nth-child( even )")), "two four");
+        Assert.assertEquals(texts(By.cssSelector("li:first-child")), "one");
+        Assert.assertEquals(texts(By.cssSelector("li:last-child")), "four");
+        Assert.assertEquals(texts(By.cssSelector("li.item:not(.active)")), "one three");
+        Assert.assertEquals(describe(By.cssSelector("input:checked")), "input[agree]");
+        Assert.assertEquals(describe(By.cssSelector("input:disabled")), "input[email]");
+        Assert.assertEquals(describe(By.cssSelector("input:enabled")), "input[agree]");
+        Assert.assertEquals(find(By.cssSelector("form :only-child")).size(), 0);
+    }
+    
+    @Test(description = "Unsupported CSS is rejected instead of matching nothing")
+    public void testInvalidCss() {
+        for (String selector : new String[]{"li:hover", "li:nth-child(2n+1)", "ul >", "[lang", "li::before", "a!b"}) {
+            Assert.assertThrows(InvalidSelectorException.class, () -> find(By.cssSelector(selector)));
+        }
+    }
+    
+    @Test(description = "XPath steps: absolute and descendant paths, *, .., positions and last()")
+    public void testXPathSteps() {
+        Assert.assertEquals(find(By.xpath("//li")).size(), 4);
+        Assert.assertEquals(texts(By.xpath("/div/h1")), "Title");
+        Assert.assertTrue(find(By.xpath("/h1")).isEmpty());
+        Assert.assertEquals(texts(By.xpath("//ul/li[2]")), "two");
+        Assert.assertEquals(texts(By.xpath("//ul/*[last()]")), "four");
+        Assert.assertEquals(describe(By.xpath("//li[@class='item active']/..")), "ul");
+        Assert.assertEquals(find(By.xpath("//div/*")).size(), 6);
+        Assert.assertEquals(find(By.xpath("//child::li")).size(), 4);
+    }
+    
+    @Test(description = "XPath predicates: attributes, text(), normalize-space(), contains(), starts-with(), and, not()")
+    public void testXPathPredicates() {
+        Assert.assertEquals(find(By.xpath("//li[@class]")).size(), 3);
+        Assert.assertEquals(texts(By.xpath("//li[not(@class)]")), "four");
+        Assert.assertEquals(texts(By.xpath("//li[contains(@class, 'active')]")), "two");
+        Assert.assertEquals(texts(By.xpath("//li[text()='three']")), "three");
+        Assert.assertEquals(texts(By.xpath("//li[starts-with(text(), 't') and @class='item']")), "three");
+        Assert.assertEquals(texts(By.xpath("//li[@class!='item']")), "two");
+        Assert.assertEquals(describe(By.xpath("//a[normalize-space()='Next page']")), "a");
+        Assert.assertEquals(describe(By.xpath("//*[@id=\"main\"]")), "div#main");
+        Assert.assertEquals(texts(By.xpath("//li[@class='item'][2]")), "three");
+    }
+    
+    @Test(description = "Relative XPath is evaluated from the scope element")
+    public void testRelativeXPath() {
+        DomNode list = Selectors.find(document, document, By.cssSelector("ul")).get(0);
+
+        Assert.assertEquals(texts(Selectors.find(document, list, By.xpath(".//li[1]"))), "one");
+        Assert.assertEquals(Selectors.find(document, list, By.xpath("li")).size(), 4);
+        Assert.assertEquals(Selectors.find(document, list, By.xpath("//h1")).size(), 1);
+        Assert.assertEquals(Selectors.find(document, list, By.xpath("../h1")).size(), 1);
+    }
+    
+    @Test(description = "Unsupported XPath is rejected instead of matching nothing")
+    public void testInvalidXPath() {
+        for (String xpath : new String[]{"//li[position()=1]", "//li/following-sibling::li", "//li[@class='item'",
+            "//li[contains(@class)]", "//li[@class=item]"}) {
+            Assert.assertThrows(InvalidSelectorException.class, () -> find(By.xpath(xpath)));
+        }
+    }
+    
+    private List<DomNode> find(By by) {
+        return Selectors.find(document, document, by);
+    }
+    
+    // Text of the matches, separated by spaces
+    private String texts(By by) {
+        return texts(find(by));
+    }
+    
+    private static String texts(List<DomNode> nodes) {
+        List<String> texts = new ArrayList<>();
+        for (DomNode node : nodes) {
+            texts.add(node.getVisibleText());
+        }
+        return String.join(" ", texts);
+    }
+    
+    // Single match written as tag, tag#id or tag[name]; fails on anything but one match
+    private String describe(By by) {
+        List<DomNode> nodes = find(by);
+        Assert.assertEquals(nodes.size(), 1, "Matches for " + by);
+        DomNode node = nodes.get(0);
+        if (node.hasAttribute("id")) {
+            return node.getName() + "#" + node.getAttribute("id");
+        }
+        return node.hasAttribute("name") ? node.getName() + "[" + node.getAttribute("name") + "]" : node.getName();
+    }
+}
@@ -0,0 +1,100 @@
+package listeners;
+
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.markuputils.MarkupHelper;
+import org.testng.IAnnotationTransformer;
+import org.testng.IRetryAnalyzer;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+import org.testng.annotations.ITestAnnotation;
+import utils.ReportManager;
+import utils.TestDataManager;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.LongAdder;
+
+// RetryListener - Puts TransientFailureRetry on every @Test and reports what the retries bought
+// Register it next to TestListener; retry.enabled=false turns retries off without touching testng.xml.
+// The "Transient Retries" report entry compares the time spent on retries with a full rerun of the
+// suite, which is what a transient failure cost before.
+public class RetryListener implements IAnnotationTransformer, ISuiteListener, ITestListener {
+
+    private static final LongAdder RECOVERED = new LongAdder();
+    private static final LongAdder FAILED_AFTER_RETRY = new LongAdder();
+
+    private long suiteStart;
+
+    @Override
+    public void transform(ITestAnnotation annotation, Class testClass, Constructor testConstructor, Method testMethod) {
+        if (TestDataManager.getBooleanProperty("retry.enabled", true) && !declaresRetryAnalyzer(annotation)) {
+            annotation.setRetryAnalyzer(TransientFailureRetry.class);
+        }
+    }
+
+    // Keep an analyzer a test declares itself; TestNG fills in a placeholder of its own when there is none
+    private boolean declaresRetryAnalyzer(ITestAnnotation annotation) {
+        Class<? extends IRetryAnalyzer> declared = annotation.getRetryAnalyzerClass();
+        return declared != null && IRetryAnalyzer.class.isAssignableFrom(declared)
+            && !declared.getName().startsWith("org.testng.");
+    }
+
+    @Override
+    public void onStart(ISuite suite) {
+        suiteStart = System.currentTimeMillis();
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        if (getAttempts(result) > 0) {
+            RECOVERED.increment();
+        }
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        if (getAttempts(result) > 0) {
+            FAILED_AFTER_RETRY.increment();
+        }
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        long retries = TransientFailureRetry.getRetries();
+        if (retries == 0 && TransientFailureRetry.getRealFailures() == 0) {
+            return;
+        }
+        long suiteMillis = System.currentTimeMillis() - suiteStart;
+        long retryMillis = TransientFailureRetry.getRetryMillis();
+        // Without retries, any recovered test would have meant running the suite again. A rerun takes about
+        // one pass of the suite, i.e. this run without its retried attempts; the retries cost retryMillis.
+        // Saved = rerun estimate - retry cost (= suiteMillis - 2 x retryMillis), the retry cost counted once.
+        long fullRerunMillis = RECOVERED.sum() > 0 ? Math.max(0, suiteMillis - retryMillis) : 0;
+        long savedMillis = Math.max(0, fullRerunMillis - retryMillis);
+
+        String[][] table = {
+            {"Retries", String.valueOf(retries)},
+            {"Recovered by a retry", String.valueOf(RECOVERED.sum())},
+            {"Still failing after retries", String.valueOf(FAILED_AFTER_RETRY.sum())},
+            {"Real failures (not retried)", String.valueOf(TransientFailureRetry.getRealFailures())},
+            {"Transient failures over budget", String.valueOf(TransientFailureRetry.getBudgetExhausted())},
+            {"Browsers replaced", String.valueOf(TransientFailureRetry.getDriverSwaps())},
+            {"Suite duration ms", String.valueOf(suiteMillis)},
+            {"Time spent on retries ms", String.valueOf(retryMillis)},
+            {"Full suite rerun avoided ms (suite without retries)", String.valueOf(fullRerunMillis)},
+            {"Time saved ms (rerun avoided - retry time)", String.valueOf(savedMillis)}
+        };
+        ExtentTest test = ReportManager.createTest("Transient Retries", "Retries of browser-side failures versus a full rerun");
+        test.info(MarkupHelper.createTable(table));
+        ReportManager.flushReport();
+        System.out.println("Transient retries: " + retries + ", recovered " + RECOVERED.sum()
+            + ", saved about " + savedMillis + " ms versus a full rerun");
+    }
+
+    private int getAttempts(ITestResult result) {
+        IRetryAnalyzer analyzer = result.getMethod().getRetryAnalyzer(result);
+        return analyzer instanceof TransientFailureRetry ? ((TransientFailureRetry) analyzer).getAttempts() : 0;
+    }
+}
@@ -1,13 +1,44 @@
 package listeners;
 
+import load.ReplayScript;
+import load.TrafficRecorder;
+import org.openqa.selenium.WebDriver;
+import org.testng.IDataProviderInterceptor;
+import org.testng.IDataProviderMethod;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
 import org.testng.ITestListener;
+import org.testng.ITestNGMethod;
 import org.testng.ITestResult;
 import org.testng.ITestContext;
+import pages.CachingElementLocatorFactory;
+import utils.AdaptiveWait;
+import utils.AnimationAccelerator;
+import utils.BrowserLogCapture;
+import utils.LiveMetrics;
+import utils.MemoryTelemetry;
+import utils.NavigationCacheStats;
 import utils.ReportManager;
+import utils.ResourceGovernor;
+import utils.RunHistory;
+import utils.ScreencastRecorder;
+import utils.ScriptLibrary;
+import utils.SuiteCheckpoint;
+import utils.TestDataManager;
+import utils.TestImpact;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
 
 // TestListener for TestNG integration with ExtentReports
 // Handles test execution events and updates the report
-public class TestListener implements ITestListener {
+public class TestListener implements ITestListener, ISuiteListener, IMethodInterceptor, IDataProviderInterceptor {
     
     @Override
     public void onTestStart(ITestResult result) {
@@ -18,8 +49,26 @@ public class TestListener implements ITestListener {
             description = "Test method: " + testName;
         }
         
-        ReportManager.createTest(testName, description);
+        ReportManager.createTest(getReportName(result), description);
         ReportManager.logInfo("Starting test: " + testName);
+        LiveMetrics.testStarted(getReportName(result));
+        BrowserLogCapture.startTest(getDriver(result));
+        ScreencastRecorder.startTest(getDriver(result));
+        if (MemoryTelemetry.isEnabled()) {
+            MemoryTelemetry.startTest(getDriver(result));
+        }
+        // Record the page-object methods and locators the test uses, for impact selection
+        TestImpact.startTest(result.getMethod().getQualifiedName());
+        
+        // Record HTTP traffic of selected tests for protocol-level replay
+        if (isTrafficRecorded(testName) && getDriver(result) != null) {
+            WebDriver driver = getDriver(result);
+            TrafficRecorder.start(driver);
+            // setUp loaded the app before recording began; load it again so the script starts with
+            // the document request and the values the page load sets (the test creates its pages after this)
+            driver.get(TestDataManager.getAppUrl());
+            AnimationAccelerator.settle(driver);
+        }
     }
     
     @Override
@@ -27,7 +76,13 @@ public class TestListener implements ITestListener {
         // Log test success
         String testName = result.getMethod().getMethodName();
         ReportManager.logPass("Test passed: " + testName);
+        // A passing test needs no clip; free its frames now rather than at the next test's start
+        ScreencastRecorder.discard(getDriver(result));
+        finishMemoryTelemetry(result);
+        NavigationCacheStats.attachToReport(getDriver(result));
         ReportManager.updateTestResult(result.getStatus(), result.getThrowable() != null ? result.getThrowable().getMessage() : "");
+        saveTrafficRecording(result);
+        recordHistory(result, "PASS");
     }
     
     @Override
@@ -42,45 +97,248 @@ public class TestListener implements ITestListener {
         // Add screenshot if available
         if (result.getTestClass().getRealClass().getSuperclass().getSimpleName().equals("BaseTest")) {
             try {
-                // Get driver from BaseTest if possible
-                Object testInstance = result.getInstance();
-                java.lang.reflect.Field driverField = testInstance.getClass().getSuperclass().getDeclaredField("driver");
-                driverField.setAccessible(true);
-                Object driver = driverField.get(testInstance);
-                
+                WebDriver driver = getDriver(result);
                 if (driver != null) {
-                    ReportManager.addScreenshot((org.openqa.selenium.WebDriver) driver, "failure_" + testName);
+                    ReportManager.addScreenshot(driver, "failure_" + testName);
                 }
             } catch (Exception e) {
                 ReportManager.logWarning("Could not capture screenshot: " + e.getMessage());
             }
         }
         
+        // Attach buffered browser console/network events
+        BrowserLogCapture.attachToReport(getDriver(result));
+        ScreencastRecorder.attachToReport(getDriver(result), "failure_" + testName);
+        finishMemoryTelemetry(result);
+        NavigationCacheStats.attachToReport(getDriver(result));
+        
         ReportManager.updateTestResult(result.getStatus(), result.getThrowable() != null ? result.getThrowable().getMessage() : "");
+        saveTrafficRecording(result);
+        recordHistory(result, "FAIL");
     }
     
     @Override
     public void onTestSkipped(ITestResult result) {
+        // TestNG reports an attempt that TransientFailureRetry will repeat as skipped
+        if (result.wasRetried()) {
+            onTestRetried(result);
+            return;
+        }
+        
         // Log test skip
         String testName = result.getMethod().getMethodName();
         String skipReason = result.getThrowable() != null ? result.getThrowable().getMessage() : "Test was skipped";
         
         ReportManager.logSkip("Test skipped: " + testName);
         ReportManager.logSkip("Reason: " + skipReason);
+        finishMemoryTelemetry(result);
         ReportManager.updateTestResult(result.getStatus(), result.getThrowable() != null ? result.getThrowable().getMessage() : "");
+        recordHistory(result, "SKIP");
+    }
+    
+    // A failed attempt that is retried: keep its evidence in the report but leave it out of the run
+    // history and checkpoint, which get the outcome of the final attempt
+    private void onTestRetried(ITestResult result) {
+        ReportManager.logWarning("Transient failure, retrying: " + result.getThrowable());
+        BrowserLogCapture.attachToReport(getDriver(result));
+        finishMemoryTelemetry(result);
+        if (ReportManager.getCurrentTest() != null) {
+            ReportManager.getCurrentTest().getModel().setName(getReportName(result) + " [retried attempt]");
+        }
+        LiveMetrics.testFinished(getReportName(result), "RETRY", Math.max(0, result.getEndMillis() - result.getStartMillis()));
+        TestImpact.finishTest();
     }
     
     @Override
     public void onStart(ITestContext context) {
         // Initialize report when test suite starts
         ReportManager.getInstance();
+        RunHistory.startRun();
         ReportManager.logInfo("Test suite started: " + context.getName());
     }
     
     @Override
     public void onFinish(ITestContext context) {
-        // Flush report when test suite finishes
+        // Flush after each <test> so parallel runs show partial results early
         ReportManager.flushReport();
         ReportManager.logInfo("Test suite completed: " + context.getName());
     }
+    
+    @Override
+    public void onStart(ISuite suite) {
+        ReportManager.getInstance();
+        RunHistory.startRun();
+        if (SuiteCheckpoint.isEnabled()) {
+            SuiteCheckpoint.begin();
+        }
+        if (LiveMetrics.isEnabled()) {
+            LiveMetrics.start();
+        }
+    }
+    
+    @Override
+    public void onFinish(ISuite suite) {
+        SuiteCheckpoint.finish();
+        
+        // Store this run and add the duration trend before the report is written
+        RunHistory.finishRun();
+        RunHistory.addTrendToReport();
+        if (AdaptiveWait.isEnabled()) {
+            AdaptiveWait.save();
+        }
+        if (TestImpact.isRecording()) {
+            TestImpact.save();
+        }
+        
+        ReportManager.getInstance().setSystemInfo("Element Cache", CachingElementLocatorFactory.getStats());
+        if (ResourceGovernor.isEnabled()) {
+            ResourceGovernor.addToReport();
+        }
+        ScriptLibrary.addToReport();
+        
+        // Flush report when test suite finishes
+        ReportManager.flushReport();
+        LiveMetrics.stop();
+    }
+    
+    // Impact selection: leave out tests the change in impact.changed does not affect;
+    // resume mode: leave out test methods (without data provider) that passed before the crash
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        if (TestImpact.isSelecting()) {
+            methods = selectAffected(methods, context);
+        }
+        if (!SuiteCheckpoint.isResume()) {
+            return methods;
+        }
+        List<IMethodInstance> remaining = new ArrayList<>();
+        for (IMethodInstance instance : methods) {
+            ITestNGMethod method = instance.getMethod();
+            if (method.isDataDriven() || !SuiteCheckpoint.hasPassed(getCheckpointKey(context, method, new Object[0]))) {
+                remaining.add(instance);
+            }
+        }
+        if (remaining.size() < methods.size()) {
+            System.out.println("Checkpoint: skipping " + (methods.size() - remaining.size()) + " passed methods in " + context.getName());
+        }
+        return remaining;
+    }
+    
+    private List<IMethodInstance> selectAffected(List<IMethodInstance> methods, ITestContext context) {
+        List<IMethodInstance> affected = new ArrayList<>();
+        List<String> leftOut = new ArrayList<>();
+        for (IMethodInstance instance : methods) {
+            ITestNGMethod method = instance.getMethod();
+            if (TestImpact.isAffected(method.getRealClass().getName(), method.getQualifiedName())) {
+                affected.add(instance);
+            } else {
+                leftOut.add(method.getQualifiedName());
+            }
+        }
+        System.out.println("Impact selection: running " + affected.size() + " of " + methods.size() + " tests in " + context.getName());
+        TestImpact.addToReport(context.getName(), affected.size(), leftOut);
+        return affected;
+    }
+    
+    // Resume mode: leave out the data-provider rows that passed before the crash
+    @Override
+    public Iterator<Object[]> intercept(Iterator<Object[]> parameters, IDataProviderMethod dataProviderMethod,
+                                        ITestNGMethod method, ITestContext context) {
+        if (!SuiteCheckpoint.isResume()) {
+            return parameters;
+        }
+        List<Object[]> remaining = new ArrayList<>();
+        while (parameters.hasNext()) {
+            Object[] row = parameters.next();
+            if (!SuiteCheckpoint.hasPassed(getCheckpointKey(context, method, row))) {
+                remaining.add(row);
+            }
+        }
+        return remaining.iterator();
+    }
+    
+    private String getCheckpointKey(ITestContext context, ITestNGMethod method, Object[] parameters) {
+        return SuiteCheckpoint.keyOf(context.getName(), method.getRealClass().getName(), method.getMethodName(), parameters);
+    }
+    
+    // Name of the test in the report and run history
+    // In cross-browser matrix runs the browser is appended, e.g. "testNavigationFlow [firefox]",
+    // and a <test> parameter "variant" is appended the same way (e.g. "[accelerated]");
+    // data-provider rows get their arguments, e.g. "testLogin(alice, secret)"
+    private String getReportName(ITestResult result) {
+        String testName = result.getMethod().getMethodName();
+        String browser = result.getTestContext().getCurrentXmlTest().getParameter("browser");
+        boolean matrix = Boolean.parseBoolean(result.getTestContext().getCurrentXmlTest().getParameter("matrix"));
+        String variant = result.getTestContext().getCurrentXmlTest().getParameter("variant");
+        if (result.getParameters().length > 0) {
+            // one entry per data-provider row
+            testName += "(" + Arrays.stream(result.getParameters()).map(String::valueOf).collect(Collectors.joining(", ")) + ")";
+        }
+        String name = matrix && browser != null ? testName + " [" + browser + "]" : testName;
+        return variant != null ? name + " [" + variant + "]" : name;
+    }
+    
+    // Check if a test is listed in traffic.record.tests
+    private boolean isTrafficRecorded(String testName) {
+        for (String name : TestDataManager.getProperty("traffic.record.tests", "").split(",")) {
+            if (name.trim().equals(testName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // Stop recording a test's traffic and save it as a replay script
+    private void saveTrafficRecording(ITestResult result) {
+        String testName = result.getMethod().getMethodName();
+        WebDriver driver = getDriver(result);
+        if (!isTrafficRecorded(testName) || driver == null) {
+            return;
+        }
+        ReplayScript script = TrafficRecorder.stop(driver);
+        if (script == null) {
+            return;
+        }
+        try {
+            File file = new File("test-output/recordings/" + testName + ".json");
+            script.save(file);
+            ReportManager.logInfo("Recorded " + script.getRequests().size() + " requests ("
+                + script.getCorrelations().size() + " correlated values) to " + file.getPath());
+        } catch (Exception e) {
+            ReportManager.logWarning("Could not save traffic recording: " + e.getMessage());
+        }
+    }
+    
+    // Compare browser memory with the reading taken at test start
+    private void finishMemoryTelemetry(ITestResult result) {
+        if (MemoryTelemetry.isEnabled()) {
+            MemoryTelemetry.finishTest(getDriver(result), getReportName(result));
+        }
+    }
+    
+    // Save the test outcome, duration and action timings to the run history, live metrics and checkpoint
+    // (and stop recording the test's page-object use)
+    private void recordHistory(ITestResult result, String status) {
+        TestImpact.finishTest("PASS".equals(status));
+        long durationMs = Math.max(0, result.getEndMillis() - result.getStartMillis());
+        RunHistory.recordTest(getReportName(result), status, durationMs, getDriver(result));
+        LiveMetrics.testFinished(getReportName(result), status, durationMs);
+        if (SuiteCheckpoint.isEnabled()) {
+            SuiteCheckpoint.record(getCheckpointKey(result.getTestContext(), result.getMethod(), result.getParameters()),
+                status, getReportName(result));
+        }
+    }
+    
+    // Get the driver field from BaseTest via reflection
+    // @return WebDriver instance, or null if the test has none
+    private WebDriver getDriver(ITestResult result) {
+        try {
+            Object testInstance = result.getInstance();
+            java.lang.reflect.Field driverField = testInstance.getClass().getSuperclass().getDeclaredField("driver");
+            driverField.setAccessible(true);
+            return (WebDriver) driverField.get(testInstance);
+        } catch (Exception e) {
+            return null;
+        }
+    }
 }
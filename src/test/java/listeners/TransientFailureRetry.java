@@ -0,0 +1,142 @@
+package listeners;
+
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.UnreachableBrowserException;
+import org.testng.IRetryAnalyzer;
+import org.testng.ITestResult;
+import tests.BaseTest;
+import utils.TestDataManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// TransientFailureRetry - Retries a test only when it failed for a browser-side reason
+// A failure is transient when its exception chain holds a lost session, an unreachable or crashed
+// browser, or a stale element (also the cause of a wait that timed out on a re-rendered DOM), or when a
+// WebDriverException message contains one of retry.transient.messages. Assertion failures and other
+// exceptions are real and never retried. Each test gets retry.max.attempts extra attempts and the whole
+// suite retry.suite.budget; before a retry BaseTest keeps the warm browser if it still answers and
+// swaps it for a fresh one if it does not.
+public class TransientFailureRetry implements IRetryAnalyzer {
+
+    private static final String DEFAULT_MESSAGES = "session deleted,chrome not reachable,disconnected,renderer,"
+        + "tab crashed,target frame detached,target window already closed,unable to connect";
+
+    // Suite-wide statistics, read by RetryListener
+    private static final AtomicInteger BUDGET_USED = new AtomicInteger();
+    private static final LongAdder RETRIES = new LongAdder();
+    private static final LongAdder REAL_FAILURES = new LongAdder();
+    private static final LongAdder BUDGET_EXHAUSTED = new LongAdder();
+    private static final LongAdder DRIVER_SWAPS = new LongAdder();
+    private static final LongAdder RETRY_MILLIS = new LongAdder();
+
+    // Attempts retried so far for this test method (or data-provider row)
+    private int attempts;
+
+    @Override
+    public boolean retry(ITestResult result) {
+        Throwable failure = result.getThrowable();
+        if (!isTransient(failure)) {
+            REAL_FAILURES.increment();
+            return false;
+        }
+        if (attempts >= TestDataManager.getIntProperty("retry.max.attempts", 1) || !takeFromBudget()) {
+            BUDGET_EXHAUSTED.increment();
+            return false;
+        }
+        attempts++;
+        RETRIES.increment();
+        RETRY_MILLIS.add(Math.max(0, result.getEndMillis() - result.getStartMillis()));
+        System.out.println("Transient failure in " + result.getMethod().getMethodName() + ", retrying (attempt "
+            + (attempts + 1) + "): " + failure);
+
+        // The browser is checked and, if broken, replaced by BaseTest's @BeforeMethod before the retry
+        if (result.getInstance() instanceof BaseTest) {
+            ((BaseTest) result.getInstance()).requestDriverRecovery();
+        }
+        return true;
+    }
+
+    /**
+     Gets how many times this test was retried
+     @return Retried attempts
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     Checks if a failure is worth retrying
+     @param failure Exception the test failed with
+     @return True if it points at the browser or session rather than at the app under test
+     */
+    public static boolean isTransient(Throwable failure) {
+        if (failure == null || failure instanceof AssertionError) {
+            return false;
+        }
+        String[] messages = TestDataManager.getProperty("retry.transient.messages", DEFAULT_MESSAGES).toLowerCase().split(",");
+        for (Throwable cause = failure; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (cause instanceof NoSuchSessionException || cause instanceof UnreachableBrowserException
+                || cause instanceof StaleElementReferenceException) {
+                return true;
+            }
+            if (cause instanceof WebDriverException && cause.getMessage() != null) {
+                String message = cause.getMessage().toLowerCase();
+                for (String transientMessage : messages) {
+                    if (!transientMessage.trim().isEmpty() && message.contains(transientMessage.trim())) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     Records a browser check done before a retry
+     @param swapped True if the browser was replaced, false if the warm one was kept
+     @param millis Time the check (and replacement) took
+     */
+    public static void recordRecovery(boolean swapped, long millis) {
+        if (swapped) {
+            DRIVER_SWAPS.increment();
+        }
+        RETRY_MILLIS.add(millis);
+    }
+
+    static long getRetries() {
+        return RETRIES.sum();
+    }
+
+    static long getRealFailures() {
+        return REAL_FAILURES.sum();
+    }
+
+    static long getBudgetExhausted() {
+        return BUDGET_EXHAUSTED.sum();
+    }
+
+    static long getDriverSwaps() {
+        return DRIVER_SWAPS.sum();
+    }
+
+    // Time spent on failed attempts that were retried and on browser recovery
+    static long getRetryMillis() {
+        return RETRY_MILLIS.sum();
+    }
+
+    private static boolean takeFromBudget() {
+        int budget = TestDataManager.getIntProperty("retry.suite.budget", 10);
+        while (true) {
+            int used = BUDGET_USED.get();
+            if (used >= budget) {
+                return false;
+            }
+            if (BUDGET_USED.compareAndSet(used, used + 1)) {
+                return true;
+            }
+        }
+    }
+}
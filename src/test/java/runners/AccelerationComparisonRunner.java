@@ -0,0 +1,101 @@
+package runners;
+
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.markuputils.MarkupHelper;
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.TestNG;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+import utils.ReportManager;
+import utils.RunHistory;
+import utils.TestRecord;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// AccelerationComparisonRunner - Runs UrlFlowTest once in real time and once with AnimationAccelerator
+// The two <test>s run one after the other with their own browser; the report gets the suite and
+// per-test durations of both side by side
+public class AccelerationComparisonRunner {
+
+    private static final String REAL_TIME = "real-time";
+    private static final String ACCELERATED = "accelerated";
+
+    public static void main(String[] args) {
+        XmlSuite suite = new XmlSuite();
+        suite.setName("Uniblox Acceleration Comparison");
+        suite.addListener("listeners.TestListener");
+        suite.addListener("listeners.RetryListener");
+        addTest(suite, REAL_TIME, false);
+        addTest(suite, ACCELERATED, true);
+
+        // Wall time of each <test>, including browser start and page loads
+        Map<String, Long> wallTimes = new ConcurrentHashMap<>();
+        TestNG testng = new TestNG();
+        testng.setXmlSuites(Collections.singletonList(suite));
+        testng.setUseDefaultListeners(false);
+        testng.addListener(new ITestListener() {
+            @Override
+            public void onFinish(ITestContext context) {
+                String variant = context.getCurrentXmlTest().getParameter("variant");
+                wallTimes.put(variant, context.getEndDate().getTime() - context.getStartDate().getTime());
+            }
+        });
+        testng.run();
+
+        addComparisonToReport(wallTimes);
+        ReportManager.flushReport();
+        System.exit(testng.getStatus());
+    }
+
+    private static void addTest(XmlSuite suite, String variant, boolean acceleration) {
+        XmlTest test = new XmlTest(suite);
+        test.setName("UrlFlowTest - " + variant);
+        test.addParameter("acceleration", String.valueOf(acceleration));
+        test.addParameter("variant", variant);
+        test.setPreserveOrder(true);
+        test.setXmlClasses(Collections.singletonList(new XmlClass("tests.UrlFlowTest")));
+    }
+
+    // Adds "Acceleration Comparison": suite wall time and each test's duration with the mode off and on
+    private static void addComparisonToReport(Map<String, Long> wallTimes) {
+        Map<String, long[]> durations = new LinkedHashMap<>();
+        for (TestRecord record : RunHistory.getCurrentRun()) {
+            String name = record.getTestName();
+            boolean accelerated = name.endsWith(" [" + ACCELERATED + "]");
+            if (!accelerated && !name.endsWith(" [" + REAL_TIME + "]")) {
+                continue;
+            }
+            String test = name.substring(0, name.lastIndexOf(" ["));
+            long[] pair = durations.computeIfAbsent(test, k -> new long[]{-1, -1});
+            pair[accelerated ? 1 : 0] = record.getDurationMs();
+        }
+
+        String[][] table = new String[durations.size() + 2][];
+        table[0] = new String[]{"Test", "Real time ms", "Accelerated ms", "Saved"};
+        int row = 1;
+        for (Map.Entry<String, long[]> entry : durations.entrySet()) {
+            table[row++] = toRow(entry.getKey(), entry.getValue()[0], entry.getValue()[1]);
+        }
+        table[row] = toRow("Suite (wall time)", wallTimes.getOrDefault(REAL_TIME, -1L), wallTimes.getOrDefault(ACCELERATED, -1L));
+
+        ExtentTest comparison = ReportManager.createTest("Acceleration Comparison",
+            "UrlFlowTest with animation/timer acceleration off and on");
+        comparison.info(MarkupHelper.createTable(table));
+        String[] total = table[row];
+        System.out.println("Suite: real time " + total[1] + " ms, accelerated " + total[2] + " ms (" + total[3] + " saved)");
+    }
+
+    private static String[] toRow(String name, long realTime, long accelerated) {
+        String saved = realTime <= 0 || accelerated < 0 ? "-"
+            : String.format("%.0f%%", 100.0 * (realTime - accelerated) / realTime);
+        return new String[]{name,
+            realTime < 0 ? "-" : String.valueOf(realTime),
+            accelerated < 0 ? "-" : String.valueOf(accelerated),
+            saved};
+    }
+}
@@ -0,0 +1,164 @@
+package runners;
+
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.markuputils.MarkupHelper;
+import io.github.bonigarcia.wdm.WebDriverManager;
+import org.testng.TestNG;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+import utils.DriverPool;
+import utils.ReportManager;
+import utils.RunHistory;
+import utils.TestRecord;
+import utils.TestDataManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// CrossBrowserMatrixRunner - Runs UrlFlowTest on every installed browser at the same time
+// Builds a suite with one <test> per browser (parallel="tests"), gives each browser its own
+// DriverPool and adds a side-by-side comparison of pass rate and timings to the report.
+// A <test> borrows one driver in BaseTest.setUp and runs its methods in order, so each pool holds
+// one browser; a recycled or replaced browser is discarded before its successor is borrowed.
+public class CrossBrowserMatrixRunner {
+    
+    public static void main(String[] args) {
+        List<String> browsers = findInstalledBrowsers();
+        if (browsers.isEmpty()) {
+            System.err.println("None of the matrix browsers are installed: " + TestDataManager.getProperty("matrix.browsers", "chrome,firefox,edge"));
+            System.exit(1);
+        }
+        System.out.println("Running cross-browser matrix on: " + browsers);
+        
+        List<DriverPool> pools = new ArrayList<>();
+        XmlSuite suite = new XmlSuite();
+        suite.setName("Uniblox Cross-Browser Matrix");
+        suite.setParallel(XmlSuite.ParallelMode.TESTS);
+        suite.setThreadCount(browsers.size());
+        suite.addListener("listeners.TestListener");
+        suite.addListener("listeners.RetryListener");
+        
+        for (String browser : browsers) {
+            DriverPool pool = new DriverPool(browser, 1);
+            DriverPool.register(pool);
+            pools.add(pool);
+            
+            XmlTest test = new XmlTest(suite);
+            test.setName("Matrix - " + browser);
+            test.addParameter("browser", browser);
+            test.addParameter("matrix", "true");
+            test.setPreserveOrder(true);
+            test.setXmlClasses(Collections.singletonList(new XmlClass("tests.UrlFlowTest")));
+        }
+        
+        TestNG testng = new TestNG();
+        testng.setXmlSuites(Collections.singletonList(suite));
+        testng.setUseDefaultListeners(false);
+        try {
+            testng.run();
+        } finally {
+            for (DriverPool pool : pools) {
+                pool.close();
+            }
+        }
+        
+        addComparisonToReport(browsers, RunHistory.getCurrentRun());
+        ReportManager.flushReport();
+        System.exit(testng.getStatus());
+    }
+    
+    // Browsers from matrix.browsers whose binary WebDriverManager can find on this machine
+    private static List<String> findInstalledBrowsers() {
+        List<String> installed = new ArrayList<>();
+        for (String browser : TestDataManager.getProperty("matrix.browsers", "chrome,firefox,edge").split(",")) {
+            browser = browser.trim().toLowerCase();
+            try {
+                if (WebDriverManager.getInstance(browser).getBrowserPath().isPresent()) {
+                    installed.add(browser);
+                }
+            } catch (Exception ignored) {
+                // unknown browser name or detection failed - treat as not installed
+            }
+        }
+        return installed;
+    }
+    
+    // Adds "Cross-Browser Comparison" with per-test outcome/duration and per-action timing per browser
+    private static void addComparisonToReport(List<String> browsers, List<TestRecord> records) {
+        Map<String, Map<String, TestRecord>> byTest = new LinkedHashMap<>();
+        Map<String, Map<String, double[]>> actionsByBrowser = new LinkedHashMap<>();
+        Set<String> actions = new LinkedHashSet<>();
+        for (TestRecord record : records) {
+            String name = record.getTestName();
+            int bracket = name.lastIndexOf(" [");
+            if (bracket < 0 || !name.endsWith("]")) {
+                continue;
+            }
+            String test = name.substring(0, bracket);
+            String browser = name.substring(bracket + 2, name.length() - 1);
+            byTest.computeIfAbsent(test, k -> new LinkedHashMap<>()).put(browser, record);
+            
+            Map<String, double[]> totals = actionsByBrowser.computeIfAbsent(browser, k -> new LinkedHashMap<>());
+            for (Map.Entry<String, Double> action : record.getActionMillis().entrySet()) {
+                double[] total = totals.computeIfAbsent(action.getKey(), k -> new double[2]);
+                total[0] += action.getValue();
+                total[1] += record.getActionCounts().getOrDefault(action.getKey(), 0L);
+                actions.add(action.getKey());
+            }
+        }
+        
+        String[][] tests = new String[byTest.size() + 2][browsers.size() + 1];
+        tests[0][0] = "Test";
+        for (int b = 0; b < browsers.size(); b++) {
+            tests[0][b + 1] = browsers.get(b);
+        }
+        int row = 1;
+        int[] passed = new int[browsers.size()];
+        int[] total = new int[browsers.size()];
+        for (Map.Entry<String, Map<String, TestRecord>> test : byTest.entrySet()) {
+            tests[row][0] = test.getKey();
+            for (int b = 0; b < browsers.size(); b++) {
+                TestRecord record = test.getValue().get(browsers.get(b));
+                if (record == null) {
+                    tests[row][b + 1] = "-";
+                    continue;
+                }
+                total[b]++;
+                if ("PASS".equals(record.getStatus())) {
+                    passed[b]++;
+                }
+                tests[row][b + 1] = record.getStatus() + " " + record.getDurationMs() + " ms";
+            }
+            row++;
+        }
+        tests[row][0] = "Pass rate";
+        for (int b = 0; b < browsers.size(); b++) {
+            tests[row][b + 1] = total[b] == 0 ? "-" : String.format("%.0f%% (%d/%d)", 100.0 * passed[b] / total[b], passed[b], total[b]);
+        }
+        
+        String[][] steps = new String[actions.size() + 1][browsers.size() + 1];
+        steps[0][0] = "Action (avg ms per call)";
+        for (int b = 0; b < browsers.size(); b++) {
+            steps[0][b + 1] = browsers.get(b);
+        }
+        row = 1;
+        for (String action : actions) {
+            steps[row][0] = action;
+            for (int b = 0; b < browsers.size(); b++) {
+                double[] stats = actionsByBrowser.getOrDefault(browsers.get(b), Collections.emptyMap()).get(action);
+                steps[row][b + 1] = stats == null || stats[1] == 0 ? "-" : String.format("%.1f", stats[0] / stats[1]);
+            }
+            row++;
+        }
+        
+        ExtentTest comparison = ReportManager.createTest("Cross-Browser Comparison", "Side-by-side results for " + String.join(", ", browsers));
+        comparison.info(MarkupHelper.createTable(tests));
+        comparison.info(MarkupHelper.createTable(steps));
+    }
+}
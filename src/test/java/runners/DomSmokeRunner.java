@@ -0,0 +1,40 @@
+package runners;
+
+import dom.DomDriver;
+import org.testng.TestNG;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+import utils.ReportManager;
+
+import java.util.Collections;
+
+// DomSmokeRunner - Runs the structural tier of UrlFlowTest (group "structural") on the DOM driver
+// No browser is started: the page is fetched and parsed, so each test takes milliseconds.
+// Meant as a first gate before the browser suite, which still covers scripts and rendering.
+public class DomSmokeRunner {
+
+    public static void main(String[] args) {
+        XmlSuite suite = new XmlSuite();
+        suite.setName("Uniblox Structural Smoke (DOM driver)");
+        suite.addListener("listeners.TestListener");
+        suite.addListener("listeners.RetryListener");
+
+        XmlTest test = new XmlTest(suite);
+        test.setName("UrlFlowTest - structural");
+        test.addParameter("browser", DomDriver.BROWSER_NAME);
+        test.addIncludedGroup("structural");
+        test.setPreserveOrder(true);
+        test.setXmlClasses(Collections.singletonList(new XmlClass("tests.UrlFlowTest")));
+
+        TestNG testng = new TestNG();
+        testng.setXmlSuites(Collections.singletonList(suite));
+        testng.setUseDefaultListeners(false);
+        long start = System.currentTimeMillis();
+        testng.run();
+        System.out.println("Structural smoke finished in " + (System.currentTimeMillis() - start) + " ms");
+
+        ReportManager.flushReport();
+        System.exit(testng.getStatus());
+    }
+}
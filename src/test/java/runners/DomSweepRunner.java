@@ -0,0 +1,183 @@
+package runners;
+
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.markuputils.MarkupHelper;
+import dom.DomDriver;
+import org.openqa.selenium.By;
+import utils.ReportManager;
+import utils.TestDataManager;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// DomSweepRunner - Structural sweep of many pages at once with the DOM driver
+// Each URL gets its own DomDriver (no browser, so dom.sweep.threads of them run side by side) and is
+// checked for an HTTP error, a title, a top-level heading and its link count. Results go to
+// test-output/dom-sweep.csv and a summary with pages per second to the report.
+// Usage: DomSweepRunner [url-file]; without an argument the file in dom.sweep.urls is used, or just
+// the app URL when that is empty.
+public class DomSweepRunner {
+
+    private static final Path OUTPUT = Paths.get("test-output", "dom-sweep.csv");
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        List<String> urls = readUrls(args.length > 0 ? args[0] : TestDataManager.getProperty("dom.sweep.urls", ""));
+        int threads = Math.max(1, TestDataManager.getIntProperty("dom.sweep.threads", 32));
+        Duration timeout = Duration.ofSeconds(TestDataManager.getIntProperty("dom.sweep.timeout.seconds", 15));
+        System.out.println("Sweeping " + urls.size() + " page(s) on " + threads + " thread(s)");
+
+        PageResult[] results = new PageResult[urls.size()];
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        for (int i = 0; i < urls.size(); i++) {
+            int index = i;
+            executor.execute(() -> results[index] = check(urls.get(index), timeout));
+        }
+        executor.shutdown();
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        long elapsedMs = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+        writeCsv(results);
+        int failed = addSummaryToReport(results, elapsedMs, threads);
+        ReportManager.flushReport();
+        System.exit(failed == 0 ? 0 : 1);
+    }
+
+    // Loads one page on a fresh driver and reads its structure
+    private static PageResult check(String url, Duration timeout) {
+        PageResult result = new PageResult(url);
+        DomDriver driver = new DomDriver();
+        long start = System.nanoTime();
+        try {
+            driver.manage().timeouts().pageLoadTimeout(timeout);
+            driver.get(url);
+            result.loadMs = (System.nanoTime() - start) / 1_000_000;
+            result.status = driver.getStatusCode();
+            result.title = driver.getTitle();
+            result.headings = driver.findElements(By.cssSelector("h1, [role='heading']")).size();
+            result.links = driver.findElements(By.cssSelector("a[href]")).size();
+            if (result.status >= 400) {
+                result.problem = "HTTP " + result.status;
+            } else if (result.title.isEmpty()) {
+                result.problem = "no title";
+            } else if (result.headings == 0) {
+                result.problem = "no heading";
+            }
+        } catch (Exception e) {
+            result.loadMs = (System.nanoTime() - start) / 1_000_000;
+            result.problem = e.getClass().getSimpleName() + ": " + firstLine(e.getMessage());
+        } finally {
+            driver.quit();
+        }
+        return result;
+    }
+
+    private static List<String> readUrls(String file) throws IOException {
+        if (file == null || file.isEmpty()) {
+            return Collections.singletonList(TestDataManager.getAppUrl());
+        }
+        List<String> urls = new ArrayList<>();
+        for (String line : Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8)) {
+            String url = line.trim();
+            if (!url.isEmpty() && !url.startsWith("#")) {
+                urls.add(url);
+            }
+        }
+        return urls;
+    }
+
+    private static void writeCsv(PageResult[] results) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("url,status,load_ms,title,headings,links,problem");
+        for (PageResult result : results) {
+            lines.add(String.join(",", csv(result.url), String.valueOf(result.status), String.valueOf(result.loadMs), csv(result.title),
+                String.valueOf(result.headings), String.valueOf(result.links), csv(result.problem)));
+        }
+        Files.createDirectories(OUTPUT.getParent());
+        Files.write(OUTPUT, lines, StandardCharsets.UTF_8);
+        System.out.println("Sweep results written to " + OUTPUT);
+    }
+
+    // Adds "DOM Sweep" (totals, throughput, load time percentiles, failed pages); returns the failure count
+    private static int addSummaryToReport(PageResult[] results, long elapsedMs, int threads) {
+        long[] loadTimes = new long[results.length];
+        List<PageResult> failed = new ArrayList<>();
+        for (int i = 0; i < results.length; i++) {
+            loadTimes[i] = results[i].loadMs;
+            if (results[i].problem != null) {
+                failed.add(results[i]);
+            }
+        }
+        Arrays.sort(loadTimes);
+        double pagesPerSecond = results.length * 1000.0 / elapsedMs;
+
+        String[][] summary = {
+            {"Pages", String.valueOf(results.length)},
+            {"Failed", String.valueOf(failed.size())},
+            {"Threads", String.valueOf(threads)},
+            {"Wall time ms", String.valueOf(elapsedMs)},
+            {"Pages per second", String.format("%.1f", pagesPerSecond)},
+            {"Load ms p50 / p95 / max", percentile(loadTimes, 50) + " / " + percentile(loadTimes, 95) + " / "
+                + (loadTimes.length == 0 ? 0 : loadTimes[loadTimes.length - 1])}};
+        ExtentTest sweep = ReportManager.createTest("DOM Sweep", "Structural check of " + results.length + " page(s) with the DOM driver");
+        sweep.info(MarkupHelper.createTable(summary));
+        if (!failed.isEmpty()) {
+            String[][] table = new String[Math.min(failed.size(), 100) + 1][];
+            table[0] = new String[]{"URL", "Problem"};
+            for (int i = 1; i < table.length; i++) {
+                table[i] = new String[]{failed.get(i - 1).url, failed.get(i - 1).problem};
+            }
+            sweep.fail(MarkupHelper.createTable(table));
+        }
+        System.out.println(String.format("Swept %d page(s) in %d ms (%.1f pages/s), %d failed",
+            results.length, elapsedMs, pagesPerSecond, failed.size()));
+        return failed.size();
+    }
+
+    private static long percentile(long[] sorted, int percent) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(percent / 100.0 * sorted.length) - 1)];
+    }
+
+    private static String firstLine(String message) {
+        if (message == null) {
+            return "";
+        }
+        int newline = message.indexOf('\n');
+        return newline < 0 ? message : message.substring(0, newline);
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    private static class PageResult {
+        final String url;
+        long loadMs;
+        int status;
+        String title = "";
+        int headings;
+        int links;
+        String problem;
+
+        PageResult(String url) {
+            this.url = url;
+        }
+    }
+}
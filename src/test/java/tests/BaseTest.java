@@ -1,12 +1,25 @@
 package tests;
 
+import dom.DomDriver;
+import listeners.TransientFailureRetry;
+import load.TrafficRecorder;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.support.ui.WebDriverWait;
-import org.testng.annotations.AfterSuite;
-import org.testng.annotations.BeforeSuite;
+import org.testng.annotations.AfterTest;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.BeforeTest;
 import org.testng.annotations.Parameters;
 import org.testng.annotations.Optional;
-import org.openqa.selenium.JavascriptExecutor;
+import utils.AnimationAccelerator;
+import utils.BrowserLogCapture;
+import utils.BrowserProfileCache;
+import utils.DriverPool;
+import utils.MemoryTelemetry;
+import utils.NavigationCacheStats;
+import utils.ResourceGovernor;
+import utils.ScreencastRecorder;
+import utils.ScriptLibrary;
 import utils.TestDataManager;
 import utils.WebDriverManagerUtil;
 
@@ -18,16 +31,65 @@ public class BaseTest {
     
     protected WebDriver driver;
     protected WebDriverWait wait;
+    private DriverPool driverPool;
+    private String browserName;
+    private boolean accelerate;
+    private boolean governed;
+    private volatile boolean recoveryRequested;
     
-    // Setup before the suite: initialize WebDriver and navigate to the app
-    @BeforeSuite
-    @Parameters({"browser"})
-    public void setUp(@Optional String browser) {
-        // Use parameter if provided, otherwise use default from config
-        String browserName = (browser != null && !browser.isEmpty()) ? browser : TestDataManager.getBrowser();
+    // Setup before each <test> of the suite: initialize WebDriver and navigate to the app
+    // Runs per <test> so a cross-browser matrix gets one browser per <test>; alwaysRun so group-filtered
+    // runs (the structural tier) still get one
+    @BeforeTest(alwaysRun = true)
+    @Parameters({"browser", "acceleration"})
+    public void setUp(@Optional String browser, @Optional String acceleration) {
+        // Use parameters if provided, otherwise use defaults from config
+        browserName = (browser != null && !browser.isEmpty()) ? browser : TestDataManager.getBrowser();
+        accelerate = (acceleration != null && !acceleration.isEmpty()) ? Boolean.parseBoolean(acceleration) : AnimationAccelerator.isEnabled();
         
-        // Initialize WebDriver
-        driver = WebDriverManagerUtil.createDriver(browserName);
+        // Wait for the resource governor to admit another browser on this machine
+        // (the DOM driver starts no browser, so it is not governed)
+        if (ResourceGovernor.isEnabled() && !DomDriver.BROWSER_NAME.equalsIgnoreCase(browserName)) {
+            try {
+                ResourceGovernor.acquire(browserName + " session");
+                governed = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for resources to start " + browserName, e);
+            }
+        }
+        
+        try {
+            startDriver();
+        } catch (RuntimeException e) {
+            // no browser came up (createDriver/borrow threw): give the permit back right away instead of
+            // relying on tearDown, so activeSessions does not stay raised for the rest of the run
+            if (governed && driver == null) {
+                governed = false;
+                ResourceGovernor.release();
+            }
+            throw e;
+        }
+    }
+    
+    // Start (or borrow) the browser and open the app
+    private void startDriver() {
+        // Initialize WebDriver, borrowing from a registered pool (matrix runs) if there is one
+        driverPool = DriverPool.forBrowser(browserName);
+        if (driverPool != null) {
+            try {
+                driver = driverPool.borrow();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a " + browserName + " browser", e);
+            }
+        } else {
+            driver = WebDriverManagerUtil.createDriver(browserName);
+        }
+        
+        if (accelerate) {
+            AnimationAccelerator.attach(driver);
+        }
         
         // Set implicit wait
         driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(TestDataManager.getImplicitWait()));
@@ -41,18 +103,21 @@ public class BaseTest {
         
         // Navigate to the application
         driver.get(TestDataManager.getAppUrl());
+        AnimationAccelerator.settle(driver);
 
-        // Wait for document ready state
+        // Wait for document ready state (a browser without scripts is ready once get() returns)
         try {
-            new org.openqa.selenium.support.ui.WebDriverWait(driver, Duration.ofSeconds(Math.max(10, TestDataManager.getTimeout())))
-                .until(d -> {
-                    try {
-                        String readyState = (String) ((JavascriptExecutor) d).executeScript("return document.readyState");
-                        return "complete".equals(readyState) || "interactive".equals(readyState);
-                    } catch (Exception e) {
-                        return false;
-                    }
-                });
+            if (driver instanceof JavascriptExecutor) {
+                new org.openqa.selenium.support.ui.WebDriverWait(driver, Duration.ofSeconds(Math.max(10, TestDataManager.getTimeout())))
+                    .until(d -> {
+                        try {
+                            String readyState = (String) ScriptLibrary.execute(d, ScriptLibrary.READY_STATE);
+                            return "complete".equals(readyState) || "interactive".equals(readyState);
+                        } catch (Exception e) {
+                            return false;
+                        }
+                    });
+            }
         } catch (Exception ignored) {
             // proceed; element waits in pages will handle remaining readiness
         }
@@ -64,12 +129,87 @@ public class BaseTest {
         } catch (Exception ignored) {}
     }
     
-    // Teardown after the suite: close the WebDriver instance
-    @AfterSuite
+    /**
+     Asks for the browser to be checked before the next attempt of a test (used by TransientFailureRetry)
+     */
+    public void requestDriverRecovery() {
+        recoveryRequested = true;
+    }
+    
+    // Before a retry: keep the warm browser if it still answers (back on the app URL), otherwise replace it
+    @BeforeMethod(alwaysRun = true)
+    public void recoverDriverIfRequested() {
+        if (!recoveryRequested) {
+            return;
+        }
+        recoveryRequested = false;
+        long start = System.currentTimeMillis();
+        boolean swapped = false;
+        try {
+            driver.getWindowHandle();
+            driver.get(TestDataManager.getAppUrl());
+            AnimationAccelerator.settle(driver);
+        } catch (Exception e) {
+            System.out.println("Replacing unresponsive " + browserName + " driver before retry: " + e.getMessage());
+            stopDriver(true);
+            startDriver();
+            swapped = true;
+        }
+        TransientFailureRetry.recordRecovery(swapped, System.currentTimeMillis() - start);
+    }
+    
+    // Replace the browser before a test when it crossed the memory.recycle.* limits in an earlier test
+    @BeforeMethod(alwaysRun = true)
+    public void recycleDriverIfNeeded() {
+        if (driver != null && MemoryTelemetry.shouldRecycle(driver)) {
+            System.out.println("Recycling " + browserName + " driver after crossing memory limits");
+            stopDriver(true);
+            startDriver();
+        }
+    }
+    
+    // Teardown after each <test>: close the WebDriver instance or give it back to its pool
+    @AfterTest(alwaysRun = true)
     public void tearDown() {
-        if (driver != null) {
-            driver.quit();
+        try {
+            stopDriver(false);
+        } finally {
+            if (governed) {
+                governed = false;
+                ResourceGovernor.release();
+            }
+        }
+    }
+    
+    // Quit the browser, or hand it back to its pool (discarding it when it is being recycled)
+    private void stopDriver(boolean recycle) {
+        if (driver == null) {
+            return;
+        }
+        if (driverPool != null && recycle) {
+            driverPool.discard(driver);
+        } else if (driverPool != null) {
+            driverPool.release(driver);
+        } else {
+            BrowserLogCapture.detach(driver);
+            ScreencastRecorder.detach(driver);
+            MemoryTelemetry.detach(driver);
+            NavigationCacheStats.detach(driver);
+            AnimationAccelerator.detach(driver);
+            ScriptLibrary.detach(driver);
+            TrafficRecorder.detach(driver);
+            try {
+                driver.quit();
+            } catch (RuntimeException e) {
+                // a crashed browser cannot be quit cleanly; only fatal when not replacing it
+                if (!recycle) {
+                    throw e;
+                }
+            } finally {
+                BrowserProfileCache.release(driver);
+            }
         }
+        driver = null;
     }
     
     // Get the current WebDriver instance
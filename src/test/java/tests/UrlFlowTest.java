@@ -1,17 +1,20 @@
 package tests;
 
 import org.testng.Assert;
+import org.testng.SkipException;
 import org.testng.annotations.Test;
 import org.testng.annotations.Parameters;
 import pages.MainPage;
 import utils.TestDataManager;
+import utils.VisualCheck;
+import utils.VisualComparator;
 
 // UrlFlowTest - Test cases for the Uniblox application
 // Covers main functionality and user flows
 public class UrlFlowTest extends BaseTest {
     
     // Basic smoke test - checks if page loads and main elements are visible
-    @Test(description = "Verify page loads and main elements are visible")
+    @Test(description = "Verify page loads and main elements are visible", groups = "structural")
     public void testPageLoadsAndHeaderIsVisible() {
         MainPage mainPage = new MainPage(driver);
         
@@ -33,6 +36,20 @@ public class UrlFlowTest extends BaseTest {
         Assert.assertTrue(mainPage.getButtonCount() > 0, "At least one button should be present on the page");
     }
     
+    // Structural check - title, header and element counts straight from the markup, without interactions
+    // Runs on the DOM driver too (runners.DomSmokeRunner), where it takes milliseconds
+    @Test(description = "Verify page structure: title, header and element counts", groups = "structural")
+    public void testPageStructure() {
+        MainPage mainPage = new MainPage(driver);
+        
+        Assert.assertTrue(mainPage.isPageLoaded(), "Page should load successfully");
+        Assert.assertNotNull(mainPage.getPageTitle(), "Page should have a title element");
+        Assert.assertFalse(mainPage.getHeaderText().isEmpty(), "Page should have a header or title text");
+        Assert.assertTrue(mainPage.getButtonCount() + mainPage.getInputFieldCount() + mainPage.getLinkCount() > 0,
+            "Page should have at least one button, input or link");
+        Assert.assertFalse(mainPage.isErrorMessageDisplayed(), "No error message should be shown on load");
+    }
+    
     // Test complete user flow - fills forms and interacts with elements
     @Test(description = "Test complete user flow with form interactions")
     public void testCompleteUserFlow() {
@@ -192,4 +209,20 @@ public class UrlFlowTest extends BaseTest {
         Assert.assertFalse(mainPage.isErrorMessageDisplayed(), 
             "No browser-specific errors should occur in " + browser);
     }
+    
+    // Visual layout check - compares the header and page with stored baselines (visual.enabled)
+    // Not part of the default suite; run it on its own, e.g. mvn test -Dtest=UrlFlowTest#testVisualLayout
+    @Test(groups = "visual", description = "Verify page layout matches the visual baselines")
+    public void testVisualLayout() {
+        if (!VisualCheck.isEnabled()) {
+            throw new SkipException("Visual checks are disabled (visual.enabled=false)");
+        }
+        MainPage mainPage = new MainPage(driver);
+        
+        VisualComparator.Result header = mainPage.compareHeaderWithBaseline("main-header");
+        Assert.assertTrue(header.isMatch(), "Header should match its baseline: " + header.getSummary());
+        
+        VisualComparator.Result layout = mainPage.compareLayoutWithBaseline("main-page");
+        Assert.assertTrue(layout.isMatch(), "Page layout should match its baseline: " + layout.getSummary());
+    }
 }